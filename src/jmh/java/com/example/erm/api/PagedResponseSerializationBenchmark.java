@@ -0,0 +1,90 @@
+package com.example.erm.api;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.erm.api.model.ExternalProjectResponse;
+import com.example.erm.api.model.PagedResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Cost of writing and reading one page of external projects in each negotiable format. The
+ * payload size of every format is reported next to the score of {@link #serialize}.
+ */
+@State(Scope.Benchmark)
+public class PagedResponseSerializationBenchmark {
+
+  private static final TypeReference<PagedResponse<ExternalProjectResponse>> RESPONSE_TYPE =
+      new TypeReference<>() {};
+
+  @Param({"json", "cbor", "smile"})
+  private String format;
+
+  @Param({"100"})
+  private int items;
+
+  private ObjectMapper objectMapper;
+  private PagedResponse<ExternalProjectResponse> response;
+  private byte[] payload;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format)).build();
+    Instant now = Instant.now();
+    response =
+        new PagedResponse<>(
+            IntStream.range(0, items)
+                .mapToObj(
+                    i ->
+                        new ExternalProjectResponse(
+                            new ObjectId().toHexString(), "project-" + i, now.minusSeconds(i)))
+                .toList(),
+            new PagedResponse.Page(10, 10L * items, items, 0, true, false));
+    payload = objectMapper.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public byte[] serialize(PayloadSize payloadSize) throws IOException {
+    byte[] bytes = objectMapper.writeValueAsBytes(response);
+    payloadSize.bytes = bytes.length;
+
+    return bytes;
+  }
+
+  @Benchmark
+  public PagedResponse<ExternalProjectResponse> deserialize() throws IOException {
+    return objectMapper.readValue(payload, RESPONSE_TYPE);
+  }
+
+  private static JsonFactory factory(String format) {
+    return switch (format) {
+      case "cbor" -> new CBORFactory();
+      case "smile" -> new SmileFactory();
+      default -> new JsonFactory();
+    };
+  }
+
+  // an event counter reports its value at the end of each iteration as it is, the size of the
+  // last payload written
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class PayloadSize {
+
+    public long bytes;
+  }
+}
@@ -0,0 +1,107 @@
+package com.example.erm.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.erm.api.model.ExternalProjectResponse;
+import com.example.erm.api.model.PagedResponse;
+import com.example.erm.api.model.UserResponse;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Writes the hot response types to a stream the way the json converter does, with the default
+ * mapper against the tuned one of JacksonSerializationConfiguration: generated accessors, writers
+ * resolved once and a shared buffer pool.
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class ResponseSerializationBenchmark {
+
+  @Param({"default", "tuned"})
+  private String setup;
+
+  private ObjectWriter userWriter;
+  private ObjectWriter pageWriter;
+  private UserResponse user;
+  private PagedResponse<ExternalProjectResponse> page;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+    if ("tuned".equals(setup)) {
+      builder
+          .modules(new BlackbirdModule())
+          .postConfigurer(
+              objectMapper ->
+                  objectMapper
+                      .getFactory()
+                      .setRecyclerPool(JsonRecyclerPools.sharedConcurrentDequePool()));
+    }
+    ObjectMapper objectMapper = builder.build();
+    if ("tuned".equals(setup)) {
+      userWriter = objectMapper.writerFor(UserResponse.class);
+      pageWriter = objectMapper.writerFor(PagedResponse.class);
+    } else {
+      userWriter = objectMapper.writer();
+      pageWriter = objectMapper.writer();
+    }
+
+    user = new UserResponse(new ObjectId().toHexString(), "john@example.com", "John", null);
+    Instant now = Instant.now();
+    page =
+        new PagedResponse<>(
+            IntStream.range(0, 20)
+                .mapToObj(
+                    i ->
+                        new ExternalProjectResponse(
+                            new ObjectId().toHexString(), "project-" + i, now.minusSeconds(i)))
+                .toList(),
+            new PagedResponse.Page(5, 100L, 20, 0, true, false));
+  }
+
+  @Benchmark
+  public void writeUser(Blackhole blackhole) throws IOException {
+    userWriter.writeValue(new Blackholed(blackhole), user);
+  }
+
+  @Benchmark
+  public void writePage(Blackhole blackhole) throws IOException {
+    pageWriter.writeValue(new Blackholed(blackhole), page);
+  }
+
+  // stands in for the servlet output stream
+  private static class Blackholed extends OutputStream {
+
+    private final Blackhole blackhole;
+
+    Blackholed(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void write(int b) {
+      blackhole.consume(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      blackhole.consume(b);
+    }
+  }
+}
@@ -8,9 +8,14 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import com.example.erm.api.util.ProblemDetailFactory;
 import com.example.erm.exception.DuplicateEmailException;
+import com.example.erm.exception.ExternalProjectInsertTimeoutException;
+import com.example.erm.exception.InvalidCursorException;
+import com.example.erm.exception.MongoBulkheadFullException;
+import com.example.erm.exception.UserModifiedException;
 import com.example.erm.exception.UserNotFoundException;
 
 import lombok.RequiredArgsConstructor;
@@ -45,13 +50,40 @@ public class GlobalExceptionHandler {
     return problemDetailFactory.requestValidationError(e.getFieldErrors());
   }
 
+  // request body validation in the reactive profile
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ProblemDetail handleValidationException(WebExchangeBindException e) {
+    return problemDetailFactory.requestValidationError(e.getFieldErrors());
+  }
+
   @ExceptionHandler(UserNotFoundException.class)
   public ProblemDetail handleUserNotFoundException(UserNotFoundException e) {
     return problemDetailFactory.userNotFound(e.getId());
   }
 
+  @ExceptionHandler(UserModifiedException.class)
+  public ProblemDetail handleUserModifiedException(UserModifiedException e) {
+    return problemDetailFactory.userModified(e.getId());
+  }
+
   @ExceptionHandler(DuplicateEmailException.class)
   public ProblemDetail handleDuplicateEmailException(DuplicateEmailException e) {
     return problemDetailFactory.emailExists(e.getEmail());
   }
+
+  @ExceptionHandler(MongoBulkheadFullException.class)
+  public ProblemDetail handleMongoBulkheadFullException(MongoBulkheadFullException e) {
+    return problemDetailFactory.overloaded();
+  }
+
+  @ExceptionHandler(ExternalProjectInsertTimeoutException.class)
+  public ProblemDetail handleExternalProjectInsertTimeoutException(
+      ExternalProjectInsertTimeoutException e) {
+    return problemDetailFactory.overloaded();
+  }
+
+  @ExceptionHandler(InvalidCursorException.class)
+  public ProblemDetail handleInvalidCursorException(InvalidCursorException e) {
+    return problemDetailFactory.invalidCursor(e.getCursor());
+  }
 }
@@ -0,0 +1,63 @@
+package com.example.erm.api.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.erm.api.model.AccessTokenResponse;
+import com.example.erm.api.util.ApiMediaTypes;
+import com.example.erm.security.AccessTokenService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping(path = "/api/auth")
+@RequiredArgsConstructor
+@Tag(name = "Auth", description = "provides access tokens")
+@ApiResponse(
+    responseCode = "401",
+    description = "Unauthorized",
+    content =
+        @Content(
+            mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+            schema = @Schema(implementation = ProblemDetail.class)))
+public class AuthApiController {
+
+  private static final String TOKEN_TYPE = "Bearer";
+
+  private final AccessTokenService accessTokenService;
+
+  @PostMapping(value = "token", produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.OK)
+  @Operation(
+      summary = "issues short-lived access token for credentials provided via http basic",
+      security = @SecurityRequirement(name = "basicAuth"))
+  @ApiResponse(
+      responseCode = "200",
+      description = "access token to be sent as bearer token",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = AccessTokenResponse.class)))
+  public AccessTokenResponse createAccessToken(@AuthenticationPrincipal UserDetails principal) {
+    AccessTokenService.IssuedAccessToken accessToken =
+        accessTokenService.issue(principal.getUsername());
+
+    return new AccessTokenResponse(
+        accessToken.value(), TOKEN_TYPE, accessToken.expiresIn().toSeconds());
+  }
+}
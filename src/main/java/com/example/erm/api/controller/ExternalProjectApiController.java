@@ -1,46 +1,73 @@
 package com.example.erm.api.controller;
 
-import java.security.Principal;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.springdoc.core.annotations.ParameterObject;
-import org.springframework.data.domain.Page;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.erm.api.mapper.ExternalProjectApiMapper;
+import com.example.erm.api.mapper.RawExternalProjectResponseList;
+import com.example.erm.api.model.CursorPagedResponse;
+import com.example.erm.api.model.ExternalProjectBatchCreateRequest;
+import com.example.erm.api.model.ExternalProjectBatchResponse;
 import com.example.erm.api.model.ExternalProjectCreateRequest;
 import com.example.erm.api.model.ExternalProjectResponse;
 import com.example.erm.api.model.PagedResponse;
+import com.example.erm.api.util.ApiMediaTypes;
+import com.example.erm.api.util.ETags;
 import com.example.erm.command.ExternalProjectCreateCommand;
 import com.example.erm.command.ExternalProjectListCommand;
+import com.example.erm.command.ExternalProjectScrollCommand;
+import com.example.erm.configuration.ErmConfigurationProperties;
 import com.example.erm.exception.UserNotFoundException;
 import com.example.erm.repository.domain.ExternalProject;
-import com.example.erm.repository.domain.User;
+import com.example.erm.security.ErmUserDetails;
 import com.example.erm.service.ExternalProjectService;
 import com.example.erm.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(path = "/api/user")
 @RequiredArgsConstructor
+@Slf4j
 @Validated
 @Tag(name = "ExternalProject", description = "provides operations on external projects of user")
 @ApiResponse(
@@ -59,14 +86,20 @@ import lombok.RequiredArgsConstructor;
             schema = @Schema(implementation = ProblemDetail.class)))
 public class ExternalProjectApiController {
 
+  private static final String DEFAULT_CURSOR_PAGE_SIZE = "20";
+  private static final String WITH_TOTAL_DESCRIPTION =
+      "whether to include totalElements and totalPages; false skips counting";
+
   private final UserService userService;
   private final ExternalProjectService externalProjectService;
   private final ExternalProjectApiMapper externalProjectApiMapper;
+  private final ObjectMapper objectMapper;
+  private final ErmConfigurationProperties ermConfigurationProperties;
 
   @PostMapping(
       value = "{id}/external-project",
-      consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
+      consumes = ApiMediaTypes.ALL,
+      produces = ApiMediaTypes.ALL)
   @ResponseStatus(HttpStatus.CREATED)
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @Operation(summary = "adds external project to user identified by id")
@@ -100,8 +133,8 @@ public class ExternalProjectApiController {
 
   @PostMapping(
       value = "me/external-project",
-      consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
+      consumes = ApiMediaTypes.ALL,
+      produces = ApiMediaTypes.ALL)
   @ResponseStatus(HttpStatus.CREATED)
   @Operation(summary = "adds external project to currently authenticated user")
   @ApiResponse(
@@ -119,10 +152,53 @@ public class ExternalProjectApiController {
               mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
               schema = @Schema(implementation = ProblemDetail.class)))
   public ExternalProjectResponse createExternalProjectForCurrentUser(
-      @Valid @RequestBody ExternalProjectCreateRequest request, Principal principal) {
-    User currentUser = findCurrentUser(principal);
+      @Valid @RequestBody ExternalProjectCreateRequest request,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    return doCreateExternalProject(principal.id(), request);
+  }
 
-    return doCreateExternalProject(currentUser.getId(), request);
+  @PostMapping(
+      value = "{id}/external-project:batch",
+      consumes = ApiMediaTypes.ALL,
+      produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.CREATED)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @Operation(summary = "adds external projects to user identified by id in one request")
+  @ApiResponse(
+      responseCode = "201",
+      description = "external projects successfully created, in request order",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = ExternalProjectBatchResponse.class)))
+  @ApiResponse(
+      responseCode = "400",
+      description = "Request constraint violation",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
+  @ApiResponse(
+      responseCode = "404",
+      description = "user with provided id not found",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
+  public ExternalProjectBatchResponse createExternalProjectsOfUser(
+      @PathVariable("id") String userId,
+      @Valid @RequestBody ExternalProjectBatchCreateRequest request) {
+    checkUserExists(userId);
+
+    List<ExternalProjectCreateCommand> commands =
+        request.getItems().stream()
+            .map(item -> externalProjectApiMapper.toCommand(userId, item))
+            .toList();
+
+    return new ExternalProjectBatchResponse(
+        externalProjectService.createExternalProjects(commands).stream()
+            .map(externalProjectApiMapper::toResponse)
+            .toList());
   }
 
   private ExternalProjectResponse doCreateExternalProject(
@@ -135,10 +211,10 @@ public class ExternalProjectApiController {
     return externalProjectApiMapper.toResponse(externalProject);
   }
 
-  @GetMapping(value = "{id}/external-project", produces = MediaType.APPLICATION_JSON_VALUE)
-  @ResponseStatus(HttpStatus.OK)
+  @GetMapping(value = "{id}/external-project", produces = ApiMediaTypes.ALL)
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @Operation(summary = "lists external projects of user identified by id")
+  @ApiResponse(responseCode = "304", description = "listing matches If-None-Match")
   @ApiResponse(
       responseCode = "404",
       description = "user with provided id not found",
@@ -146,39 +222,186 @@ public class ExternalProjectApiController {
           @Content(
               mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
               schema = @Schema(implementation = ProblemDetail.class)))
-  public PagedResponse<ExternalProjectResponse> listProjects(
-      @PathVariable("id") String userId, @ParameterObject Pageable page) {
+  public ResponseEntity<PagedResponse<ExternalProjectResponse>> listProjects(
+      @PathVariable("id") String userId,
+      @ParameterObject Pageable page,
+      @Parameter(description = WITH_TOTAL_DESCRIPTION)
+          @RequestParam(name = "withTotal", defaultValue = "true")
+          boolean withTotal,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     checkUserExists(userId);
 
-    return doListProjects(userId, page);
+    return withListingETag(userId, ifNoneMatch, () -> doListProjects(userId, page, withTotal));
   }
 
-  @GetMapping(value = "me/external-project", produces = MediaType.APPLICATION_JSON_VALUE)
-  @ResponseStatus(HttpStatus.OK)
+  @GetMapping(value = "me/external-project", produces = ApiMediaTypes.ALL)
   @Operation(summary = "lists external projects of currently authenticated user")
-  public PagedResponse<ExternalProjectResponse> listProjectsOfCurrentUser(
-      @ParameterObject Pageable page, Principal principal) {
-    User currentUser = findCurrentUser(principal);
+  @ApiResponse(responseCode = "304", description = "listing matches If-None-Match")
+  public ResponseEntity<PagedResponse<ExternalProjectResponse>> listProjectsOfCurrentUser(
+      @ParameterObject Pageable page,
+      @Parameter(description = WITH_TOTAL_DESCRIPTION)
+          @RequestParam(name = "withTotal", defaultValue = "true")
+          boolean withTotal,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    return withListingETag(
+        principal.id(), ifNoneMatch, () -> doListProjects(principal.id(), page, withTotal));
+  }
+
+  private PagedResponse<ExternalProjectResponse> doListProjects(
+      String userId, Pageable page, boolean withTotal) {
+    ExternalProjectListCommand command = new ExternalProjectListCommand(userId, page, withTotal);
+    if (ermConfigurationProperties.externalProject().rawListing().enabled()) {
+      return RawExternalProjectResponseList.pagedResponseOf(
+          externalProjectService.listRawExternalProjects(command));
+    }
+
+    return externalProjectApiMapper.toListResponse(
+        externalProjectService.listExternalProjects(command));
+  }
+
+  @GetMapping(value = "{id}/external-project", params = "after", produces = ApiMediaTypes.ALL)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @Operation(summary = "lists external projects of user identified by id using cursor pagination")
+  @ApiResponse(responseCode = "304", description = "listing matches If-None-Match")
+  @ApiResponse(
+      responseCode = "400",
+      description = "invalid cursor",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
+  @ApiResponse(
+      responseCode = "404",
+      description = "user with provided id not found",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
+  public ResponseEntity<CursorPagedResponse<ExternalProjectResponse>> scrollProjects(
+      @PathVariable("id") String userId,
+      @Parameter(description = "nextCursor of the previous page; empty for the first page")
+          @RequestParam("after")
+          String after,
+      @RequestParam(name = "size", defaultValue = DEFAULT_CURSOR_PAGE_SIZE) int size,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    checkUserExists(userId);
 
-    return doListProjects(currentUser.getId(), page);
+    return doScrollProjects(userId, after, size, ifNoneMatch);
   }
 
-  private PagedResponse<ExternalProjectResponse> doListProjects(String userId, Pageable page) {
-    Page<ExternalProjectResponse> responsePage =
-        externalProjectService
-            .listExternalProjects(new ExternalProjectListCommand(userId, page))
-            .map(externalProjectApiMapper::toResponse);
+  @GetMapping(value = "me/external-project", params = "after", produces = ApiMediaTypes.ALL)
+  @Operation(
+      summary = "lists external projects of currently authenticated user using cursor pagination")
+  @ApiResponse(responseCode = "304", description = "listing matches If-None-Match")
+  @ApiResponse(
+      responseCode = "400",
+      description = "invalid cursor",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
+  public ResponseEntity<CursorPagedResponse<ExternalProjectResponse>> scrollProjectsOfCurrentUser(
+      @Parameter(description = "nextCursor of the previous page; empty for the first page")
+          @RequestParam("after")
+          String after,
+      @RequestParam(name = "size", defaultValue = DEFAULT_CURSOR_PAGE_SIZE) int size,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    return doScrollProjects(principal.id(), after, size, ifNoneMatch);
+  }
 
-    return PagedResponse.of(responsePage);
+  // an invalid cursor is rejected before anything is read
+  private ResponseEntity<CursorPagedResponse<ExternalProjectResponse>> doScrollProjects(
+      String userId, String after, int size, String ifNoneMatch) {
+    ExternalProjectScrollCommand command =
+        externalProjectApiMapper.toScrollCommand(userId, after, size);
+
+    return withListingETag(
+        userId,
+        ifNoneMatch,
+        () ->
+            externalProjectApiMapper.toScrollResponse(
+                externalProjectService.scrollExternalProjects(command)));
   }
 
-  private User findCurrentUser(Principal principal) {
-    return userService
-        .findUserByEmail(principal.getName())
-        .orElseThrow(() -> new UserNotFoundException(principal.getName()));
+  @GetMapping(value = "{id}/external-project/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @Operation(
+      summary = "streams all external projects of user identified by id as newline delimited json")
+  @ApiResponse(
+      responseCode = "200",
+      description = "one external project per line, oldest first",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+              schema = @Schema(implementation = ExternalProjectResponse.class)))
+  @ApiResponse(
+      responseCode = "404",
+      description = "user with provided id not found",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
+  public ResponseEntity<StreamingResponseBody> exportProjects(@PathVariable("id") String userId) {
+    checkUserExists(userId);
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(outputStream -> writeProjects(userId, outputStream));
+  }
+
+  private void writeProjects(String userId, OutputStream outputStream) {
+    ObjectWriter objectWriter =
+        objectMapper
+            .writerFor(ExternalProjectResponse.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    long written = 0;
+    // every document is written as it arrives from the cursor; only the generator's and the
+    // response's buffers are held
+    try (Stream<ExternalProject> projects = externalProjectService.streamExternalProjects(userId);
+        JsonGenerator generator =
+            objectMapper
+                .getFactory()
+                .createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null)) {
+      for (Iterator<ExternalProject> iterator = projects.iterator(); iterator.hasNext(); ) {
+        objectWriter.writeValue(generator, externalProjectApiMapper.toResponse(iterator.next()));
+        generator.writeRaw('\n');
+        written++;
+      }
+    } catch (IOException e) {
+      // the response is already committed, so there is nobody left to report to; closing the
+      // stream has released the cursor
+      log.debug(
+          "Export of external projects of user {} aborted after {} items. {}",
+          userId,
+          written,
+          e.getMessage());
+      return;
+    }
+    log.debug("Exported {} external projects of user {}", written, userId);
+  }
+
+  // the tag is read before the listing, so a concurrent change can leave the tag behind the body
+  // but never the other way round; it is one lookup of the counter of the user by id
+  private <T> ResponseEntity<T> withListingETag(
+      String userId, String ifNoneMatch, Supplier<T> listing) {
+    String etag = ETags.of(userId, externalProjectService.findListingVersion(userId));
+    if (ETags.matchesAny(ifNoneMatch, etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(etag)
+          .varyBy(HttpHeaders.ACCEPT)
+          .build();
+    }
+
+    return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(listing.get());
   }
 
   private void checkUserExists(String userId) {
-    userService.findUserById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+    if (!userService.userExists(userId)) {
+      throw new UserNotFoundException(userId);
+    }
   }
 }
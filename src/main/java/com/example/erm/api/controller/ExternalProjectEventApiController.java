@@ -0,0 +1,255 @@
+package com.example.erm.api.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.erm.api.mapper.ExternalProjectApiMapper;
+import com.example.erm.api.model.ExternalProjectResponse;
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.event.ExternalProjectChangedEvent;
+import com.example.erm.exception.UserNotFoundException;
+import com.example.erm.security.ErmUserDetails;
+import com.example.erm.service.ExternalProjectEventBroadcaster;
+import com.example.erm.service.ExternalProjectEventBroadcaster.Subscription;
+import com.example.erm.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "erm.external-project.events.enabled", havingValue = "true")
+@RequestMapping(path = "/api/user")
+@Slf4j
+@Tag(name = "ExternalProject", description = "provides operations on external projects of user")
+@ApiResponse(
+    responseCode = "401",
+    description = "Unauthorized",
+    content =
+        @Content(
+            mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+            schema = @Schema(implementation = ProblemDetail.class)))
+@ApiResponse(
+    responseCode = "403",
+    description = "Forbidden",
+    content =
+        @Content(
+            mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+            schema = @Schema(implementation = ProblemDetail.class)))
+public class ExternalProjectEventApiController {
+
+  private static final String LAST_EVENT_ID = "Last-Event-ID";
+  private static final String LAST_EVENT_ID_DESCRIPTION =
+      "id of the last event received; the events after it are sent first";
+  private static final byte[] RESET = "event: reset\ndata:\n\n".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+  private final UserService userService;
+  private final ExternalProjectEventBroadcaster externalProjectEventBroadcaster;
+  private final ExternalProjectApiMapper externalProjectApiMapper;
+  private final ObjectWriter responseWriter;
+  private final ErmConfigurationProperties.ExternalProject.Events settings;
+
+  public ExternalProjectEventApiController(
+      UserService userService,
+      ExternalProjectEventBroadcaster externalProjectEventBroadcaster,
+      ExternalProjectApiMapper externalProjectApiMapper,
+      ObjectMapper objectMapper,
+      ErmConfigurationProperties ermConfigurationProperties) {
+    this.userService = userService;
+    this.externalProjectEventBroadcaster = externalProjectEventBroadcaster;
+    this.externalProjectApiMapper = externalProjectApiMapper;
+    // the stream outlives every value written to it and is flushed once per batch of events
+    this.responseWriter =
+        objectMapper
+            .writerFor(ExternalProjectResponse.class)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    this.settings = ermConfigurationProperties.externalProject().events();
+  }
+
+  @GetMapping(value = "{id}/external-project/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @Operation(
+      summary =
+          "streams created and updated external projects of user identified by id as server-sent"
+              + " events")
+  @ApiResponse(
+      responseCode = "200",
+      description =
+          "created and updated events holding the project; a reset event asks to list the projects"
+              + " again, as the events since Last-Event-ID are no longer known",
+      content =
+          @Content(
+              mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+              schema = @Schema(implementation = ExternalProjectResponse.class)))
+  @ApiResponse(
+      responseCode = "404",
+      description = "user with provided id not found",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
+  public ResponseEntity<StreamingResponseBody> streamEvents(
+      @PathVariable("id") String userId,
+      @Parameter(description = LAST_EVENT_ID_DESCRIPTION)
+          @RequestHeader(name = LAST_EVENT_ID, required = false)
+          String lastEventId) {
+    checkUserExists(userId);
+
+    return events(userId, lastEventId);
+  }
+
+  @GetMapping(value = "me/external-project/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary =
+          "streams created and updated external projects of currently authenticated user as"
+              + " server-sent events")
+  @ApiResponse(
+      responseCode = "200",
+      description =
+          "created and updated events holding the project; a reset event asks to list the projects"
+              + " again, as the events since Last-Event-ID are no longer known",
+      content =
+          @Content(
+              mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+              schema = @Schema(implementation = ExternalProjectResponse.class)))
+  public ResponseEntity<StreamingResponseBody> streamEventsOfCurrentUser(
+      @Parameter(description = LAST_EVENT_ID_DESCRIPTION)
+          @RequestHeader(name = LAST_EVENT_ID, required = false)
+          String lastEventId,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    return events(principal.id(), lastEventId);
+  }
+
+  // written by a virtual thread of its own for as long as the client stays, and ended by the
+  // async request timeout at the latest; the client then reconnects with its Last-Event-ID
+  private ResponseEntity<StreamingResponseBody> events(String userId, String lastEventId) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.TEXT_EVENT_STREAM)
+        .cacheControl(CacheControl.noStore())
+        .body(outputStream -> writeEvents(userId, lastEventId, outputStream));
+  }
+
+  private void writeEvents(String userId, String lastEventId, OutputStream outputStream) {
+    QueueReceiver receiver = new QueueReceiver(settings.subscriberQueueSize());
+    Subscription subscription =
+        externalProjectEventBroadcaster.subscribe(userId, lastEventId, receiver);
+    long written = 0;
+    try {
+      if (subscription.isReset()) {
+        outputStream.write(RESET);
+      }
+      for (ExternalProjectChangedEvent event : subscription.getReplay()) {
+        write(event, outputStream);
+        written++;
+      }
+      outputStream.flush();
+      while (!receiver.isDone()) {
+        ExternalProjectChangedEvent event = receiver.poll(settings.heartbeatInterval());
+        if (event == null) {
+          // also how a client that went away is noticed
+          outputStream.write(HEARTBEAT);
+        }
+        // everything already queued goes out with one flush
+        for (; event != null; event = receiver.poll()) {
+          write(event, outputStream);
+          written++;
+        }
+        outputStream.flush();
+      }
+    } catch (IOException e) {
+      log.debug(
+          "Event stream of user {} closed after {} events. {}", userId, written, e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      externalProjectEventBroadcaster.unsubscribe(subscription);
+    }
+  }
+
+  private void write(ExternalProjectChangedEvent event, OutputStream outputStream)
+      throws IOException {
+    outputStream.write(
+        ("id: "
+                + event.position()
+                + "\nevent: "
+                + event.type().name().toLowerCase(Locale.ROOT)
+                + "\ndata: ")
+            .getBytes(StandardCharsets.UTF_8));
+    responseWriter.writeValue(
+        outputStream, externalProjectApiMapper.toResponse(event.externalProject()));
+    outputStream.write('\n');
+    outputStream.write('\n');
+  }
+
+  private void checkUserExists(String userId) {
+    if (!userService.userExists(userId)) {
+      throw new UserNotFoundException(userId);
+    }
+  }
+
+  // bounded, so a client that reads slower than projects change is dropped instead of buffered
+  private static class QueueReceiver implements ExternalProjectEventBroadcaster.Receiver {
+
+    private final BlockingQueue<ExternalProjectChangedEvent> queue;
+    private volatile boolean dropped;
+
+    QueueReceiver(int capacity) {
+      this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public boolean offer(ExternalProjectChangedEvent event) {
+      return queue.offer(event);
+    }
+
+    @Override
+    public void dropped() {
+      dropped = true;
+    }
+
+    // what was queued before the drop is still written
+    boolean isDone() {
+      return dropped && queue.isEmpty();
+    }
+
+    ExternalProjectChangedEvent poll(Duration timeout) throws InterruptedException {
+      return queue.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    ExternalProjectChangedEvent poll() {
+      return queue.poll();
+    }
+  }
+}
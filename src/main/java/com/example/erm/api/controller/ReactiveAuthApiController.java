@@ -0,0 +1,43 @@
+package com.example.erm.api.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.erm.api.model.AccessTokenResponse;
+import com.example.erm.api.util.ApiMediaTypes;
+import com.example.erm.security.AccessTokenService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// counterpart of AuthApiController for the reactive profile
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(path = "/api/auth")
+@RequiredArgsConstructor
+public class ReactiveAuthApiController {
+
+  private static final String TOKEN_TYPE = "Bearer";
+
+  private final AccessTokenService accessTokenService;
+
+  // the mongo token store blocks, so tokens are issued off the event loop
+  @PostMapping(value = "token", produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.OK)
+  public Mono<AccessTokenResponse> createAccessToken(
+      @AuthenticationPrincipal UserDetails principal) {
+    return Mono.fromCallable(() -> accessTokenService.issue(principal.getUsername()))
+        .subscribeOn(Schedulers.boundedElastic())
+        .map(
+            accessToken ->
+                new AccessTokenResponse(
+                    accessToken.value(), TOKEN_TYPE, accessToken.expiresIn().toSeconds()));
+  }
+}
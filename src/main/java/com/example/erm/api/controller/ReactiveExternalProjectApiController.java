@@ -0,0 +1,232 @@
+package com.example.erm.api.controller;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.erm.api.mapper.ExternalProjectApiMapper;
+import com.example.erm.api.mapper.RawExternalProjectResponseList;
+import com.example.erm.api.model.CursorPagedResponse;
+import com.example.erm.api.model.ExternalProjectBatchCreateRequest;
+import com.example.erm.api.model.ExternalProjectBatchResponse;
+import com.example.erm.api.model.ExternalProjectCreateRequest;
+import com.example.erm.api.model.ExternalProjectResponse;
+import com.example.erm.api.model.PagedResponse;
+import com.example.erm.api.util.ApiMediaTypes;
+import com.example.erm.api.util.ETags;
+import com.example.erm.command.ExternalProjectCreateCommand;
+import com.example.erm.command.ExternalProjectListCommand;
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.exception.UserNotFoundException;
+import com.example.erm.security.ErmUserDetails;
+import com.example.erm.service.ReactiveExternalProjectService;
+import com.example.erm.service.ReactiveUserService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// counterpart of ExternalProjectApiController for the reactive profile; the api is documented by
+// the servlet controllers
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(path = "/api/user")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveExternalProjectApiController {
+
+  private static final String DEFAULT_CURSOR_PAGE_SIZE = "20";
+
+  private final ReactiveUserService userService;
+  private final ReactiveExternalProjectService externalProjectService;
+  private final ExternalProjectApiMapper externalProjectApiMapper;
+  private final ErmConfigurationProperties ermConfigurationProperties;
+
+  @PostMapping(
+      value = "{id}/external-project",
+      consumes = ApiMediaTypes.ALL,
+      produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.CREATED)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<ExternalProjectResponse> createExternalProjectOfUser(
+      @PathVariable("id") String userId, @Valid @RequestBody ExternalProjectCreateRequest request) {
+    return checkUserExists(userId).then(Mono.defer(() -> doCreateExternalProject(userId, request)));
+  }
+
+  @PostMapping(
+      value = "me/external-project",
+      consumes = ApiMediaTypes.ALL,
+      produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<ExternalProjectResponse> createExternalProjectForCurrentUser(
+      @Valid @RequestBody ExternalProjectCreateRequest request,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    return doCreateExternalProject(principal.id(), request);
+  }
+
+  @PostMapping(
+      value = "{id}/external-project:batch",
+      consumes = ApiMediaTypes.ALL,
+      produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.CREATED)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<ExternalProjectBatchResponse> createExternalProjectsOfUser(
+      @PathVariable("id") String userId,
+      @Valid @RequestBody ExternalProjectBatchCreateRequest request) {
+    List<ExternalProjectCreateCommand> commands =
+        request.getItems().stream()
+            .map(item -> externalProjectApiMapper.toCommand(userId, item))
+            .toList();
+
+    return checkUserExists(userId)
+        .then(Mono.defer(() -> externalProjectService.createExternalProjects(commands)))
+        .map(
+            externalProjects ->
+                new ExternalProjectBatchResponse(
+                    externalProjects.stream().map(externalProjectApiMapper::toResponse).toList()));
+  }
+
+  private Mono<ExternalProjectResponse> doCreateExternalProject(
+      String userId, ExternalProjectCreateRequest request) {
+    return externalProjectService
+        .createExternalProject(externalProjectApiMapper.toCommand(userId, request))
+        .map(externalProjectApiMapper::toResponse);
+  }
+
+  @GetMapping(value = "{id}/external-project", produces = ApiMediaTypes.ALL)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<ResponseEntity<PagedResponse<ExternalProjectResponse>>> listProjects(
+      @PathVariable("id") String userId,
+      Pageable page,
+      @RequestParam(name = "withTotal", defaultValue = "true") boolean withTotal,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return checkUserExists(userId)
+        .then(
+            Mono.defer(
+                () ->
+                    withListingETag(
+                        userId, ifNoneMatch, () -> doListProjects(userId, page, withTotal))));
+  }
+
+  @GetMapping(value = "me/external-project", produces = ApiMediaTypes.ALL)
+  public Mono<ResponseEntity<PagedResponse<ExternalProjectResponse>>> listProjectsOfCurrentUser(
+      Pageable page,
+      @RequestParam(name = "withTotal", defaultValue = "true") boolean withTotal,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    return withListingETag(
+        principal.id(), ifNoneMatch, () -> doListProjects(principal.id(), page, withTotal));
+  }
+
+  private Mono<PagedResponse<ExternalProjectResponse>> doListProjects(
+      String userId, Pageable page, boolean withTotal) {
+    ExternalProjectListCommand command = new ExternalProjectListCommand(userId, page, withTotal);
+    if (ermConfigurationProperties.externalProject().rawListing().enabled()) {
+      return externalProjectService
+          .listRawExternalProjects(command)
+          .map(RawExternalProjectResponseList::pagedResponseOf);
+    }
+
+    return externalProjectService
+        .listExternalProjects(command)
+        .map(externalProjectApiMapper::toListResponse);
+  }
+
+  @GetMapping(value = "{id}/external-project", params = "after", produces = ApiMediaTypes.ALL)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<ResponseEntity<CursorPagedResponse<ExternalProjectResponse>>> scrollProjects(
+      @PathVariable("id") String userId,
+      @RequestParam("after") String after,
+      @RequestParam(name = "size", defaultValue = DEFAULT_CURSOR_PAGE_SIZE) int size,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return checkUserExists(userId)
+        .then(Mono.defer(() -> doScrollProjects(userId, after, size, ifNoneMatch)));
+  }
+
+  @GetMapping(value = "me/external-project", params = "after", produces = ApiMediaTypes.ALL)
+  public Mono<ResponseEntity<CursorPagedResponse<ExternalProjectResponse>>>
+      scrollProjectsOfCurrentUser(
+          @RequestParam("after") String after,
+          @RequestParam(name = "size", defaultValue = DEFAULT_CURSOR_PAGE_SIZE) int size,
+          @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+          @AuthenticationPrincipal ErmUserDetails principal) {
+    return doScrollProjects(principal.id(), after, size, ifNoneMatch);
+  }
+
+  // an invalid cursor is rejected before anything is read
+  private Mono<ResponseEntity<CursorPagedResponse<ExternalProjectResponse>>> doScrollProjects(
+      String userId, String after, int size, String ifNoneMatch) {
+    return Mono.fromCallable(() -> externalProjectApiMapper.toScrollCommand(userId, after, size))
+        .flatMap(
+            command ->
+                withListingETag(
+                    userId,
+                    ifNoneMatch,
+                    () ->
+                        externalProjectService
+                            .scrollExternalProjects(command)
+                            .map(externalProjectApiMapper::toScrollResponse)));
+  }
+
+  // written as the cursor delivers documents and only as fast as the client reads; a client that
+  // goes away cancels the cursor
+  @GetMapping(value = "{id}/external-project/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Flux<ExternalProjectResponse> exportProjects(@PathVariable("id") String userId) {
+    return checkUserExists(userId)
+        .thenMany(Flux.defer(() -> externalProjectService.streamExternalProjects(userId)))
+        .map(externalProjectApiMapper::toResponse)
+        .doOnCancel(() -> log.debug("Export of external projects of user {} aborted", userId));
+  }
+
+  // see ExternalProjectApiController#withListingETag
+  private <T> Mono<ResponseEntity<T>> withListingETag(
+      String userId, String ifNoneMatch, Supplier<Mono<T>> listing) {
+    return externalProjectService
+        .findListingVersion(userId)
+        .map(listingVersion -> ETags.of(userId, listingVersion))
+        .flatMap(
+            etag ->
+                ETags.matchesAny(ifNoneMatch, etag)
+                    ? Mono.just(
+                        ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(etag)
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .<T>build())
+                    : listing
+                        .get()
+                        .map(
+                            body ->
+                                ResponseEntity.ok()
+                                    .eTag(etag)
+                                    .varyBy(HttpHeaders.ACCEPT)
+                                    .body(body)));
+  }
+
+  private Mono<Void> checkUserExists(String userId) {
+    return userService
+        .userExists(userId)
+        .filter(Boolean::booleanValue)
+        .switchIfEmpty(Mono.error(() -> new UserNotFoundException(userId)))
+        .then();
+  }
+}
@@ -0,0 +1,196 @@
+package com.example.erm.api.controller;
+
+import java.util.Locale;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.erm.api.mapper.ExternalProjectApiMapper;
+import com.example.erm.api.model.ExternalProjectResponse;
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.event.ExternalProjectChangedEvent;
+import com.example.erm.exception.UserNotFoundException;
+import com.example.erm.security.ErmUserDetails;
+import com.example.erm.service.ExternalProjectEventBroadcaster;
+import com.example.erm.service.ExternalProjectEventBroadcaster.Subscription;
+import com.example.erm.service.ReactiveUserService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+// counterpart of ExternalProjectEventApiController for the reactive profile
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(name = "erm.external-project.events.enabled", havingValue = "true")
+@RequestMapping(path = "/api/user")
+@Tag(name = "ExternalProject", description = "provides operations on external projects of user")
+@ApiResponse(
+    responseCode = "401",
+    description = "Unauthorized",
+    content =
+        @Content(
+            mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+            schema = @Schema(implementation = ProblemDetail.class)))
+@ApiResponse(
+    responseCode = "403",
+    description = "Forbidden",
+    content =
+        @Content(
+            mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+            schema = @Schema(implementation = ProblemDetail.class)))
+public class ReactiveExternalProjectEventApiController {
+
+  private static final String LAST_EVENT_ID = "Last-Event-ID";
+  private static final String LAST_EVENT_ID_DESCRIPTION =
+      "id of the last event received; the events after it are sent first";
+  // clients dispatch an event only if it has a data line, even an empty one
+  private static final ServerSentEvent<Object> RESET =
+      ServerSentEvent.builder().event("reset").data("").build();
+  private static final ServerSentEvent<Object> HEARTBEAT =
+      ServerSentEvent.builder().comment("").build();
+
+  private final ReactiveUserService userService;
+  private final ExternalProjectEventBroadcaster externalProjectEventBroadcaster;
+  private final ExternalProjectApiMapper externalProjectApiMapper;
+  private final ErmConfigurationProperties.ExternalProject.Events settings;
+
+  public ReactiveExternalProjectEventApiController(
+      ReactiveUserService userService,
+      ExternalProjectEventBroadcaster externalProjectEventBroadcaster,
+      ExternalProjectApiMapper externalProjectApiMapper,
+      ErmConfigurationProperties ermConfigurationProperties) {
+    this.userService = userService;
+    this.externalProjectEventBroadcaster = externalProjectEventBroadcaster;
+    this.externalProjectApiMapper = externalProjectApiMapper;
+    this.settings = ermConfigurationProperties.externalProject().events();
+  }
+
+  @GetMapping(value = "{id}/external-project/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @Operation(
+      summary =
+          "streams created and updated external projects of user identified by id as server-sent"
+              + " events")
+  @ApiResponse(
+      responseCode = "200",
+      description =
+          "created and updated events holding the project; a reset event asks to list the projects"
+              + " again, as the events since Last-Event-ID are no longer known",
+      content =
+          @Content(
+              mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+              schema = @Schema(implementation = ExternalProjectResponse.class)))
+  @ApiResponse(
+      responseCode = "404",
+      description = "user with provided id not found",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
+  public Flux<ServerSentEvent<Object>> streamEvents(
+      @PathVariable("id") String userId,
+      @Parameter(description = LAST_EVENT_ID_DESCRIPTION)
+          @RequestHeader(name = LAST_EVENT_ID, required = false)
+          String lastEventId) {
+    return checkUserExists(userId).thenMany(Flux.defer(() -> events(userId, lastEventId)));
+  }
+
+  @GetMapping(value = "me/external-project/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary =
+          "streams created and updated external projects of currently authenticated user as"
+              + " server-sent events")
+  @ApiResponse(
+      responseCode = "200",
+      description =
+          "created and updated events holding the project; a reset event asks to list the projects"
+              + " again, as the events since Last-Event-ID are no longer known",
+      content =
+          @Content(
+              mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+              schema = @Schema(implementation = ExternalProjectResponse.class)))
+  public Flux<ServerSentEvent<Object>> streamEventsOfCurrentUser(
+      @Parameter(description = LAST_EVENT_ID_DESCRIPTION)
+          @RequestHeader(name = LAST_EVENT_ID, required = false)
+          String lastEventId,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    return Flux.defer(() -> events(principal.id(), lastEventId));
+  }
+
+  private Flux<ServerSentEvent<Object>> events(String userId, String lastEventId) {
+    // bounded, so a client that reads slower than projects change is dropped instead of buffered
+    Sinks.Many<ExternalProjectChangedEvent> sink =
+        Sinks.many()
+            .unicast()
+            .onBackpressureBuffer(
+                Queues.<ExternalProjectChangedEvent>get(settings.subscriberQueueSize()).get());
+    Subscription subscription =
+        externalProjectEventBroadcaster.subscribe(
+            userId,
+            lastEventId,
+            new ExternalProjectEventBroadcaster.Receiver() {
+              @Override
+              public boolean offer(ExternalProjectChangedEvent event) {
+                return sink.tryEmitNext(event).isSuccess();
+              }
+
+              @Override
+              public void dropped() {
+                sink.tryEmitComplete();
+              }
+            });
+
+    Flux<ServerSentEvent<Object>> events =
+        Flux.concat(
+            subscription.isReset() ? Mono.just(RESET) : Mono.empty(),
+            Flux.fromIterable(subscription.getReplay()).map(this::toServerSentEvent),
+            sink.asFlux().map(this::toServerSentEvent));
+
+    // heartbeats only while the stream is open; they are also how a client that went away is
+    // noticed
+    return events
+        .publish(
+            shared ->
+                Flux.merge(
+                    shared,
+                    Flux.interval(settings.heartbeatInterval())
+                        .onBackpressureDrop()
+                        .map(tick -> HEARTBEAT)
+                        .takeUntilOther(shared.ignoreElements())))
+        .doFinally(signal -> externalProjectEventBroadcaster.unsubscribe(subscription));
+  }
+
+  private ServerSentEvent<Object> toServerSentEvent(ExternalProjectChangedEvent event) {
+    return ServerSentEvent.<Object>builder(
+            externalProjectApiMapper.toResponse(event.externalProject()))
+        .id(Long.toString(event.position()))
+        .event(event.type().name().toLowerCase(Locale.ROOT))
+        .build();
+  }
+
+  private Mono<Void> checkUserExists(String userId) {
+    return userService
+        .userExists(userId)
+        .filter(Boolean::booleanValue)
+        .switchIfEmpty(Mono.error(() -> new UserNotFoundException(userId)))
+        .then();
+  }
+}
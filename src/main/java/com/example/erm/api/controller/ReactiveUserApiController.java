@@ -0,0 +1,241 @@
+package com.example.erm.api.controller;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.erm.api.mapper.UserApiMapper;
+import com.example.erm.api.model.CursorPagedResponse;
+import com.example.erm.api.model.UserCreateRequest;
+import com.example.erm.api.model.UserImportItemResponse;
+import com.example.erm.api.model.UserImportResponse;
+import com.example.erm.api.model.UserResponse;
+import com.example.erm.api.model.UserUpdateRequest;
+import com.example.erm.api.util.ApiMediaTypes;
+import com.example.erm.api.util.ETags;
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.exception.UserNotFoundException;
+import com.example.erm.repository.domain.User;
+import com.example.erm.security.ErmUserDetails;
+import com.example.erm.service.ReactiveUserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// counterpart of UserApiController for the reactive profile; the api is documented by the servlet
+// controllers
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(path = "/api/user")
+@RequiredArgsConstructor
+public class ReactiveUserApiController {
+
+  private static final String DEFAULT_PAGE_SIZE = "20";
+
+  private final ReactiveUserService userService;
+  private final UserApiMapper userApiMapper;
+  private final Validator validator;
+  private final ErmConfigurationProperties ermConfigurationProperties;
+
+  @PostMapping(consumes = ApiMediaTypes.ALL, produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.CREATED)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<UserResponse> createUser(@Valid @RequestBody UserCreateRequest request) {
+    return userService.createUser(userApiMapper.toCommand(request)).map(userApiMapper::toResponse);
+  }
+
+  // the decoder unwraps a json array and reads newline delimited json value by value, so items are
+  // validated and imported in chunks as they arrive
+  @PostMapping(
+      value = "import",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.OK)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<UserImportResponse> importUsers(@RequestBody Flux<UserCreateRequest> body) {
+    int chunkSize = ermConfigurationProperties.userImport().chunkSize();
+    AtomicInteger index = new AtomicInteger();
+    Flux<ImportItem> items =
+        body.map(request -> new ImportItem(index.getAndIncrement(), request, validate(request)))
+            .onErrorResume(
+                DecodingException.class,
+                // items read so far are still imported; nothing after the malformed one is
+                e -> Mono.just(new ImportItem(index.get(), null, List.of(malformed(e)))));
+
+    return items
+        .publish(
+            shared ->
+                Flux.merge(
+                    shared
+                        .filter(item -> !item.errors().isEmpty())
+                        .map(
+                            item ->
+                                userApiMapper.toRejectedImportItemResponse(
+                                    item.index(), item.request(), item.errors())),
+                    shared
+                        .filter(item -> item.errors().isEmpty())
+                        .buffer(chunkSize)
+                        .concatMap(this::importChunk)))
+        .collectSortedList(Comparator.comparingInt(UserImportItemResponse::index))
+        .map(UserImportResponse::of);
+  }
+
+  private List<String> validate(UserCreateRequest request) {
+    return validator.validate(request).stream()
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .sorted()
+        .toList();
+  }
+
+  private Flux<UserImportItemResponse> importChunk(List<ImportItem> chunk) {
+    return userService
+        .importUsers(chunk.stream().map(item -> userApiMapper.toCommand(item.request())).toList())
+        .flatMapIterable(
+            importedUsers ->
+                IntStream.range(0, importedUsers.size())
+                    .mapToObj(
+                        i ->
+                            userApiMapper.toImportItemResponse(
+                                chunk.get(i).index(), importedUsers.get(i)))
+                    .toList());
+  }
+
+  private static String malformed(DecodingException e) {
+    String message =
+        e.getCause() instanceof JsonProcessingException cause
+            ? cause.getOriginalMessage()
+            : e.getMessage();
+
+    return "malformed input, import stopped: " + message;
+  }
+
+  private record ImportItem(int index, UserCreateRequest request, List<String> errors) {}
+
+  @GetMapping(path = "me", produces = ApiMediaTypes.ALL)
+  public ResponseEntity<UserResponse> findCurrentUser(
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    User user = principal.user();
+    String etag = ETags.of(user);
+    if (ETags.matchesAny(ifNoneMatch, etag)) {
+      return notModified(etag);
+    }
+
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(userApiMapper.toResponse(user));
+  }
+
+  @PutMapping(value = "{id}", consumes = ApiMediaTypes.ALL, produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.OK)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<UserResponse> updateUser(
+      @PathVariable String id,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @Valid @RequestBody UserUpdateRequest request) {
+    return doUpdateUser(id, ifMatch, request);
+  }
+
+  @PutMapping(value = "me", consumes = ApiMediaTypes.ALL, produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.OK)
+  public Mono<UserResponse> updateCurrentUser(
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @Valid @RequestBody UserUpdateRequest request,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    return doUpdateUser(principal.id(), ifMatch, request);
+  }
+
+  private Mono<UserResponse> doUpdateUser(String id, String ifMatch, UserUpdateRequest request) {
+    return Mono.fromCallable(() -> userApiMapper.toCommand(id, request, ifMatch))
+        .flatMap(userService::updateUser)
+        .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+        .map(userApiMapper::toResponse);
+  }
+
+  @GetMapping(produces = ApiMediaTypes.ALL)
+  @ResponseStatus(HttpStatus.OK)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<CursorPagedResponse<UserResponse>> listUsers(
+      @RequestParam(name = "role", required = false) String role,
+      @RequestParam(name = "emailPrefix", required = false) String emailPrefix,
+      @RequestParam(name = "after", required = false) String after,
+      @RequestParam(name = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+    return Mono.fromCallable(() -> userApiMapper.toListCommand(role, emailPrefix, after, size))
+        .flatMap(userService::listUsers)
+        .map(userApiMapper::toListResponse);
+  }
+
+  @GetMapping(path = "{id}", produces = ApiMediaTypes.ALL)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<ResponseEntity<UserResponse>> findUserById(
+      @PathVariable String id,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    // a matching tag is answered from id, version and updatedAt alone
+    Mono<ResponseEntity<UserResponse>> notModified =
+        ifNoneMatch == null
+            ? Mono.empty()
+            : userService
+                .findUserVersionById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+                .map(ETags::of)
+                .filter(etag -> ETags.matchesAny(ifNoneMatch, etag))
+                .map(ReactiveUserApiController::notModified);
+
+    return notModified.switchIfEmpty(
+        Mono.defer(
+            () ->
+                userService
+                    .findUserById(id)
+                    .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+                    .map(
+                        user ->
+                            ResponseEntity.ok()
+                                .eTag(ETags.of(user))
+                                .varyBy(HttpHeaders.ACCEPT)
+                                .body(userApiMapper.toResponse(user)))));
+  }
+
+  private static ResponseEntity<UserResponse> notModified(String etag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+        .eTag(etag)
+        .varyBy(HttpHeaders.ACCEPT)
+        .build();
+  }
+
+  @DeleteMapping(path = "{id}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  public Mono<Void> deleteUserById(@PathVariable String id) {
+    return userService
+        .deleteUserById(id)
+        .filter(Boolean::booleanValue)
+        .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+        .then();
+  }
+}
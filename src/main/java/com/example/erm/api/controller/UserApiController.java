@@ -1,11 +1,19 @@
 package com.example.erm.api.controller;
 
-import java.security.Principal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,29 +21,46 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.erm.api.mapper.UserApiMapper;
+import com.example.erm.api.model.CursorPagedResponse;
 import com.example.erm.api.model.UserCreateRequest;
+import com.example.erm.api.model.UserImportItemResponse;
+import com.example.erm.api.model.UserImportResponse;
 import com.example.erm.api.model.UserResponse;
 import com.example.erm.api.model.UserUpdateRequest;
+import com.example.erm.api.util.ApiMediaTypes;
+import com.example.erm.api.util.ETags;
 import com.example.erm.command.UserCreateCommand;
+import com.example.erm.command.UserListCommand;
 import com.example.erm.command.UserUpdateCommand;
+import com.example.erm.configuration.ErmConfigurationProperties;
 import com.example.erm.exception.UserNotFoundException;
 import com.example.erm.repository.domain.User;
+import com.example.erm.security.ErmUserDetails;
 import com.example.erm.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(path = "/api/user")
 @RequiredArgsConstructor
 @Validated
@@ -56,12 +81,15 @@ import lombok.RequiredArgsConstructor;
             schema = @Schema(implementation = ProblemDetail.class)))
 public class UserApiController {
 
+  private static final String DEFAULT_PAGE_SIZE = "20";
+
   private final UserService userService;
   private final UserApiMapper userApiMapper;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final ErmConfigurationProperties ermConfigurationProperties;
 
-  @PostMapping(
-      consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
+  @PostMapping(consumes = ApiMediaTypes.ALL, produces = ApiMediaTypes.ALL)
   @ResponseStatus(HttpStatus.CREATED)
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @Operation(summary = "create new user")
@@ -86,8 +114,97 @@ public class UserApiController {
     return userApiMapper.toResponse(createdUser);
   }
 
-  @GetMapping(path = "me", produces = MediaType.APPLICATION_JSON_VALUE)
+  @PostMapping(
+      value = "import",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = ApiMediaTypes.ALL)
   @ResponseStatus(HttpStatus.OK)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @Operation(
+      summary = "imports users from a json array or newline delimited json",
+      description =
+          "Items are processed in chunks as they are read. Each item is reported on its own; a"
+              + " rejected item does not affect the others.")
+  @io.swagger.v3.oas.annotations.parameters.RequestBody(
+      content = {
+        @Content(
+            mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = UserCreateRequest.class))),
+        @Content(
+            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+            schema = @Schema(implementation = UserCreateRequest.class))
+      })
+  @ApiResponse(
+      responseCode = "200",
+      description = "outcome of every item",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_JSON_VALUE,
+              schema = @Schema(implementation = UserImportResponse.class)))
+  public UserImportResponse importUsers(InputStream body) throws IOException {
+    int chunkSize = ermConfigurationProperties.userImport().chunkSize();
+    List<UserImportItemResponse> items = new ArrayList<>();
+    List<Integer> chunkIndexes = new ArrayList<>(chunkSize);
+    List<UserCreateCommand> chunk = new ArrayList<>(chunkSize);
+
+    int index = 0;
+    // a json array is unwrapped, otherwise root level values are read one after another
+    try (MappingIterator<UserCreateRequest> requests =
+        objectMapper.readerFor(UserCreateRequest.class).readValues(body)) {
+      for (; requests.hasNextValue(); index++) {
+        UserCreateRequest request = requests.nextValue();
+        List<String> errors = validate(request);
+        if (!errors.isEmpty()) {
+          items.add(userApiMapper.toRejectedImportItemResponse(index, request, errors));
+          continue;
+        }
+
+        chunkIndexes.add(index);
+        chunk.add(userApiMapper.toCommand(request));
+        if (chunk.size() == chunkSize) {
+          items.addAll(importChunk(chunkIndexes, chunk));
+        }
+      }
+    } catch (JsonProcessingException e) {
+      // items read so far are still imported; nothing after the malformed one is
+      String error = "malformed input, import stopped: " + e.getOriginalMessage();
+      items.add(userApiMapper.toRejectedImportItemResponse(index, null, List.of(error)));
+    }
+    items.addAll(importChunk(chunkIndexes, chunk));
+    items.sort(Comparator.comparingInt(UserImportItemResponse::index));
+
+    return UserImportResponse.of(items);
+  }
+
+  private List<String> validate(UserCreateRequest request) {
+    if (request == null) {
+      return List.of("item must not be null");
+    }
+
+    return validator.validate(request).stream()
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .sorted()
+        .toList();
+  }
+
+  private List<UserImportItemResponse> importChunk(
+      List<Integer> chunkIndexes, List<UserCreateCommand> chunk) {
+    if (chunk.isEmpty()) {
+      return List.of();
+    }
+
+    List<UserService.ImportedUser> importedUsers = userService.importUsers(List.copyOf(chunk));
+    List<UserImportItemResponse> items = new ArrayList<>(importedUsers.size());
+    for (int i = 0; i < importedUsers.size(); i++) {
+      items.add(userApiMapper.toImportItemResponse(chunkIndexes.get(i), importedUsers.get(i)));
+    }
+    chunkIndexes.clear();
+    chunk.clear();
+
+    return items;
+  }
+
+  @GetMapping(path = "me", produces = ApiMediaTypes.ALL)
   @Operation(summary = "get information about currently authenticated user")
   @ApiResponse(
       responseCode = "200",
@@ -96,6 +213,7 @@ public class UserApiController {
           @Content(
               mediaType = MediaType.APPLICATION_JSON_VALUE,
               schema = @Schema(implementation = UserResponse.class)))
+  @ApiResponse(responseCode = "304", description = "current user matches If-None-Match")
   @ApiResponse(
       responseCode = "400",
       description = "Request constraint violation",
@@ -103,16 +221,22 @@ public class UserApiController {
           @Content(
               mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
               schema = @Schema(implementation = ProblemDetail.class)))
-  public UserResponse findCurrentUser(Principal principal) {
-    User user = userService.findUserByEmail(principal.getName()).orElse(null);
+  public ResponseEntity<UserResponse> findCurrentUser(
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    User user = principal.user();
+    String etag = ETags.of(user);
+    if (ETags.matchesAny(ifNoneMatch, etag)) {
+      return notModified(etag);
+    }
 
-    return userApiMapper.toResponse(user);
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(userApiMapper.toResponse(user));
   }
 
-  @PutMapping(
-      value = "{id}",
-      consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
+  @PutMapping(value = "{id}", consumes = ApiMediaTypes.ALL, produces = ApiMediaTypes.ALL)
   @ResponseStatus(HttpStatus.OK)
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @Operation(summary = "updates user identified by id")
@@ -130,19 +254,27 @@ public class UserApiController {
           @Content(
               mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
               schema = @Schema(implementation = ProblemDetail.class)))
+  @ApiResponse(
+      responseCode = "412",
+      description = "user does not match If-Match",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
   public UserResponse updateUser(
-      @PathVariable String id, @Valid @RequestBody UserUpdateRequest request) {
-    UserUpdateCommand userUpdateCommand = userApiMapper.toCommand(id, request);
+      @PathVariable String id,
+      @Parameter(description = "ETag of the user; the update only applies if it still matches")
+          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch,
+      @Valid @RequestBody UserUpdateRequest request) {
+    UserUpdateCommand userUpdateCommand = userApiMapper.toCommand(id, request, ifMatch);
     User updatedUser =
         userService.updateUser(userUpdateCommand).orElseThrow(() -> new UserNotFoundException(id));
 
     return userApiMapper.toResponse(updatedUser);
   }
 
-  @PutMapping(
-      value = "me",
-      consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
+  @PutMapping(value = "me", consumes = ApiMediaTypes.ALL, produces = ApiMediaTypes.ALL)
   @ResponseStatus(HttpStatus.OK)
   @Operation(summary = "updates current user")
   @ApiResponse(
@@ -159,26 +291,61 @@ public class UserApiController {
           @Content(
               mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
               schema = @Schema(implementation = ProblemDetail.class)))
+  @ApiResponse(
+      responseCode = "412",
+      description = "user does not match If-Match",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
   public UserResponse updateCurrentUser(
-      @Valid @RequestBody UserUpdateRequest request, Principal principal) {
-    User currentUser =
-        userService
-            .findUserByEmail(principal.getName())
-            .orElseThrow(() -> new UserNotFoundException(principal.getName()));
-    UserUpdateCommand userUpdateCommand = userApiMapper.toCommand(currentUser.getId(), request);
+      @Parameter(description = "ETag of the user; the update only applies if it still matches")
+          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch,
+      @Valid @RequestBody UserUpdateRequest request,
+      @AuthenticationPrincipal ErmUserDetails principal) {
+    UserUpdateCommand userUpdateCommand =
+        userApiMapper.toCommand(principal.id(), request, ifMatch);
     User updatedUser =
         userService
             .updateUser(userUpdateCommand)
-            .orElseThrow(() -> new UserNotFoundException(currentUser.getId()));
+            .orElseThrow(() -> new UserNotFoundException(principal.id()));
 
     return userApiMapper.toResponse(updatedUser);
   }
 
-  @GetMapping(path = "{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @GetMapping(produces = ApiMediaTypes.ALL)
   @ResponseStatus(HttpStatus.OK)
   @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @Operation(summary = "lists users ordered by id using cursor pagination")
+  @ApiResponse(
+      responseCode = "400",
+      description = "invalid cursor",
+      content =
+          @Content(
+              mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
+              schema = @Schema(implementation = ProblemDetail.class)))
+  public CursorPagedResponse<UserResponse> listUsers(
+      @Parameter(description = "only users having this role", example = "ADMIN")
+          @RequestParam(name = "role", required = false)
+          String role,
+      @Parameter(description = "only users whose email starts with this, case sensitive")
+          @RequestParam(name = "emailPrefix", required = false)
+          String emailPrefix,
+      @Parameter(description = "nextCursor of the previous page; omitted for the first page")
+          @RequestParam(name = "after", required = false)
+          String after,
+      @RequestParam(name = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
+    UserListCommand userListCommand = userApiMapper.toListCommand(role, emailPrefix, after, size);
+
+    return userApiMapper.toListResponse(userService.listUsers(userListCommand));
+  }
+
+  @GetMapping(path = "{id}", produces = ApiMediaTypes.ALL)
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
   @Operation(summary = "get information about user identified by id")
   @ApiResponse(responseCode = "200", description = "details about user identified by id")
+  @ApiResponse(responseCode = "304", description = "user matches If-None-Match")
   @ApiResponse(
       responseCode = "404",
       description = "user with provided id not found",
@@ -186,10 +353,32 @@ public class UserApiController {
           @Content(
               mediaType = MediaType.APPLICATION_PROBLEM_JSON_VALUE,
               schema = @Schema(implementation = ProblemDetail.class)))
-  public UserResponse findUserById(@PathVariable String id) {
+  public ResponseEntity<UserResponse> findUserById(
+      @PathVariable String id,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    // a matching tag is answered from id, version and updatedAt alone
+    if (ifNoneMatch != null) {
+      String etag =
+          ETags.of(
+              userService.findUserVersionById(id).orElseThrow(() -> new UserNotFoundException(id)));
+      if (ETags.matchesAny(ifNoneMatch, etag)) {
+        return notModified(etag);
+      }
+    }
+
     User user = userService.findUserById(id).orElseThrow(() -> new UserNotFoundException(id));
 
-    return userApiMapper.toResponse(user);
+    return ResponseEntity.ok()
+        .eTag(ETags.of(user))
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(userApiMapper.toResponse(user));
+  }
+
+  private static ResponseEntity<UserResponse> notModified(String etag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+        .eTag(etag)
+        .varyBy(HttpHeaders.ACCEPT)
+        .build();
   }
 
   @DeleteMapping(path = "{id}")
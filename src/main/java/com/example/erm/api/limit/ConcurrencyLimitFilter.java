@@ -0,0 +1,191 @@
+package com.example.erm.api.limit;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rejects requests over the adaptive concurrency limit with 503 before they reach security or a
+ * controller. Actuator requests pass through a small fixed lane of their own instead, so health
+ * checks and scrapes keep working while the application sheds load. Event streams and exports
+ * stay open for as long as their clients read and would skew the latency the limit adapts to; they
+ * hold a permit of a fixed stream lane until they end.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  static final String REJECTED_METER_NAME = "erm.concurrency.rejected";
+
+  private static final String PRIORITY_PATH_PREFIX = "/actuator/";
+  private static final List<String> STREAM_PATH_SUFFIXES =
+      List.of("/external-project/events", "/external-project/export");
+
+  private final GradientConcurrencyLimit limit;
+  private final Semaphore priorityLane;
+  private final Semaphore streamLane;
+  private final String retryAfterSeconds;
+  private final ProblemDetailFactory problemDetailFactory;
+  private final ObjectWriter problemDetailWriter;
+  private final Counter rejected;
+  private final Counter priorityRejected;
+  private final Counter streamRejected;
+
+  public ConcurrencyLimitFilter(
+      GradientConcurrencyLimit limit,
+      ErmConfigurationProperties.ConcurrencyLimit settings,
+      ProblemDetailFactory problemDetailFactory,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.limit = limit;
+    this.priorityLane = new Semaphore(settings.priorityLaneSize());
+    this.streamLane = new Semaphore(settings.streamLaneSize());
+    this.retryAfterSeconds = Long.toString(Math.max(1, settings.retryAfter().toSeconds()));
+    this.problemDetailFactory = problemDetailFactory;
+    this.problemDetailWriter =
+        objectMapper
+            .writerFor(ProblemDetail.class)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    this.rejected = rejectedCounter(meterRegistry, "default");
+    this.priorityRejected = rejectedCounter(meterRegistry, "priority");
+    this.streamRejected = rejectedCounter(meterRegistry, "stream");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (request.getRequestURI().startsWith(request.getContextPath() + PRIORITY_PATH_PREFIX)) {
+      doFilterPriority(request, response, filterChain);
+      return;
+    }
+    if (STREAM_PATH_SUFFIXES.stream().anyMatch(request.getRequestURI()::endsWith)) {
+      doFilterStream(request, response, filterChain);
+      return;
+    }
+
+    int inflightAtStart = limit.tryAcquire();
+    if (inflightAtStart < 0) {
+      rejected.increment();
+      reject(request, response);
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (request.isAsyncStarted()) {
+        // held until the async request completes, but its duration is not a latency sample
+        request.getAsyncContext().addListener(new ReleasingListener(limit::release));
+      } else {
+        limit.release(System.nanoTime() - start, inflightAtStart);
+      }
+    }
+  }
+
+  private void doFilterPriority(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!priorityLane.tryAcquire()) {
+      priorityRejected.increment();
+      reject(request, response);
+      return;
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      priorityLane.release();
+    }
+  }
+
+  private void doFilterStream(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!streamLane.tryAcquire()) {
+      streamRejected.increment();
+      reject(request, response);
+      return;
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new ReleasingListener(streamLane::release));
+      } else {
+        streamLane.release();
+      }
+    }
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    ProblemDetail problemDetail = problemDetailFactory.overloaded();
+    problemDetail.setInstance(URI.create(request.getRequestURI()));
+
+    response.setStatus(problemDetail.getStatus());
+    response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    problemDetailWriter.writeValue(response.getOutputStream(), problemDetail);
+  }
+
+  private static Counter rejectedCounter(MeterRegistry meterRegistry, String lane) {
+    return Counter.builder(REJECTED_METER_NAME)
+        .description("Requests rejected by the concurrency limit")
+        .tag("lane", lane)
+        .register(meterRegistry);
+  }
+
+  private static class ReleasingListener implements AsyncListener {
+
+    private final AtomicBoolean released = new AtomicBoolean();
+    private final Runnable release;
+
+    ReleasingListener(Runnable release) {
+      this.release = release;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
+
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        release.run();
+      }
+    }
+  }
+}
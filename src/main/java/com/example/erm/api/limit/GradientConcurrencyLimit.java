@@ -0,0 +1,107 @@
+package com.example.erm.api.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Concurrency limit following the observed latency, after the gradient2 limit of Netflix'
+ * concurrency-limits. The ratio of the long term to the short term average latency is the
+ * gradient: close to 1 while nothing queues, the limit keeps growing by its square root; once
+ * requests start waiting downstream, e.g. for mongo connections, the short term latency rises and
+ * the limit shrinks in proportion.
+ */
+public class GradientConcurrencyLimit implements MeterBinder {
+
+  static final String LIMIT_METER_NAME = "erm.concurrency.limit";
+  static final String INFLIGHT_METER_NAME = "erm.concurrency.inflight";
+
+  private final ErmConfigurationProperties.ConcurrencyLimit settings;
+  private final AtomicInteger inflight = new AtomicInteger();
+  private final double shortAlpha;
+  private final double longAlpha;
+
+  private volatile int limit;
+  // guarded by this
+  private double estimatedLimit;
+  private double shortRtt;
+  private double longRtt;
+
+  public GradientConcurrencyLimit(ErmConfigurationProperties.ConcurrencyLimit settings) {
+    this.settings = settings;
+    this.shortAlpha = 2.0 / (settings.shortWindow() + 1);
+    this.longAlpha = 2.0 / (settings.longWindow() + 1);
+    this.estimatedLimit = settings.initialLimit();
+    this.limit = settings.initialLimit();
+  }
+
+  // the number of requests in flight when the acquired one started, or -1 when over the limit
+  public int tryAcquire() {
+    while (true) {
+      int current = inflight.get();
+      if (current >= limit) {
+        return -1;
+      }
+      if (inflight.compareAndSet(current, current + 1)) {
+        return current + 1;
+      }
+    }
+  }
+
+  public void release(long rttNanos, int inflightAtStart) {
+    inflight.decrementAndGet();
+    update(rttNanos, inflightAtStart);
+  }
+
+  // for requests whose duration says nothing about the load, e.g. streamed exports
+  public void release() {
+    inflight.decrementAndGet();
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public int getInflight() {
+    return inflight.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder(LIMIT_METER_NAME, this, GradientConcurrencyLimit::getLimit)
+        .description("Concurrent requests admitted")
+        .register(registry);
+    Gauge.builder(INFLIGHT_METER_NAME, this, GradientConcurrencyLimit::getInflight)
+        .description("Requests in flight under the concurrency limit")
+        .register(registry);
+  }
+
+  private synchronized void update(long rttNanos, int inflightAtStart) {
+    if (longRtt == 0) {
+      shortRtt = rttNanos;
+      longRtt = rttNanos;
+      return;
+    }
+    shortRtt += shortAlpha * (rttNanos - shortRtt);
+    longRtt += longAlpha * (rttNanos - longRtt);
+    // after a lasting slowdown the long term average would keep the limit low for long
+    if (longRtt > 2 * shortRtt) {
+      longRtt *= 0.95;
+    }
+    // far below the limit the latency does not tell how much more would be admissible
+    if (inflightAtStart < estimatedLimit / 2) {
+      return;
+    }
+
+    double gradient =
+        Math.max(0.5, Math.min(1.0, settings.latencyTolerance() * longRtt / shortRtt));
+    double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+    newLimit = estimatedLimit * (1 - settings.smoothing()) + newLimit * settings.smoothing();
+    estimatedLimit = Math.max(settings.minLimit(), Math.min(settings.maxLimit(), newLimit));
+    limit = (int) estimatedLimit;
+  }
+}
@@ -1,18 +1,44 @@
 package com.example.erm.api.mapper;
 
 import org.mapstruct.Mapper;
+import org.springframework.data.domain.Slice;
 
+import com.example.erm.api.model.CursorPagedResponse;
 import com.example.erm.api.model.ExternalProjectCreateRequest;
 import com.example.erm.api.model.ExternalProjectResponse;
+import com.example.erm.api.model.PagedResponse;
+import com.example.erm.api.util.ExternalProjectCursors;
 import com.example.erm.command.ExternalProjectCreateCommand;
+import com.example.erm.command.ExternalProjectScrollCommand;
 import com.example.erm.mapper.CommonMapperConfig;
 import com.example.erm.repository.domain.ExternalProject;
 
 @Mapper(config = CommonMapperConfig.class)
 public abstract class ExternalProjectApiMapper {
 
+  private static final int MAX_SCROLL_SIZE = 2000;
+
   public abstract ExternalProjectCreateCommand toCommand(
       String userId, ExternalProjectCreateRequest request);
 
+  public ExternalProjectScrollCommand toScrollCommand(String userId, String after, int size) {
+    return new ExternalProjectScrollCommand(
+        userId, ExternalProjectCursors.decode(after), Math.clamp(size, 1, MAX_SCROLL_SIZE));
+  }
+
   public abstract ExternalProjectResponse toResponse(ExternalProject externalProject);
+
+  public PagedResponse<ExternalProjectResponse> toListResponse(
+      Slice<ExternalProject> externalProjects) {
+    return PagedResponse.of(externalProjects.map(this::toResponse));
+  }
+
+  public CursorPagedResponse<ExternalProjectResponse> toScrollResponse(
+      Slice<ExternalProject> externalProjects) {
+    return CursorPagedResponse.of(
+        externalProjects.map(this::toResponse),
+        externalProjects.hasNext()
+            ? ExternalProjectCursors.encode(externalProjects.getContent().getLast())
+            : null);
+  }
 }
@@ -0,0 +1,130 @@
+package com.example.erm.api.mapper;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.springframework.data.domain.Slice;
+
+import com.example.erm.api.model.ExternalProjectResponse;
+import com.example.erm.api.model.PagedResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Stored external projects as a list of their {@link ExternalProjectResponse}s. Jackson writes the
+ * list straight from the bson, without an entity or a response in between; each document is read
+ * in one pass and may hold further fields, which are skipped. Elements read through the list are
+ * decoded the same way.
+ */
+@JsonSerialize(using = RawExternalProjectResponseList.Serializer.class)
+public class RawExternalProjectResponseList extends AbstractList<ExternalProjectResponse>
+    implements RandomAccess {
+
+  private final List<RawBsonDocument> documents;
+
+  public RawExternalProjectResponseList(List<RawBsonDocument> documents) {
+    this.documents = documents;
+  }
+
+  public static PagedResponse<ExternalProjectResponse> pagedResponseOf(
+      Slice<RawBsonDocument> documents) {
+    return PagedResponse.of(documents, new RawExternalProjectResponseList(documents.getContent()));
+  }
+
+  @Override
+  public ExternalProjectResponse get(int index) {
+    return read(documents.get(index), ExternalProjectResponse::new);
+  }
+
+  @Override
+  public int size() {
+    return documents.size();
+  }
+
+  private static <T, E extends Exception> T read(RawBsonDocument document, Fields<T, E> fields)
+      throws E {
+    String id = null;
+    String name = null;
+    Instant createdAt = null;
+    try (BsonReader reader = document.asBsonReader()) {
+      reader.readStartDocument();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+        switch (reader.readName()) {
+          case "_id" -> id = readId(reader);
+          case "name" -> name = readString(reader);
+          case "createdAt" -> createdAt = readInstant(reader);
+          default -> reader.skipValue();
+        }
+      }
+      reader.readEndDocument();
+    }
+
+    return fields.apply(id, name, createdAt);
+  }
+
+  private static String readId(BsonReader reader) {
+    return reader.getCurrentBsonType() == BsonType.OBJECT_ID
+        ? reader.readObjectId().toHexString()
+        : readString(reader);
+  }
+
+  private static String readString(BsonReader reader) {
+    if (reader.getCurrentBsonType() == BsonType.NULL) {
+      reader.readNull();
+      return null;
+    }
+
+    return reader.readString();
+  }
+
+  private static Instant readInstant(BsonReader reader) {
+    if (reader.getCurrentBsonType() == BsonType.NULL) {
+      reader.readNull();
+      return null;
+    }
+
+    return Instant.ofEpochMilli(reader.readDateTime());
+  }
+
+  @FunctionalInterface
+  private interface Fields<T, E extends Exception> {
+
+    T apply(String id, String name, Instant createdAt) throws E;
+  }
+
+  public static class Serializer extends StdSerializer<RawExternalProjectResponseList> {
+
+    public Serializer() {
+      super(RawExternalProjectResponseList.class);
+    }
+
+    // same fields, order and value serializers as the ExternalProjectResponse record
+    @Override
+    public void serialize(
+        RawExternalProjectResponseList value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      generator.writeStartArray(value, value.size());
+      for (RawBsonDocument document : value.documents) {
+        read(
+            document,
+            (id, name, createdAt) -> {
+              generator.writeStartObject();
+              generator.writeStringField("id", id);
+              generator.writeStringField("name", name);
+              provider.defaultSerializeField("createdAt", createdAt, generator);
+              generator.writeEndObject();
+              return null;
+            });
+      }
+      generator.writeEndArray();
+    }
+  }
+}
@@ -1,22 +1,79 @@
 package com.example.erm.api.mapper;
 
+import java.util.List;
+
+import org.bson.types.ObjectId;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.springframework.data.domain.Slice;
+import org.springframework.util.StringUtils;
 
+import com.example.erm.api.model.CursorPagedResponse;
 import com.example.erm.api.model.UserCreateRequest;
+import com.example.erm.api.model.UserImportItemResponse;
 import com.example.erm.api.model.UserResponse;
 import com.example.erm.api.model.UserUpdateRequest;
+import com.example.erm.api.util.ETags;
 import com.example.erm.command.UserCreateCommand;
+import com.example.erm.command.UserListCommand;
 import com.example.erm.command.UserUpdateCommand;
+import com.example.erm.exception.InvalidCursorException;
 import com.example.erm.mapper.CommonMapperConfig;
 import com.example.erm.repository.domain.User;
 import com.example.erm.security.SecurityRole;
+import com.example.erm.service.UserService;
 
 @Mapper(config = CommonMapperConfig.class, imports = SecurityRole.class)
 public abstract class UserApiMapper {
 
+  private static final int MAX_LIST_SIZE = 1000;
+
   public abstract UserCreateCommand toCommand(UserCreateRequest request);
 
+  @Mapping(target = "expectedVersion", ignore = true)
   public abstract UserUpdateCommand toCommand(String id, UserUpdateRequest request);
 
+  // the update only applies to the version tagged by If-Match, if given
+  public UserUpdateCommand toCommand(String id, UserUpdateRequest request, String ifMatch) {
+    UserUpdateCommand command = toCommand(id, request);
+    if (ifMatch == null) {
+      return command;
+    }
+
+    return command.toBuilder().expectedVersion(ETags.expectedVersion(ifMatch, id)).build();
+  }
+
+  public UserListCommand toListCommand(String role, String emailPrefix, String after, int size) {
+    if (after != null && !ObjectId.isValid(after)) {
+      throw new InvalidCursorException(after);
+    }
+
+    return new UserListCommand(
+        StringUtils.hasText(role) ? role : null,
+        StringUtils.hasLength(emailPrefix) ? emailPrefix : null,
+        after,
+        Math.clamp(size, 1, MAX_LIST_SIZE));
+  }
+
   public abstract UserResponse toResponse(User user);
+
+  public CursorPagedResponse<UserResponse> toListResponse(Slice<User> users) {
+    return CursorPagedResponse.of(
+        users.map(this::toResponse),
+        users.hasNext() ? users.getContent().getLast().getId() : null);
+  }
+
+  @Mapping(target = "errors", ignore = true)
+  public abstract UserImportItemResponse toImportItemResponse(
+      int index, UserService.ImportedUser importedUser);
+
+  public UserImportItemResponse toRejectedImportItemResponse(
+      int index, UserCreateRequest request, List<String> errors) {
+    return new UserImportItemResponse(
+        index,
+        request != null ? request.getEmail() : null,
+        UserImportItemResponse.Status.INVALID,
+        null,
+        errors);
+  }
 }
@@ -0,0 +1,8 @@
+package com.example.erm.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record AccessTokenResponse(
+    @Schema(example = "q0u2dO3TzV1mY8gWc5aYkQpHn2Jx4Lr7sEwF9bDtKvA") String accessToken,
+    @Schema(example = "Bearer") String tokenType,
+    @Schema(description = "token lifetime in seconds", example = "900") Long expiresIn) {}
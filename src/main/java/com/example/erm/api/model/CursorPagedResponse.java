@@ -0,0 +1,18 @@
+package com.example.erm.api.model;
+
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import lombok.Builder;
+
+public record CursorPagedResponse<T>(List<T> items, Page page) {
+
+  public static <T> CursorPagedResponse<T> of(Slice<T> slice, String nextCursor) {
+    return new CursorPagedResponse<>(
+        slice.getContent(), new Page(slice.getSize(), nextCursor, slice.isLast()));
+  }
+
+  @Builder(toBuilder = true)
+  public record Page(Integer size, String nextCursor, Boolean last) {}
+}
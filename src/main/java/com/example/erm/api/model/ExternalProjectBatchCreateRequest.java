@@ -0,0 +1,22 @@
+package com.example.erm.api.model;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExternalProjectBatchCreateRequest {
+  public static final int MAX_ITEMS = 1000;
+
+  @NotEmpty
+  @Size(max = MAX_ITEMS)
+  private List<@Valid @NotNull ExternalProjectCreateRequest> items;
+}
@@ -0,0 +1,5 @@
+package com.example.erm.api.model;
+
+import java.util.List;
+
+public record ExternalProjectBatchResponse(List<ExternalProjectResponse> items) {}
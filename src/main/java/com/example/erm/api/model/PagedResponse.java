@@ -2,20 +2,34 @@ package com.example.erm.api.model;
 
 import java.util.List;
 
+import org.springframework.data.domain.Slice;
+
 import lombok.Builder;
 
 public record PagedResponse<T>(List<T> items, Page page) {
 
-  public static <T> PagedResponse<T> of(org.springframework.data.domain.Page<T> page) {
+  public static <T> PagedResponse<T> of(Slice<T> slice) {
+    return of(slice, slice.getContent());
+  }
+
+  // totals are only present for a Page; a Slice leaves them out
+  public static <T> PagedResponse<T> of(Slice<?> slice, List<T> items) {
+    Integer totalPages = null;
+    Long totalElements = null;
+    if (slice instanceof org.springframework.data.domain.Page<?> page) {
+      totalPages = page.getTotalPages();
+      totalElements = page.getTotalElements();
+    }
+
     return new PagedResponse<>(
-        page.getContent(),
+        items,
         new Page(
-            page.getTotalPages(),
-            page.getTotalElements(),
-            page.getSize(),
-            page.getNumber(),
-            page.isFirst(),
-            page.isLast()));
+            totalPages,
+            totalElements,
+            slice.getSize(),
+            slice.getNumber(),
+            slice.isFirst(),
+            slice.isLast()));
   }
 
   @Builder(toBuilder = true)
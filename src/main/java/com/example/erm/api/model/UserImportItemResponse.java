@@ -0,0 +1,21 @@
+package com.example.erm.api.model;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record UserImportItemResponse(
+    @Schema(description = "position of the item in the request body", example = "0") int index,
+    @Schema(example = "john@example.com") String email,
+    @Schema(example = "CREATED") Status status,
+    @Schema(description = "id of the created user", example = "67e900a69cbc1b6a7d1d4b37")
+        String id,
+    @Schema(description = "reasons the item was rejected") List<String> errors) {
+
+  public enum Status {
+    CREATED,
+    DUPLICATE_EMAIL,
+    INVALID,
+    FAILED
+  }
+}
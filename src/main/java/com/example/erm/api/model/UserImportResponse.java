@@ -0,0 +1,20 @@
+package com.example.erm.api.model;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record UserImportResponse(
+    @Schema(example = "2") long created,
+    @Schema(example = "1") long rejected,
+    List<UserImportItemResponse> items) {
+
+  public static UserImportResponse of(List<UserImportItemResponse> items) {
+    long created =
+        items.stream()
+            .filter(item -> item.status() == UserImportItemResponse.Status.CREATED)
+            .count();
+
+    return new UserImportResponse(created, items.size() - created, items);
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.erm.api.util;
+
+import org.springframework.http.MediaType;
+
+import lombok.experimental.UtilityClass;
+
+// formats every endpoint negotiates; json stays the default for clients accepting anything
+@UtilityClass
+public class ApiMediaTypes {
+
+  public static final String JSON = MediaType.APPLICATION_JSON_VALUE;
+  public static final String CBOR = MediaType.APPLICATION_CBOR_VALUE;
+  public static final String SMILE = "application/x-jackson-smile";
+  // all of them for produces and consumes; the mapping conditions split the list at its commas
+  public static final String ALL = JSON + ", " + CBOR + ", " + SMILE;
+}
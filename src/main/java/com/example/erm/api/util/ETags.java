@@ -0,0 +1,82 @@
+package com.example.erm.api.util;
+
+import java.time.Instant;
+
+import com.example.erm.exception.UserModifiedException;
+import com.example.erm.repository.domain.User;
+import com.example.erm.service.ExternalProjectService;
+
+import lombok.experimental.UtilityClass;
+
+// strong entity tags; the tag of a user carries its version, so that If-Match turns into a
+// conditional update
+@UtilityClass
+public class ETags {
+
+  private static final String SEPARATOR = "-";
+  private static final String ANY = "*";
+  private static final String WEAK_PREFIX = "W/";
+
+  public static String of(User user) {
+    long version = user.getVersion() != null ? user.getVersion() : 0;
+
+    return quote(user.getId(), Long.toString(version), millis(user.getUpdatedAt()));
+  }
+
+  public static String of(String userId, ExternalProjectService.ListingVersion listingVersion) {
+    return quote(
+        userId, Long.toString(listingVersion.count()), millis(listingVersion.countedAt()));
+  }
+
+  // weak comparison, as If-None-Match asks for
+  public static boolean matchesAny(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals(ANY) || stripWeak(tag).equals(etag)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  // the version the user has to have for a single If-Match tag to hold; null for any version
+  public static Long expectedVersion(String ifMatch, String userId) {
+    String tag = ifMatch.trim();
+    if (tag.equals(ANY)) {
+      return null;
+    }
+
+    // strong comparison, so weak tags never match
+    if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+      throw new UserModifiedException(userId);
+    }
+    String prefix = "\"" + userId + SEPARATOR;
+    int versionEnd = tag.indexOf(SEPARATOR, prefix.length());
+    if (!tag.startsWith(prefix) || versionEnd < 0) {
+      throw new UserModifiedException(userId);
+    }
+
+    try {
+      return Long.parseLong(tag.substring(prefix.length(), versionEnd));
+    } catch (NumberFormatException e) {
+      throw new UserModifiedException(userId);
+    }
+  }
+
+  private static String quote(String... parts) {
+    return "\"" + String.join(SEPARATOR, parts) + "\"";
+  }
+
+  private static String millis(Instant instant) {
+    return instant != null ? Long.toString(instant.toEpochMilli()) : "0";
+  }
+
+  private static String stripWeak(String tag) {
+    return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.erm.api.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.bson.types.ObjectId;
+
+import com.example.erm.command.ExternalProjectCursor;
+import com.example.erm.exception.InvalidCursorException;
+import com.example.erm.repository.domain.ExternalProject;
+
+import lombok.experimental.UtilityClass;
+
+// opaque to clients; encodes the (createdAt, id) position of the last item of a page
+@UtilityClass
+public class ExternalProjectCursors {
+
+  private static final String SEPARATOR = ":";
+
+  public static String encode(ExternalProject externalProject) {
+    String position =
+        externalProject.getCreatedAt().toEpochMilli() + SEPARATOR + externalProject.getId();
+
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static ExternalProjectCursor decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+
+    try {
+      String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = position.indexOf(SEPARATOR);
+      if (separator <= 0 || !ObjectId.isValid(position.substring(separator + 1))) {
+        throw new InvalidCursorException(cursor);
+      }
+
+      return new ExternalProjectCursor(
+          Instant.ofEpochMilli(Long.parseLong(position.substring(0, separator))),
+          position.substring(separator + 1));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException(cursor);
+    }
+  }
+}
@@ -21,6 +21,16 @@ public class ProblemDetailFactory {
     return problemDetail;
   }
 
+  public ProblemDetail userModified(String identifier) {
+    ProblemDetail problemDetail =
+        ProblemDetail.forStatusAndDetail(
+            HttpStatus.PRECONDITION_FAILED,
+            "User " + identifier + " does not match the provided entity tag");
+    problemDetail.setTitle("User modified");
+
+    return problemDetail;
+  }
+
   public ProblemDetail emailExists(String email) {
     ProblemDetail problemDetail =
         ProblemDetail.forStatusAndDetail(
@@ -30,6 +40,15 @@ public class ProblemDetailFactory {
     return problemDetail;
   }
 
+  public ProblemDetail invalidCursor(String cursor) {
+    ProblemDetail problemDetail =
+        ProblemDetail.forStatusAndDetail(
+            HttpStatus.BAD_REQUEST, "Cursor " + cursor + " is invalid");
+    problemDetail.setTitle("Invalid cursor");
+
+    return problemDetail;
+  }
+
   public ProblemDetail requestValidationError(List<FieldError> fieldErrors) {
     ProblemDetail problemDetail =
         ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Validation failed");
@@ -51,6 +70,15 @@ public class ProblemDetailFactory {
     return problemDetail;
   }
 
+  public ProblemDetail overloaded() {
+    ProblemDetail problemDetail =
+        ProblemDetail.forStatusAndDetail(
+            HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent requests, retry later");
+    problemDetail.setTitle("Service overloaded");
+
+    return problemDetail;
+  }
+
   public ProblemDetail accessDenied() {
     ProblemDetail problemDetail =
         ProblemDetail.forStatusAndDetail(HttpStatus.FORBIDDEN, "Access denied");
@@ -0,0 +1,5 @@
+package com.example.erm.command;
+
+import java.time.Instant;
+
+public record ExternalProjectCursor(Instant createdAt, String id) {}
@@ -2,4 +2,9 @@ package com.example.erm.command;
 
 import org.springframework.data.domain.Pageable;
 
-public record ExternalProjectListCommand(String userId, Pageable page) {}
+public record ExternalProjectListCommand(String userId, Pageable page, boolean withTotal) {
+
+  public ExternalProjectListCommand(String userId, Pageable page) {
+    this(userId, page, true);
+  }
+}
@@ -0,0 +1,3 @@
+package com.example.erm.command;
+
+public record ExternalProjectScrollCommand(String userId, ExternalProjectCursor after, int size) {}
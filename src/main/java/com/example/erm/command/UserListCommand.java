@@ -0,0 +1,3 @@
+package com.example.erm.command;
+
+public record UserListCommand(String role, String emailPrefix, String afterId, int size) {}
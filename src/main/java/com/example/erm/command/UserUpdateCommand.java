@@ -4,6 +4,12 @@ import java.util.List;
 
 import lombok.Builder;
 
+// the update only applies if the user still has expectedVersion, unless that is null
 @Builder(toBuilder = true)
 public record UserUpdateCommand(
-    String id, String email, String password, String name, List<String> roles) {}
+    String id,
+    String email,
+    String password,
+    String name,
+    List<String> roles,
+    Long expectedVersion) {}
@@ -0,0 +1,81 @@
+package com.example.erm.configuration;
+
+import java.time.Clock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.erm.repository.AccessTokenStore;
+import com.example.erm.repository.InMemoryAccessTokenStore;
+import com.example.erm.repository.MongoAccessTokenStore;
+import com.example.erm.repository.MongoBulkhead;
+import com.example.erm.security.AccessTokenService;
+import com.example.erm.security.ParallelPasswordEncoder;
+import com.example.erm.security.SecurityRole;
+import com.example.erm.security.VerifiedCredentialCache;
+
+// shared by the servlet and the reactive security configuration
+@Configuration
+public class CommonSecurityConfiguration {
+
+  @Bean
+  @ConditionalOnProperty(
+      name = "erm.security.access-token.store",
+      havingValue = "in-memory",
+      matchIfMissing = true)
+  public AccessTokenStore inMemoryAccessTokenStore() {
+    return new InMemoryAccessTokenStore();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "erm.security.access-token.store", havingValue = "mongo")
+  public AccessTokenStore mongoAccessTokenStore(
+      MongoTemplate mongoTemplate, MongoBulkhead mongoBulkhead) {
+    return new MongoAccessTokenStore(mongoTemplate, mongoBulkhead);
+  }
+
+  @Bean
+  public AccessTokenService accessTokenService(
+      AccessTokenStore accessTokenStore, ErmConfigurationProperties ermConfigurationProperties) {
+    return new AccessTokenService(
+        accessTokenStore,
+        ermConfigurationProperties.security().accessToken().ttl(),
+        Clock.systemUTC());
+  }
+
+  @Bean
+  public VerifiedCredentialCache verifiedCredentialCache(
+      ErmConfigurationProperties ermConfigurationProperties) {
+    ErmConfigurationProperties.Security.CredentialCache credentialCache =
+        ermConfigurationProperties.security().credentialCache();
+
+    return new VerifiedCredentialCache(credentialCache.maximumSize(), credentialCache.ttl());
+  }
+
+  @Bean
+  public RoleHierarchy roleHierarchy() {
+    return RoleHierarchyImpl.fromHierarchy(
+        String.format("%s > %s", SecurityRole.ADMIN, SecurityRole.USER));
+  }
+
+  @Bean
+  public PasswordEncoder passwordEncoder() {
+    return new BCryptPasswordEncoder();
+  }
+
+  @Bean
+  public ParallelPasswordEncoder parallelPasswordEncoder(
+      PasswordEncoder passwordEncoder, ErmConfigurationProperties ermConfigurationProperties) {
+    int parallelism = ermConfigurationProperties.userImport().hashingParallelism();
+
+    return new ParallelPasswordEncoder(
+        passwordEncoder,
+        parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+  }
+}
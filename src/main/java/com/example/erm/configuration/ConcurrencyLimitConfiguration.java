@@ -0,0 +1,53 @@
+package com.example.erm.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.example.erm.api.limit.ConcurrencyLimitFilter;
+import com.example.erm.api.limit.GradientConcurrencyLimit;
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// virtual threads leave tomcat without a bound on concurrent requests; this is the bound
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(
+    name = "erm.concurrency-limit.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ConcurrencyLimitConfiguration {
+
+  @Bean
+  public GradientConcurrencyLimit gradientConcurrencyLimit(
+      ErmConfigurationProperties ermConfigurationProperties) {
+    return new GradientConcurrencyLimit(ermConfigurationProperties.concurrencyLimit());
+  }
+
+  // after boot's observation filter, so rejections still show up in http.server.requests, and
+  // before spring security, so they cost no authentication
+  @Bean
+  public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+      GradientConcurrencyLimit gradientConcurrencyLimit,
+      ErmConfigurationProperties ermConfigurationProperties,
+      ProblemDetailFactory problemDetailFactory,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+        new FilterRegistrationBean<>(
+            new ConcurrencyLimitFilter(
+                gradientConcurrencyLimit,
+                ermConfigurationProperties.concurrencyLimit(),
+                problemDetailFactory,
+                objectMapper,
+                meterRegistry));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+
+    return registration;
+  }
+}
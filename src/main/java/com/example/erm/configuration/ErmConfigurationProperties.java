@@ -1,12 +1,203 @@
 package com.example.erm.configuration;
 
+import java.time.Duration;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "erm")
-public record ErmConfigurationProperties(Bootstrap bootstrap) {
+public record ErmConfigurationProperties(
+    Bootstrap bootstrap,
+    @DefaultValue Security security,
+    @DefaultValue ExternalProject externalProject,
+    @DefaultValue UserImport userImport,
+    @DefaultValue UserDeletion userDeletion,
+    @DefaultValue Mongo mongo,
+    @DefaultValue ConcurrencyLimit concurrencyLimit,
+    @DefaultValue UserCache userCache) {
 
   public record Bootstrap(User user) {
 
     public record User(String email, String password) {}
   }
+
+  public record Security(
+      @DefaultValue CredentialCache credentialCache,
+      @DefaultValue UserDetailsCache userDetailsCache,
+      @DefaultValue AccessToken accessToken) {
+
+    public record CredentialCache(
+        @DefaultValue("10000") long maximumSize, @DefaultValue("5m") Duration ttl) {}
+
+    public record UserDetailsCache(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("5m") Duration expireAfterWrite,
+        @DefaultValue("30s") Duration refreshAfterWrite) {}
+
+    public record AccessToken(
+        @DefaultValue("15m") Duration ttl,
+        @DefaultValue("in-memory") Store store,
+        @DefaultValue("1m") Duration sweepInterval) {
+
+      public enum Store {
+        IN_MEMORY,
+        MONGO
+      }
+    }
+  }
+
+  public record ExternalProject(
+      @DefaultValue CounterReconciliation counterReconciliation,
+      @DefaultValue InsertBatching insertBatching,
+      @DefaultValue RawListing rawListing,
+      @DefaultValue Events events) {
+
+    // projects younger than grace-period may still be waiting for their increment and are left
+    // to the next run
+    public record CounterReconciliation(
+        @DefaultValue("1h") Duration interval, @DefaultValue("1m") Duration gracePeriod) {}
+
+    // single creates wait up to max-wait for others to share one insert, and up to timeout more
+    // for the insert to be written
+    public record InsertBatching(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100") int maxBatchSize,
+        @DefaultValue("2ms") Duration maxWait,
+        @DefaultValue("5s") Duration timeout) {}
+
+    // listings are transcoded from the stored documents instead of mapped through entities
+    public record RawListing(@DefaultValue("false") boolean enabled) {}
+
+    // requires a replica set; one change stream per node feeds all subscribers of the node, the
+    // last buffer-size changes are kept for subscribers resuming with Last-Event-ID
+    public record Events(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") int bufferSize,
+        @DefaultValue("256") int subscriberQueueSize,
+        @DefaultValue("15s") Duration heartbeatInterval,
+        @DefaultValue("1s") Duration reconnectDelay) {}
+  }
+
+  public record UserImport(
+      @DefaultValue("500") int chunkSize, @DefaultValue("0") int hashingParallelism) {}
+
+  public record UserDeletion(
+      @DefaultValue("500") int batchSize,
+      @DefaultValue("100ms") Duration pauseBetweenBatches,
+      @DefaultValue("5s") Duration pollInterval,
+      @DefaultValue("1m") Duration lease) {}
+
+  // defaults are the driver's own; applied after spring.data.mongodb.uri, so they take precedence
+  public record Mongo(
+      @DefaultValue Pool pool,
+      @DefaultValue Socket socket,
+      @DefaultValue ReadRouting readRouting,
+      @DefaultValue("explicit") Mapping mapping,
+      @DefaultValue Bulkhead bulkhead) {
+
+    // explicit: users and external projects are mapped by hand-written converters
+    public enum Mapping {
+      EXPLICIT,
+      REFLECTIVE
+    }
+
+    // blockingMaxSize caps the blocking client on the reactive profile, where it only serves
+    // migrations and background work
+    public record Pool(
+        @DefaultValue("100") int maxSize,
+        @DefaultValue("0") int minSize,
+        @DefaultValue("2") int maxConnecting,
+        @DefaultValue("2m") Duration maxWaitTime,
+        @DefaultValue("0s") Duration maxConnectionIdleTime,
+        @DefaultValue("10") int blockingMaxSize) {}
+
+    // a read timeout of 0 waits indefinitely
+    public record Socket(
+        @DefaultValue("10s") Duration connectTimeout, @DefaultValue("0s") Duration readTimeout) {}
+
+    // operations without a route read from the primary
+    public record ReadRouting(
+        Map<ReadOperation, Route> operations,
+        @DefaultValue CausalConsistency causalConsistency) {
+
+      public ReadRouting {
+        operations = operations != null ? Map.copyOf(operations) : Map.of();
+      }
+
+      public enum ReadOperation {
+        USER_BY_ID,
+        USER_BY_EMAIL,
+        USER_LIST,
+        EXTERNAL_PROJECT_LIST,
+        EXTERNAL_PROJECT_SCROLL,
+        EXTERNAL_PROJECT_EXPORT
+      }
+
+      // max staleness is not supported for the primary and has to be at least 90 seconds
+      public record Route(@DefaultValue("primary") Mode mode, Duration maxStaleness) {
+
+        public Route {
+          if (maxStaleness != null
+              && (mode == Mode.PRIMARY || maxStaleness.compareTo(Duration.ofSeconds(90)) < 0)) {
+            throw new IllegalArgumentException(
+                "maxStaleness " + maxStaleness + " is not allowed for read mode " + mode);
+          }
+        }
+
+        public enum Mode {
+          PRIMARY,
+          PRIMARY_PREFERRED,
+          SECONDARY,
+          SECONDARY_PREFERRED,
+          NEAREST
+        }
+      }
+
+      // requires a replica set; a user's reads wait for the user's own writes for the window
+      public record CausalConsistency(
+          @DefaultValue("false") boolean enabled,
+          @DefaultValue("2m") Duration window,
+          @DefaultValue("100000") long maximumSize) {}
+    }
+
+    // separate permits for auth lookups, reads and writes, so that one kind of call can not take
+    // every pooled connection; a call waits up to max-wait for a permit of its compartment and is
+    // otherwise answered with 503 and retry-after
+    public record Bulkhead(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Permits auth,
+        @DefaultValue Permits read,
+        @DefaultValue Permits write,
+        @DefaultValue("1s") Duration retryAfter) {
+
+      public record Permits(
+          @DefaultValue("20") int maxConcurrent, @DefaultValue("500ms") Duration maxWait) {}
+    }
+  }
+
+  // the limit adapts between min-limit and max-limit to the observed latency; requests above it
+  // are rejected, except for actuator requests and event streams and exports, which have fixed
+  // lanes of their own
+  public record ConcurrencyLimit(
+      @DefaultValue("true") boolean enabled,
+      @DefaultValue("50") int initialLimit,
+      @DefaultValue("10") int minLimit,
+      @DefaultValue("1000") int maxLimit,
+      @DefaultValue("0.2") double smoothing,
+      @DefaultValue("1.5") double latencyTolerance,
+      @DefaultValue("10") int shortWindow,
+      @DefaultValue("600") int longWindow,
+      @DefaultValue("1s") Duration retryAfter,
+      @DefaultValue("10") int priorityLaneSize,
+      @DefaultValue("100") int streamLaneSize) {}
+
+  // requires a replica set; entries are evicted on every node through a change stream on the user
+  // collection, and while it is down they are trusted for fallback-ttl only
+  public record UserCache(
+      @DefaultValue("false") boolean enabled,
+      @DefaultValue("10000") long maximumSize,
+      @DefaultValue("10m") Duration ttl,
+      @DefaultValue("5s") Duration fallbackTtl,
+      @DefaultValue("1s") Duration reconnectDelay) {}
 }
@@ -0,0 +1,35 @@
+package com.example.erm.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.erm.repository.ExternalProjectChangeStreamListener;
+import com.example.erm.service.ExternalProjectEventBroadcaster;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// one change stream per node, however many event streams are open
+@Configuration
+@ConditionalOnProperty(name = "erm.external-project.events.enabled", havingValue = "true")
+public class ExternalProjectEventsConfiguration {
+
+  @Bean
+  public ExternalProjectEventBroadcaster externalProjectEventBroadcaster(
+      ErmConfigurationProperties ermConfigurationProperties, MeterRegistry meterRegistry) {
+    return new ExternalProjectEventBroadcaster(
+        ermConfigurationProperties.externalProject().events(), meterRegistry);
+  }
+
+  @Bean
+  public ExternalProjectChangeStreamListener externalProjectChangeStreamListener(
+      MongoTemplate mongoTemplate,
+      ExternalProjectEventBroadcaster externalProjectEventBroadcaster,
+      ErmConfigurationProperties ermConfigurationProperties) {
+    return new ExternalProjectChangeStreamListener(
+        mongoTemplate,
+        externalProjectEventBroadcaster,
+        ermConfigurationProperties.externalProject().events().reconnectDelay());
+  }
+}
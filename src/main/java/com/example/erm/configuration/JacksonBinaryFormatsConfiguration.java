@@ -0,0 +1,61 @@
+package com.example.erm.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+// the binary mappers come from boot's builder, so they carry the same modules and spring.jackson
+// settings as the json one; they are not beans, which would replace boot's json ObjectMapper
+@Configuration
+public class JacksonBinaryFormatsConfiguration {
+
+  // replace the converters spring mvc registers with plain mappers when the formats are present
+  @Bean
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+  }
+
+  @Bean
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(smileMapper(builder));
+  }
+
+  // smile is a default webflux codec and only needs its mapper replaced; cbor is not
+  @Bean
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+  public CodecCustomizer jacksonBinaryFormatsCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+    ObjectMapper cborMapper = cborMapper(builder);
+    ObjectMapper smileMapper = smileMapper(builder);
+
+    return configurer -> {
+      configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper));
+      configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper));
+      configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper));
+      configurer.customCodecs().register(new Jackson2CborEncoder(cborMapper));
+    };
+  }
+
+  private static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+    return builder.factory(new CBORFactory()).build();
+  }
+
+  private static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+    return builder.factory(new SmileFactory()).build();
+  }
+}
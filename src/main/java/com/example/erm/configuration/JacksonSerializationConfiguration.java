@@ -0,0 +1,58 @@
+package com.example.erm.configuration;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.example.erm.api.model.AccessTokenResponse;
+import com.example.erm.api.model.CursorPagedResponse;
+import com.example.erm.api.model.PagedResponse;
+import com.example.erm.api.model.UserResponse;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+@Configuration
+public class JacksonSerializationConfiguration {
+
+  static final List<Class<?>> PREFETCHED_TYPES =
+      List.of(
+          UserResponse.class,
+          PagedResponse.class,
+          CursorPagedResponse.class,
+          AccessTokenResponse.class,
+          ProblemDetail.class);
+
+  // property access through generated lambdas instead of reflection; boot's builder registers
+  // module beans, so the binary format mappers get it as well
+  @Bean
+  public Module blackbirdModule() {
+    return new BlackbirdModule();
+  }
+
+  // requests run on virtual threads, for which the default thread local buffer pool would
+  // allocate new buffers on every response
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer bufferRecyclingCustomizer() {
+    return builder ->
+        builder.postConfigurer(
+            objectMapper ->
+                objectMapper
+                    .getFactory()
+                    .setRecyclerPool(JsonRecyclerPools.sharedConcurrentDequePool()));
+  }
+
+  // replaces the converter of boot's HttpMessageConvertersAutoConfiguration
+  @Bean
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+  public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+      ObjectMapper objectMapper) {
+    return new PrefetchingJackson2HttpMessageConverter(objectMapper, PREFETCHED_TYPES);
+  }
+}
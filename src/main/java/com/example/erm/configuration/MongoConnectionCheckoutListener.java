@@ -0,0 +1,54 @@
+package com.example.erm.configuration;
+
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times how long operations wait for a pooled connection. The driver's pool gauges only show how
+ * many are waiting; with virtual threads the wait itself is where requests pile up once the pool
+ * is exhausted.
+ */
+public class MongoConnectionCheckoutListener implements ConnectionPoolListener {
+
+  static final String METER_NAME = "erm.mongo.pool.checkout";
+
+  private final Meter.MeterProvider<Timer> timer;
+
+  public MongoConnectionCheckoutListener(MeterRegistry registry) {
+    this.timer =
+        Timer.builder(METER_NAME)
+            .description("Time spent waiting for a pooled connection")
+            .withRegistry(registry);
+  }
+
+  @Override
+  public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+    record(
+        event.getConnectionId().getServerId().getAddress().toString(),
+        "SUCCESS",
+        event.getElapsedTime(TimeUnit.NANOSECONDS));
+  }
+
+  @Override
+  public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+    // TIMEOUT means max-wait-time was exceeded
+    record(
+        event.getServerId().getAddress().toString(),
+        event.getReason().name(),
+        event.getElapsedTime(TimeUnit.NANOSECONDS));
+  }
+
+  private void record(String serverAddress, String outcome, long elapsedNanos) {
+    timer
+        .withTags(Tags.of("server.address", serverAddress, "outcome", outcome))
+        .record(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+}
@@ -1,11 +1,69 @@
 package com.example.erm.configuration;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import com.example.erm.repository.converter.ExternalProjectReadingConverter;
+import com.example.erm.repository.converter.ExternalProjectWritingConverter;
+import com.example.erm.repository.converter.UserReadingConverter;
+import com.example.erm.repository.converter.UserWritingConverter;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.mongock.runner.springboot.EnableMongock;
 
+// command timers and pool gauges come from boot's mongo metrics auto-configuration; the customizer
+// also applies to the reactive client
 @Configuration
 @EnableMongoAuditing
 @EnableMongock
-public class MongoDbConfiguration {}
+public class MongoDbConfiguration {
+
+  // also used by the reactive template, which shares the MappingMongoConverter
+  @Bean
+  public MongoCustomConversions mongoCustomConversions(
+      ErmConfigurationProperties ermConfigurationProperties) {
+    if (ermConfigurationProperties.mongo().mapping()
+        == ErmConfigurationProperties.Mongo.Mapping.REFLECTIVE) {
+      return new MongoCustomConversions(List.of());
+    }
+
+    return new MongoCustomConversions(
+        List.of(
+            new UserWritingConverter(),
+            new UserReadingConverter(),
+            new ExternalProjectWritingConverter(),
+            new ExternalProjectReadingConverter()));
+  }
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer ermMongoClientSettingsCustomizer(
+      ErmConfigurationProperties ermConfigurationProperties, MeterRegistry meterRegistry) {
+    ErmConfigurationProperties.Mongo mongo = ermConfigurationProperties.mongo();
+
+    return settings ->
+        settings
+            .applyToConnectionPoolSettings(
+                pool ->
+                    pool.maxSize(mongo.pool().maxSize())
+                        .minSize(mongo.pool().minSize())
+                        .maxConnecting(mongo.pool().maxConnecting())
+                        .maxWaitTime(mongo.pool().maxWaitTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(
+                            mongo.pool().maxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(
+                            new MongoConnectionCheckoutListener(meterRegistry)))
+            .applyToSocketSettings(
+                socket ->
+                    socket
+                        .connectTimeout(
+                            (int) mongo.socket().connectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                        .readTimeout(
+                            (int) mongo.socket().readTimeout().toMillis(), TimeUnit.MILLISECONDS));
+  }
+}
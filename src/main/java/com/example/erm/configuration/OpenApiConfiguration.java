@@ -14,7 +14,11 @@ import io.swagger.v3.oas.annotations.security.SecurityScheme;
         @Info(
             title = "ERM API",
             version = "1.0",
-            description = "ERM API with Basic Authentication"),
-    security = @SecurityRequirement(name = "basicAuth"))
+            description = "ERM API with Basic and Bearer Token Authentication"),
+    security = {
+      @SecurityRequirement(name = "basicAuth"),
+      @SecurityRequirement(name = "bearerAuth")
+    })
 @SecurityScheme(name = "basicAuth", type = SecuritySchemeType.HTTP, scheme = "basic")
+@SecurityScheme(name = "bearerAuth", type = SecuritySchemeType.HTTP, scheme = "bearer")
 public class OpenApiConfiguration {}
@@ -0,0 +1,46 @@
+package com.example.erm.configuration;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+
+/**
+ * Json converter writing the most frequent response types with writers resolved once, so the
+ * serializer of the root value is not looked up on every response. Writes with a json view or
+ * filters keep the writer prepared for them.
+ */
+public class PrefetchingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+  private final SerializationConfig defaultConfig;
+  private final Map<Class<?>, ObjectWriter> writers;
+
+  public PrefetchingJackson2HttpMessageConverter(
+      ObjectMapper objectMapper, Collection<Class<?>> prefetchedTypes) {
+    super(objectMapper);
+    this.defaultConfig = objectMapper.getSerializationConfig();
+    this.writers =
+        prefetchedTypes.stream()
+            .collect(Collectors.toUnmodifiableMap(Function.identity(), objectMapper::writerFor));
+  }
+
+  @Override
+  protected ObjectWriter customizeWriter(
+      ObjectWriter writer, @Nullable MimeType mimeType, Object value) {
+    ObjectWriter prefetched = writers.get(value.getClass());
+    // a view or filters give the writer a config of its own
+    if (prefetched == null || writer.getConfig() != defaultConfig) {
+      return writer;
+    }
+
+    return prefetched;
+  }
+}
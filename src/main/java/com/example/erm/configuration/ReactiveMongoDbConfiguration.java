@@ -0,0 +1,62 @@
+package com.example.erm.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.mongo.MongoConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+// boot's reactive mongo auto-configuration is excluded, so the servlet stack does not open a second
+// connection pool; the settings customizers are the ones the blocking client is built with. The
+// blocking client stays on this profile for migrations, scheduled jobs, change streams and the
+// mongo access token store, so its pool is capped instead.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableReactiveMongoAuditing
+public class ReactiveMongoDbConfiguration {
+
+  @Bean
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  public MongoClientSettingsBuilderCustomizer blockingMongoPoolCustomizer(
+      ErmConfigurationProperties ermConfigurationProperties) {
+    int maxSize = ermConfigurationProperties.mongo().pool().blockingMaxSize();
+
+    return settings -> settings.applyToConnectionPoolSettings(pool -> pool.maxSize(maxSize));
+  }
+
+  @Bean(destroyMethod = "close")
+  public MongoClient reactiveMongoClient(
+      ObjectProvider<MongoClientSettingsBuilderCustomizer> customizers,
+      @Qualifier("blockingMongoPoolCustomizer")
+          MongoClientSettingsBuilderCustomizer blockingMongoPoolCustomizer) {
+    MongoClientSettings.Builder settings = MongoClientSettings.builder();
+    customizers.orderedStream()
+        .filter(customizer -> customizer != blockingMongoPoolCustomizer)
+        .forEach(customizer -> customizer.customize(settings));
+
+    return MongoClients.create(settings.build());
+  }
+
+  @Bean
+  public ReactiveMongoTemplate reactiveMongoTemplate(
+      MongoClient reactiveMongoClient,
+      MongoConnectionDetails mongoConnectionDetails,
+      MappingMongoConverter mappingMongoConverter) {
+    return new ReactiveMongoTemplate(
+        new SimpleReactiveMongoDatabaseFactory(
+            reactiveMongoClient, mongoConnectionDetails.getConnectionString().getDatabase()),
+        mappingMongoConverter);
+  }
+}
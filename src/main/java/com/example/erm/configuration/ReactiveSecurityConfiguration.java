@@ -0,0 +1,103 @@
+package com.example.erm.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.repository.ReactiveUserRepository;
+import com.example.erm.security.AccessTokenService;
+import com.example.erm.security.CachingReactiveAuthenticationManager;
+import com.example.erm.security.CachingReactiveUserDetailsService;
+import com.example.erm.security.CustomServerAuthenticationEntryPoint;
+import com.example.erm.security.ReactiveBearerTokenAuthenticationFilter;
+import com.example.erm.security.ReactiveMongoUserDetailsService;
+import com.example.erm.security.VerifiedCredentialCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// counterpart of SecurityConfiguration for the reactive profile; http basic and bearer tokens go
+// through the same user details and verified credential caches as on the servlet stack
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+@Import(CommonSecurityConfiguration.class)
+public class ReactiveSecurityConfiguration {
+
+  @Bean
+  public SecurityWebFilterChain securityWebFilterChain(
+      ServerHttpSecurity http,
+      ServerAuthenticationEntryPoint authenticationEntryPoint,
+      AccessTokenService accessTokenService,
+      ReactiveUserDetailsService userDetailsService,
+      ReactiveAuthenticationManager authenticationManager) {
+    return http.authorizeExchange(
+            registry ->
+                registry
+                    .pathMatchers(HttpMethod.OPTIONS)
+                    .permitAll()
+                    .pathMatchers("/api/user", "/api/user/**", "/api/auth/**")
+                    .authenticated()
+                    .anyExchange()
+                    .permitAll())
+        .csrf(ServerHttpSecurity.CsrfSpec::disable)
+        .httpBasic(
+            c ->
+                c.authenticationManager(authenticationManager)
+                    .authenticationEntryPoint(authenticationEntryPoint))
+        .addFilterBefore(
+            new ReactiveBearerTokenAuthenticationFilter(
+                accessTokenService, userDetailsService, authenticationEntryPoint),
+            SecurityWebFiltersOrder.HTTP_BASIC)
+        .exceptionHandling(c -> c.authenticationEntryPoint(authenticationEntryPoint))
+        // stateless, as the servlet chain which keeps the context in a request attribute only
+        .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+        .build();
+  }
+
+  @Bean
+  public ServerAuthenticationEntryPoint authenticationEntryPoint(
+      ProblemDetailFactory problemDetailFactory,
+      ObjectMapper objectMapper,
+      ErmConfigurationProperties ermConfigurationProperties) {
+    return new CustomServerAuthenticationEntryPoint(
+        problemDetailFactory,
+        objectMapper,
+        ermConfigurationProperties.mongo().bulkhead().retryAfter());
+  }
+
+  @Bean
+  public ReactiveUserDetailsService userDetailsService(
+      ReactiveUserRepository userRepository,
+      ErmConfigurationProperties ermConfigurationProperties) {
+    ErmConfigurationProperties.Security.UserDetailsCache userDetailsCache =
+        ermConfigurationProperties.security().userDetailsCache();
+
+    return new CachingReactiveUserDetailsService(
+        new ReactiveMongoUserDetailsService(userRepository),
+        userDetailsCache.maximumSize(),
+        userDetailsCache.expireAfterWrite(),
+        userDetailsCache.refreshAfterWrite());
+  }
+
+  @Bean
+  public ReactiveAuthenticationManager authenticationManager(
+      ReactiveUserDetailsService userDetailsService,
+      PasswordEncoder passwordEncoder,
+      VerifiedCredentialCache verifiedCredentialCache) {
+    return new CachingReactiveAuthenticationManager(
+        userDetailsService, passwordEncoder, verifiedCredentialCache);
+  }
+}
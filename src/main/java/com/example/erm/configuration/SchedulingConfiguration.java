@@ -0,0 +1,22 @@
+package com.example.erm.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.provider.mongo.MongoLockProvider;
+import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
+
+// jobs annotated with @SchedulerLock run on one node at a time, locked in the shedLock collection
+@Configuration
+@EnableScheduling
+@EnableSchedulerLock(defaultLockAtMostFor = "30m")
+public class SchedulingConfiguration {
+
+  @Bean
+  public LockProvider lockProvider(MongoTemplate mongoTemplate) {
+    return new MongoLockProvider(mongoTemplate.getDb());
+  }
+}
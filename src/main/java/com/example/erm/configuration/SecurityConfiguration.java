@@ -1,10 +1,11 @@
 package com.example.erm.configuration;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
-import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
-import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -12,42 +13,57 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.security.web.context.SecurityContextRepository;
 
 import com.example.erm.api.util.ProblemDetailFactory;
 import com.example.erm.repository.UserRepository;
+import com.example.erm.security.AccessTokenService;
+import com.example.erm.security.BearerTokenAuthenticationFilter;
+import com.example.erm.security.CachingDaoAuthenticationProvider;
+import com.example.erm.security.CachingUserDetailsService;
 import com.example.erm.security.CustomAuthenticationEntryPoint;
 import com.example.erm.security.MongoUserDetailsService;
-import com.example.erm.security.SecurityRole;
+import com.example.erm.security.VerifiedCredentialCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @EnableMethodSecurity
+@Import(CommonSecurityConfiguration.class)
 public class SecurityConfiguration {
 
   @Bean
   public SecurityFilterChain securityFilterChain(
       HttpSecurity http,
       SecurityContextRepository securityContextRepository,
-      AuthenticationEntryPoint authenticationEntryPoint)
+      AuthenticationEntryPoint authenticationEntryPoint,
+      AccessTokenService accessTokenService,
+      UserDetailsService userDetailsService)
       throws Exception {
     return http.authorizeHttpRequests(
             registry ->
                 registry
                     .requestMatchers(HttpMethod.OPTIONS)
                     .permitAll()
-                    .requestMatchers("/api/user", "/api/user/**")
+                    .requestMatchers("/api/user", "/api/user/**", "/api/auth/**")
                     .authenticated()
                     .anyRequest()
                     .permitAll())
         .csrf(AbstractHttpConfigurer::disable)
         .httpBasic(c -> c.authenticationEntryPoint(authenticationEntryPoint))
+        .addFilterBefore(
+            new BearerTokenAuthenticationFilter(
+                accessTokenService,
+                userDetailsService,
+                authenticationEntryPoint,
+                securityContextRepository),
+            BasicAuthenticationFilter.class)
         .exceptionHandling(Customizer.withDefaults())
         .sessionManagement(
             configurer -> configurer.sessionCreationPolicy(SessionCreationPolicy.NEVER))
@@ -58,8 +74,13 @@ public class SecurityConfiguration {
 
   @Bean
   public AuthenticationEntryPoint authenticationEntryPoint(
-      ProblemDetailFactory problemDetailFactory, ObjectMapper objectMapper) {
-    return new CustomAuthenticationEntryPoint(problemDetailFactory, objectMapper);
+      ProblemDetailFactory problemDetailFactory,
+      ObjectMapper objectMapper,
+      ErmConfigurationProperties ermConfigurationProperties) {
+    return new CustomAuthenticationEntryPoint(
+        problemDetailFactory,
+        objectMapper,
+        ermConfigurationProperties.mongo().bulkhead().retryAfter());
   }
 
   @Bean
@@ -68,18 +89,24 @@ public class SecurityConfiguration {
   }
 
   @Bean
-  public UserDetailsService userDetailsService(UserRepository userRepository) {
-    return new MongoUserDetailsService(userRepository);
-  }
+  public UserDetailsService userDetailsService(
+      UserRepository userRepository, ErmConfigurationProperties ermConfigurationProperties) {
+    ErmConfigurationProperties.Security.UserDetailsCache userDetailsCache =
+        ermConfigurationProperties.security().userDetailsCache();
 
-  @Bean
-  public RoleHierarchy roleHierarchy() {
-    return RoleHierarchyImpl.fromHierarchy(
-        String.format("%s > %s", SecurityRole.ADMIN, SecurityRole.USER));
+    return new CachingUserDetailsService(
+        new MongoUserDetailsService(userRepository),
+        userDetailsCache.maximumSize(),
+        userDetailsCache.expireAfterWrite(),
+        userDetailsCache.refreshAfterWrite());
   }
 
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public AuthenticationProvider authenticationProvider(
+      UserDetailsService userDetailsService,
+      PasswordEncoder passwordEncoder,
+      VerifiedCredentialCache verifiedCredentialCache) {
+    return new CachingDaoAuthenticationProvider(
+        userDetailsService, passwordEncoder, verifiedCredentialCache);
   }
 }
@@ -0,0 +1,35 @@
+package com.example.erm.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.erm.repository.UserCache;
+import com.example.erm.repository.UserChangeStreamListener;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+// the cache passes reads through when disabled, the listener only exists when it is enabled
+@Configuration
+public class UserCacheConfiguration {
+
+  @Bean
+  public UserCache userCache(ErmConfigurationProperties ermConfigurationProperties) {
+    return new UserCache(ermConfigurationProperties.userCache(), Ticker.systemTicker());
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "erm.user-cache.enabled", havingValue = "true")
+  public UserChangeStreamListener userChangeStreamListener(
+      MongoTemplate mongoTemplate,
+      UserCache userCache,
+      ApplicationEventPublisher eventPublisher,
+      ErmConfigurationProperties ermConfigurationProperties) {
+    return new UserChangeStreamListener(
+        mongoTemplate,
+        userCache,
+        eventPublisher,
+        ermConfigurationProperties.userCache().reconnectDelay());
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.erm.event;
+
+import com.example.erm.repository.domain.ExternalProject;
+
+// position orders changes the same way on every node; it is the cluster time of the change
+public record ExternalProjectChangedEvent(
+    long position, Type type, ExternalProject externalProject) {
+
+  public String userId() {
+    return externalProject.getUserId();
+  }
+
+  public enum Type {
+    CREATED,
+    UPDATED
+  }
+}
@@ -0,0 +1,22 @@
+package com.example.erm.event;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// remote events republish changes of other nodes seen on the change stream, for local caches only
+public record UserChangedEvent(String userId, Set<String> emails, boolean remote) {
+
+  public static UserChangedEvent of(String userId, String... emails) {
+    return new UserChangedEvent(userId, toSet(emails), false);
+  }
+
+  public static UserChangedEvent remote(String userId, String... emails) {
+    return new UserChangedEvent(userId, toSet(emails), true);
+  }
+
+  private static Set<String> toSet(String... emails) {
+    return Stream.of(emails).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+  }
+}
@@ -0,0 +1,4 @@
+package com.example.erm.exception;
+
+// a batched insert was not written in time; the project may or may not have been stored
+public class ExternalProjectInsertTimeoutException extends RuntimeException {}
@@ -0,0 +1,10 @@
+package com.example.erm.exception;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class InvalidCursorException extends RuntimeException {
+  private final String cursor;
+}
@@ -0,0 +1,11 @@
+package com.example.erm.exception;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// no permit of the compartment became free within its max-wait
+@Getter
+@RequiredArgsConstructor
+public class MongoBulkheadFullException extends RuntimeException {
+  private final String compartment;
+}
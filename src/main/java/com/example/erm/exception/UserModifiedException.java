@@ -0,0 +1,11 @@
+package com.example.erm.exception;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// the user no longer has the version a conditional update expected
+@Getter
+@RequiredArgsConstructor
+public class UserModifiedException extends RuntimeException {
+  private final String id;
+}
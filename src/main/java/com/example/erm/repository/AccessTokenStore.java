@@ -0,0 +1,18 @@
+package com.example.erm.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+import com.example.erm.repository.domain.AccessToken;
+
+public interface AccessTokenStore {
+
+  void save(AccessToken accessToken);
+
+  Optional<AccessToken> findById(String id);
+
+  void deleteByEmails(Collection<String> emails);
+
+  void deleteExpired(Instant now);
+}
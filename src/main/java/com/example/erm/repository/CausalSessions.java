@@ -0,0 +1,91 @@
+package com.example.erm.repository;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+
+/**
+ * Runs writes and reads of a key, e.g. a user id, in causally consistent sessions. The operation
+ * time of the last write per key is kept for the configured window, and a later read of that key
+ * starts its session from it, so it sees the write even when it is routed to a secondary. When
+ * disabled, operations run on the template directly.
+ *
+ * <p>The last writes are kept per node, so a read served by another node than the write gets no
+ * causal guarantee; read-your-writes across nodes needs sticky sessions.
+ */
+@Component
+public class CausalSessions {
+  private static final ClientSessionOptions CAUSALLY_CONSISTENT =
+      ClientSessionOptions.builder().causallyConsistent(true).build();
+
+  private final MongoTemplate mongoTemplate;
+  private final Cache<String, OperationTime> lastWrites;
+
+  public CausalSessions(
+      MongoTemplate mongoTemplate, ErmConfigurationProperties ermConfigurationProperties) {
+    ErmConfigurationProperties.Mongo.ReadRouting.CausalConsistency causalConsistency =
+        ermConfigurationProperties.mongo().readRouting().causalConsistency();
+    this.mongoTemplate = mongoTemplate;
+    this.lastWrites =
+        causalConsistency.enabled()
+            ? Caffeine.newBuilder()
+                .maximumSize(causalConsistency.maximumSize())
+                .expireAfterWrite(causalConsistency.window())
+                .build()
+            : null;
+  }
+
+  public <T> T write(Collection<String> keys, Function<MongoOperations, T> operation) {
+    if (lastWrites == null) {
+      return operation.apply(mongoTemplate);
+    }
+
+    try (ClientSession session = startSession()) {
+      T result = operation.apply(mongoTemplate.withSession(session));
+      // null on a standalone server, which has no causal consistency to offer
+      if (session.getOperationTime() != null) {
+        OperationTime operationTime =
+            new OperationTime(session.getClusterTime(), session.getOperationTime());
+        keys.forEach(key -> lastWrites.asMap().merge(key, operationTime, OperationTime::later));
+      }
+
+      return result;
+    }
+  }
+
+  public <T> T read(String key, Function<MongoOperations, T> operation) {
+    OperationTime lastWrite = lastWrites != null ? lastWrites.getIfPresent(key) : null;
+    if (lastWrite == null) {
+      return operation.apply(mongoTemplate);
+    }
+
+    try (ClientSession session = startSession()) {
+      session.advanceClusterTime(lastWrite.clusterTime());
+      session.advanceOperationTime(lastWrite.operationTime());
+
+      return operation.apply(mongoTemplate.withSession(session));
+    }
+  }
+
+  private ClientSession startSession() {
+    return mongoTemplate.getMongoDatabaseFactory().getSession(CAUSALLY_CONSISTENT);
+  }
+
+  record OperationTime(BsonDocument clusterTime, BsonTimestamp operationTime) {
+
+    static OperationTime later(OperationTime first, OperationTime second) {
+      return first.operationTime().compareTo(second.operationTime()) >= 0 ? first : second;
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package com.example.erm.repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.erm.event.ExternalProjectChangedEvent;
+import com.example.erm.repository.domain.ExternalProject;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The one change stream on external projects of this node, handing created and updated projects
+ * to a {@link Subscriber}. Deletes are not passed on, their events do not tell whose project it
+ * was. Failures are handled as in {@link UserChangeStreamListener}.
+ */
+@Slf4j
+public class ExternalProjectChangeStreamListener implements SmartLifecycle {
+
+  private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+  private static final long MAX_AWAIT_MILLIS = 1000;
+
+  private static final List<Bson> PIPELINE =
+      List.of(
+          Aggregates.match(
+              Filters.in(
+                  "operationType",
+                  OperationType.INSERT.getValue(),
+                  OperationType.UPDATE.getValue(),
+                  OperationType.REPLACE.getValue(),
+                  OperationType.INVALIDATE.getValue())));
+
+  private final MongoTemplate mongoTemplate;
+  private final Subscriber subscriber;
+  private final Duration reconnectDelay;
+
+  private volatile boolean running;
+  private Thread listener;
+  // only touched by the listener thread
+  private BsonDocument resumeToken;
+
+  public ExternalProjectChangeStreamListener(
+      MongoTemplate mongoTemplate, Subscriber subscriber, Duration reconnectDelay) {
+    this.mongoTemplate = mongoTemplate;
+    this.subscriber = subscriber;
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    listener = Thread.ofPlatform().name("external-project-change-stream").daemon().start(this::run);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (listener == null) {
+      return;
+    }
+    try {
+      listener.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        listen();
+      } catch (RuntimeException e) {
+        if (e instanceof MongoCommandException commandException
+            && commandException.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+          resumeToken = null;
+        }
+        log.warn(
+            "External project change stream failed, reconnecting in {}. {}",
+            reconnectDelay,
+            e.getMessage());
+        pause();
+      }
+    }
+  }
+
+  private void listen() {
+    ChangeStreamIterable<Document> changes =
+        mongoTemplate
+            .getCollection(ExternalProject.COLLECTION)
+            .watch(PIPELINE)
+            // updates only describe the changed fields, the owner is in the full document
+            .fullDocument(FullDocument.UPDATE_LOOKUP)
+            .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+    boolean resumed = resumeToken != null;
+    try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor =
+        (resumed ? changes.resumeAfter(resumeToken) : changes).cursor()) {
+      subscriber.changeStreamConnected(resumed);
+      log.info("Listening to external project changes{}", resumed ? ", resumed" : "");
+      while (running) {
+        ChangeStreamDocument<Document> change = cursor.tryNext();
+        if (change != null && change.getOperationType() == OperationType.INVALIDATE) {
+          resumeToken = null;
+          return;
+        }
+        if (change != null && change.getFullDocument() != null) {
+          subscriber.changed(toEvent(change));
+        }
+        if (cursor.getResumeToken() != null) {
+          resumeToken = cursor.getResumeToken();
+        }
+      }
+    }
+  }
+
+  private ExternalProjectChangedEvent toEvent(ChangeStreamDocument<Document> change) {
+    return new ExternalProjectChangedEvent(
+        change.getClusterTime().getValue(),
+        change.getOperationType() == OperationType.INSERT
+            ? ExternalProjectChangedEvent.Type.CREATED
+            : ExternalProjectChangedEvent.Type.UPDATED,
+        mongoTemplate.getConverter().read(ExternalProject.class, change.getFullDocument()));
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(reconnectDelay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+
+  public interface Subscriber {
+
+    // false if changes may have been missed since the last one passed on
+    void changeStreamConnected(boolean resumed);
+
+    void changed(ExternalProjectChangedEvent event);
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.erm.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import com.example.erm.repository.MongoBulkhead.Compartment;
+import com.example.erm.repository.domain.ExternalProjectCounter;
+import com.mongodb.client.result.UpdateResult;
+
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@RequiredArgsConstructor
+public class ExternalProjectCounterRepository {
+  private final MongoTemplate mongoTemplate;
+  private final MongoBulkhead mongoBulkhead;
+
+  public void increment(String userId, long delta) {
+    mongoBulkhead.run(
+        Compartment.WRITE,
+        () -> mongoTemplate.upsert(byId(userId), incrementOf(delta), ExternalProjectCounter.class));
+  }
+
+  public Optional<ExternalProjectCounter> findById(String userId) {
+    return Optional.ofNullable(
+        mongoBulkhead.call(
+            Compartment.READ,
+            () -> mongoTemplate.findById(userId, ExternalProjectCounter.class)));
+  }
+
+  public Optional<Long> findCount(String userId) {
+    return findById(userId).map(ExternalProjectCounter::getCount);
+  }
+
+  public long count(String userId) {
+    return findCount(userId).orElse(0L);
+  }
+
+  // ordered by user id, read through a cursor
+  public Stream<ExternalProjectCounter> streamAll() {
+    Query query = new Query().with(Sort.by(ExternalProjectCounter.Fields.id));
+
+    return mongoBulkhead.call(
+        Compartment.READ, () -> mongoTemplate.stream(query, ExternalProjectCounter.class));
+  }
+
+  // only applies if the counter still holds the expected count and has not been incremented since
+  // unchangedSince
+  public boolean compareAndSet(String userId, long expected, long count, Instant unchangedSince) {
+    Query query =
+        Query.query(
+            Criteria.where(ExternalProjectCounter.Fields.id)
+                .is(userId)
+                .and(ExternalProjectCounter.Fields.count)
+                .is(expected)
+                .and(ExternalProjectCounter.Fields.updatedAt)
+                .lt(unchangedSince));
+    Update update =
+        new Update()
+            .set(ExternalProjectCounter.Fields.count, count)
+            .currentDate(ExternalProjectCounter.Fields.updatedAt);
+
+    UpdateResult result =
+        mongoBulkhead.call(
+            Compartment.WRITE,
+            () -> mongoTemplate.updateFirst(query, update, ExternalProjectCounter.class));
+
+    return result.getModifiedCount() > 0;
+  }
+
+  public boolean initialize(String userId, long count) {
+    ExternalProjectCounter counter =
+        ExternalProjectCounter.builder().id(userId).count(count).updatedAt(Instant.now()).build();
+    try {
+      mongoBulkhead.run(Compartment.WRITE, () -> mongoTemplate.insert(counter));
+
+      return true;
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+  }
+
+  public void delete(String userId) {
+    mongoBulkhead.run(
+        Compartment.WRITE, () -> mongoTemplate.remove(byId(userId), ExternalProjectCounter.class));
+  }
+
+  static Query byId(String userId) {
+    return Query.query(Criteria.where(ExternalProjectCounter.Fields.id).is(userId));
+  }
+
+  static Update incrementOf(long delta) {
+    return new Update()
+        .inc(ExternalProjectCounter.Fields.count, delta)
+        .currentDate(ExternalProjectCounter.Fields.updatedAt);
+  }
+}
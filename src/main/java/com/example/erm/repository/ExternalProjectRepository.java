@@ -1,32 +1,288 @@
 package com.example.erm.repository;
 
-import org.springframework.data.domain.Page;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 
+import com.example.erm.command.ExternalProjectCursor;
 import com.example.erm.command.ExternalProjectListCommand;
+import com.example.erm.command.ExternalProjectScrollCommand;
+import com.example.erm.configuration.ErmConfigurationProperties.Mongo.ReadRouting.ReadOperation;
+import com.example.erm.repository.MongoBulkhead.Compartment;
 import com.example.erm.repository.domain.ExternalProject;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ReadPreference;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
 
 import lombok.RequiredArgsConstructor;
 
 @Repository
 @RequiredArgsConstructor
 public class ExternalProjectRepository {
+  // documents fetched per getMore while streaming; small enough to keep heap use flat and large
+  // enough that round trips do not dominate
+  private static final int STREAM_BATCH_SIZE = 500;
+  private static final Sort CREATION_ORDER =
+      Sort.by(Sort.Direction.ASC, ExternalProject.Fields.createdAt, ExternalProject.Fields.id);
+
+  static final Bson RAW_LISTING_FIELDS =
+      Projections.include(ExternalProject.Fields.name, ExternalProject.Fields.createdAt);
+
   private final MongoTemplate mongoTemplate;
+  private final ReadPreferenceRouter readPreferenceRouter;
+  private final CausalSessions causalSessions;
+  private final MongoBulkhead mongoBulkhead;
 
   public ExternalProject insert(ExternalProject externalProject) {
-    return mongoTemplate.insert(externalProject);
+    return mongoBulkhead.call(
+        Compartment.WRITE,
+        () ->
+            causalSessions.write(
+                Set.of(externalProject.getUserId()),
+                operations -> operations.insert(externalProject)));
+  }
+
+  // written through the converter, so auditing does not stamp every project with its own time
+  public List<ExternalProject> insertAll(List<ExternalProject> externalProjects) {
+    List<Document> documents = toDocuments(mongoTemplate.getConverter(), externalProjects);
+    mongoBulkhead.call(
+        Compartment.WRITE,
+        () ->
+            causalSessions.write(
+                userIdsOf(externalProjects),
+                operations ->
+                    operations.execute(
+                        ExternalProject.class,
+                        collection -> collection.insertMany(documents).wasAcknowledged())));
+
+    return externalProjects;
+  }
+
+  // unordered, so a failing project does not fail the others; returns the write errors
+  public List<BulkWriteError> insertAllUnordered(List<ExternalProject> externalProjects) {
+    List<Document> documents = toDocuments(mongoTemplate.getConverter(), externalProjects);
+
+    return mongoBulkhead.call(
+        Compartment.WRITE,
+        () ->
+            causalSessions.write(
+                userIdsOf(externalProjects),
+                operations ->
+                    operations.execute(
+                        ExternalProject.class,
+                        collection -> {
+                          try {
+                            collection.insertMany(
+                                documents, new InsertManyOptions().ordered(false));
+
+                            return List.of();
+                          } catch (MongoBulkWriteException e) {
+                            return e.getWriteErrors();
+                          }
+                        })));
+  }
+
+  public Slice<ExternalProject> list(ExternalProjectListCommand command) {
+    Query query =
+        readPreferenceRouter.route(ReadOperation.EXTERNAL_PROJECT_LIST, listQuery(command));
+
+    return Slices.of(
+        mongoBulkhead.call(
+            Compartment.READ,
+            () ->
+                causalSessions.read(
+                    command.userId(), operations -> operations.find(query, ExternalProject.class))),
+        command.page());
+  }
+
+  // the same listing as stored, reduced to the fields of a response; the documents are not decoded
+  public Slice<RawBsonDocument> listRaw(ExternalProjectListCommand command) {
+    RawListQuery query =
+        rawListQuery(
+            mongoTemplate.getConverter(),
+            readPreferenceRouter.route(ReadOperation.EXTERNAL_PROJECT_LIST, listQuery(command)));
+
+    return Slices.of(
+        mongoBulkhead.call(
+            Compartment.READ,
+            () ->
+                causalSessions.read(
+                    command.userId(),
+                    operations ->
+                        operations.execute(
+                            ExternalProject.class,
+                            collection ->
+                                (query.readPreference() != null
+                                        ? collection.withReadPreference(query.readPreference())
+                                        : collection)
+                                    .find(query.filter(), RawBsonDocument.class)
+                                    .projection(RAW_LISTING_FIELDS)
+                                    .sort(query.sort())
+                                    .skip(query.skip())
+                                    .limit(query.limit())
+                                    .into(new ArrayList<>())))),
+        command.page());
+  }
+
+  // the stream holds an open cursor and has to be closed; the permit covers the first batch only,
+  // as the cursor does not keep a connection between its getMores
+  public Stream<ExternalProject> streamByUserId(String userId) {
+    Query query =
+        readPreferenceRouter.route(ReadOperation.EXTERNAL_PROJECT_EXPORT, streamQuery(userId));
+
+    return mongoBulkhead.call(
+        Compartment.READ, () -> mongoTemplate.stream(query, ExternalProject.class));
+  }
+
+  // projects per user created before createdBefore, ordered by user id; one aggregation read
+  // through a cursor, grouped on disk where it does not fit the server's memory
+  public Stream<UserProjectCount> streamCountsByUserIdCreatedBefore(Instant createdBefore) {
+    Aggregation aggregation =
+        newAggregation(
+                match(Criteria.where(ExternalProject.Fields.createdAt).lt(createdBefore)),
+                group(ExternalProject.Fields.userId).count().as(UserProjectCount.COUNT),
+                sort(Sort.Direction.ASC, Fields.UNDERSCORE_ID))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+    return mongoBulkhead
+        .call(
+            Compartment.READ,
+            () -> mongoTemplate.aggregateStream(aggregation, ExternalProject.class, Document.class))
+        .map(
+            counted ->
+                new UserProjectCount(
+                    counted.getString(Fields.UNDERSCORE_ID),
+                    counted.get(UserProjectCount.COUNT, Number.class).longValue()));
   }
 
-  public Page<ExternalProject> list(ExternalProjectListCommand command) {
-    Query query = Query.query(Criteria.where(ExternalProject.Fields.userId).is(command.userId()));
+  // bounded, so a user with many projects does not turn into one long running delete
+  public long deleteBatchByUserId(String userId, int batchSize) {
+    Query query = Query.query(byUserId(userId)).limit(batchSize);
+    query.fields().include(ExternalProject.Fields.id);
+    List<String> ids =
+        mongoBulkhead
+            .call(Compartment.READ, () -> mongoTemplate.find(query, ExternalProject.class))
+            .stream()
+            .map(ExternalProject::getId)
+            .toList();
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    Query removeQuery = Query.query(Criteria.where(ExternalProject.Fields.id).in(ids));
+
+    return mongoBulkhead.call(
+        Compartment.WRITE,
+        () -> mongoTemplate.remove(removeQuery, ExternalProject.class).getDeletedCount());
+  }
+
+  public Slice<ExternalProject> scroll(ExternalProjectScrollCommand command) {
+    Query query =
+        readPreferenceRouter.route(ReadOperation.EXTERNAL_PROJECT_SCROLL, scrollQuery(command));
+
+    return Slices.of(
+        mongoBulkhead.call(
+            Compartment.READ,
+            () ->
+                causalSessions.read(
+                    command.userId(), operations -> operations.find(query, ExternalProject.class))),
+        PageRequest.ofSize(command.size()));
+  }
+
+  static List<Document> toDocuments(
+      MongoConverter converter, List<ExternalProject> externalProjects) {
+    return externalProjects.stream()
+        .map(
+            externalProject -> {
+              Document document = new Document();
+              converter.write(externalProject, document);
+              return document;
+            })
+        .toList();
+  }
+
+  static Query listQuery(ExternalProjectListCommand command) {
+    Pageable page = command.page();
+    Query query = Query.query(byUserId(command.userId())).with(page);
+
+    // one extra document tells whether a next page exists without counting
+    return page.isPaged() ? query.limit(page.getPageSize() + 1) : query;
+  }
+
+  // the query mapped as MongoTemplate would, for running it on the collection; a limit of 0 is none
+  static RawListQuery rawListQuery(MongoConverter converter, Query query) {
+    MongoPersistentEntity<?> entity =
+        converter.getMappingContext().getRequiredPersistentEntity(ExternalProject.class);
+    QueryMapper queryMapper = new QueryMapper(converter);
+
+    return new RawListQuery(
+        queryMapper.getMappedObject(query.getQueryObject(), entity),
+        queryMapper.getMappedSort(query.getSortObject(), entity),
+        query.getReadPreference(),
+        (int) query.getSkip(),
+        query.getLimit());
+  }
+
+  static Query streamQuery(String userId) {
+    return Query.query(byUserId(userId)).with(CREATION_ORDER).cursorBatchSize(STREAM_BATCH_SIZE);
+  }
+
+  static Query scrollQuery(ExternalProjectScrollCommand command) {
+    Criteria criteria = byUserId(command.userId());
+    ExternalProjectCursor after = command.after();
+    if (after != null) {
+      // seeks on userId_1_createdAt_1__id_1 instead of skipping the preceding documents
+      criteria.orOperator(
+          Criteria.where(ExternalProject.Fields.createdAt).gt(after.createdAt()),
+          Criteria.where(ExternalProject.Fields.createdAt)
+              .is(after.createdAt())
+              .and(ExternalProject.Fields.id)
+              .gt(after.id()));
+    }
+
+    return Query.query(criteria).with(CREATION_ORDER).limit(command.size() + 1);
+  }
+
+  private static Set<String> userIdsOf(List<ExternalProject> externalProjects) {
+    return externalProjects.stream().map(ExternalProject::getUserId).collect(Collectors.toSet());
+  }
+
+  private static Criteria byUserId(String userId) {
+    return Criteria.where(ExternalProject.Fields.userId).is(userId);
+  }
+
+  record RawListQuery(
+      Document filter, Document sort, ReadPreference readPreference, int skip, int limit) {}
+
+  public record UserProjectCount(String userId, long count) {
 
-    return PageableExecutionUtils.getPage(
-        mongoTemplate.find(query.with(command.page()), ExternalProject.class),
-        command.page(),
-        () -> mongoTemplate.count(query, ExternalProject.class));
+    static final String COUNT = "count";
   }
 }
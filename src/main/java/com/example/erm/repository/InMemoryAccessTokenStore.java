@@ -0,0 +1,34 @@
+package com.example.erm.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.erm.repository.domain.AccessToken;
+
+public class InMemoryAccessTokenStore implements AccessTokenStore {
+
+  private final Map<String, AccessToken> accessTokens = new ConcurrentHashMap<>();
+
+  @Override
+  public void save(AccessToken accessToken) {
+    accessTokens.put(accessToken.getId(), accessToken);
+  }
+
+  @Override
+  public Optional<AccessToken> findById(String id) {
+    return Optional.ofNullable(accessTokens.get(id));
+  }
+
+  @Override
+  public void deleteByEmails(Collection<String> emails) {
+    accessTokens.values().removeIf(accessToken -> emails.contains(accessToken.getEmail()));
+  }
+
+  @Override
+  public void deleteExpired(Instant now) {
+    accessTokens.values().removeIf(accessToken -> !accessToken.getExpiresAt().isAfter(now));
+  }
+}
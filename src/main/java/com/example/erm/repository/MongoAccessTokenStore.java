@@ -0,0 +1,45 @@
+package com.example.erm.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.example.erm.repository.MongoBulkhead.Compartment;
+import com.example.erm.repository.domain.AccessToken;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class MongoAccessTokenStore implements AccessTokenStore {
+
+  private final MongoTemplate mongoTemplate;
+  private final MongoBulkhead mongoBulkhead;
+
+  @Override
+  public void save(AccessToken accessToken) {
+    mongoBulkhead.run(Compartment.WRITE, () -> mongoTemplate.insert(accessToken));
+  }
+
+  @Override
+  public Optional<AccessToken> findById(String id) {
+    return Optional.ofNullable(
+        mongoBulkhead.call(Compartment.AUTH, () -> mongoTemplate.findById(id, AccessToken.class)));
+  }
+
+  @Override
+  public void deleteByEmails(Collection<String> emails) {
+    Query query = Query.query(Criteria.where(AccessToken.Fields.email).in(emails));
+    mongoBulkhead.run(Compartment.WRITE, () -> mongoTemplate.remove(query, AccessToken.class));
+  }
+
+  @Override
+  public void deleteExpired(Instant now) {
+    // expired documents are removed by the ttl index, this only covers the monitor's delay
+    Query query = Query.query(Criteria.where(AccessToken.Fields.expiresAt).lte(now));
+    mongoBulkhead.run(Compartment.WRITE, () -> mongoTemplate.remove(query, AccessToken.class));
+  }
+}
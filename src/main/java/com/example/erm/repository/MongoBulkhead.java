@@ -0,0 +1,117 @@
+package com.example.erm.repository;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.configuration.ErmConfigurationProperties.Mongo.Bulkhead.Permits;
+import com.example.erm.exception.MongoBulkheadFullException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bounds concurrent repository calls per compartment. Virtual threads make request threads cheap,
+ * so without it a burst of listings would queue for pooled connections in front of every
+ * authentication; with it the burst waits for, and is rejected from, its own permits only.
+ */
+@Component
+public class MongoBulkhead {
+
+  static final String WAIT_METER_NAME = "erm.mongo.bulkhead.wait";
+  static final String REJECTED_METER_NAME = "erm.mongo.bulkhead.rejected";
+  static final String AVAILABLE_METER_NAME = "erm.mongo.bulkhead.available";
+
+  public enum Compartment {
+    AUTH,
+    READ,
+    WRITE
+  }
+
+  private final boolean enabled;
+  private final Map<Compartment, Lane> lanes = new EnumMap<>(Compartment.class);
+
+  public MongoBulkhead(
+      ErmConfigurationProperties ermConfigurationProperties, MeterRegistry meterRegistry) {
+    ErmConfigurationProperties.Mongo.Bulkhead settings =
+        ermConfigurationProperties.mongo().bulkhead();
+    this.enabled = settings.enabled();
+    lanes.put(Compartment.AUTH, new Lane(Compartment.AUTH, settings.auth(), meterRegistry));
+    lanes.put(Compartment.READ, new Lane(Compartment.READ, settings.read(), meterRegistry));
+    lanes.put(Compartment.WRITE, new Lane(Compartment.WRITE, settings.write(), meterRegistry));
+  }
+
+  public <T> T call(Compartment compartment, Supplier<T> operation) {
+    if (!enabled) {
+      return operation.get();
+    }
+    Lane lane = lanes.get(compartment);
+    lane.acquire();
+    try {
+      return operation.get();
+    } finally {
+      lane.permits().release();
+    }
+  }
+
+  public void run(Compartment compartment, Runnable operation) {
+    call(
+        compartment,
+        () -> {
+          operation.run();
+          return null;
+        });
+  }
+
+  private record Lane(
+      Compartment compartment,
+      Semaphore permits,
+      long maxWaitNanos,
+      Timer waitTime,
+      Counter rejected) {
+
+    Lane(Compartment compartment, Permits settings, MeterRegistry meterRegistry) {
+      // fair, so waiters are served in arrival order and none of them waits out max-wait
+      // while later callers get through
+      this(
+          compartment,
+          new Semaphore(settings.maxConcurrent(), true),
+          settings.maxWait().toNanos(),
+          Timer.builder(WAIT_METER_NAME)
+              .description("Time spent waiting for a mongo bulkhead permit")
+              .tag("compartment", compartment.name())
+              .register(meterRegistry),
+          Counter.builder(REJECTED_METER_NAME)
+              .description("Mongo calls rejected for want of a bulkhead permit")
+              .tag("compartment", compartment.name())
+              .register(meterRegistry));
+      Gauge.builder(AVAILABLE_METER_NAME, permits, Semaphore::availablePermits)
+          .description("Free mongo bulkhead permits")
+          .tag("compartment", compartment.name())
+          .register(meterRegistry);
+    }
+
+    void acquire() {
+      long start = System.nanoTime();
+      boolean acquired;
+      try {
+        acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MongoBulkheadFullException(compartment.name());
+      }
+      waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      if (!acquired) {
+        rejected.increment();
+        throw new MongoBulkheadFullException(compartment.name());
+      }
+    }
+  }
+}
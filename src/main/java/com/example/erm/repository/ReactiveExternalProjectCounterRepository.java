@@ -0,0 +1,34 @@
+package com.example.erm.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.example.erm.repository.domain.ExternalProjectCounter;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveExternalProjectCounterRepository {
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public Mono<Void> increment(String userId, long delta) {
+    return mongoTemplate
+        .upsert(
+            ExternalProjectCounterRepository.byId(userId),
+            ExternalProjectCounterRepository.incrementOf(delta),
+            ExternalProjectCounter.class)
+        .then();
+  }
+
+  public Mono<ExternalProjectCounter> findById(String userId) {
+    return mongoTemplate.findById(userId, ExternalProjectCounter.class);
+  }
+
+  public Mono<Long> count(String userId) {
+    return findById(userId).map(ExternalProjectCounter::getCount).defaultIfEmpty(0L);
+  }
+}
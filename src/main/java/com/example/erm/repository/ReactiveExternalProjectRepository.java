@@ -0,0 +1,97 @@
+package com.example.erm.repository;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.erm.command.ExternalProjectListCommand;
+import com.example.erm.command.ExternalProjectScrollCommand;
+import com.example.erm.configuration.ErmConfigurationProperties.Mongo.ReadRouting.ReadOperation;
+import com.example.erm.repository.domain.ExternalProject;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// counterpart of ExternalProjectRepository for the reactive profile, sharing its queries
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveExternalProjectRepository {
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ReadPreferenceRouter readPreferenceRouter;
+
+  public Mono<ExternalProject> insert(ExternalProject externalProject) {
+    return mongoTemplate.insert(externalProject);
+  }
+
+  public Mono<List<ExternalProject>> insertAll(List<ExternalProject> externalProjects) {
+    List<Document> documents =
+        ExternalProjectRepository.toDocuments(mongoTemplate.getConverter(), externalProjects);
+
+    return mongoTemplate
+        .execute(ExternalProject.class, collection -> collection.insertMany(documents))
+        .then(Mono.just(externalProjects));
+  }
+
+  public Mono<Slice<ExternalProject>> list(ExternalProjectListCommand command) {
+    Query query =
+        readPreferenceRouter.route(
+            ReadOperation.EXTERNAL_PROJECT_LIST, ExternalProjectRepository.listQuery(command));
+
+    return mongoTemplate
+        .find(query, ExternalProject.class)
+        .collectList()
+        .map(externalProjects -> Slices.of(externalProjects, command.page()));
+  }
+
+  // see ExternalProjectRepository#listRaw
+  public Mono<Slice<RawBsonDocument>> listRaw(ExternalProjectListCommand command) {
+    ExternalProjectRepository.RawListQuery query =
+        ExternalProjectRepository.rawListQuery(
+            mongoTemplate.getConverter(),
+            readPreferenceRouter.route(
+                ReadOperation.EXTERNAL_PROJECT_LIST, ExternalProjectRepository.listQuery(command)));
+
+    return mongoTemplate
+        .execute(
+            ExternalProject.class,
+            collection ->
+                (query.readPreference() != null
+                        ? collection.withReadPreference(query.readPreference())
+                        : collection)
+                    .find(query.filter(), RawBsonDocument.class)
+                    .projection(ExternalProjectRepository.RAW_LISTING_FIELDS)
+                    .sort(query.sort())
+                    .skip(query.skip())
+                    .limit(query.limit()))
+        .collectList()
+        .map(documents -> Slices.of(documents, command.page()));
+  }
+
+  // documents are requested from the cursor as the subscriber demands them
+  public Flux<ExternalProject> streamByUserId(String userId) {
+    return mongoTemplate.find(
+        readPreferenceRouter.route(
+            ReadOperation.EXTERNAL_PROJECT_EXPORT, ExternalProjectRepository.streamQuery(userId)),
+        ExternalProject.class);
+  }
+
+  public Mono<Slice<ExternalProject>> scroll(ExternalProjectScrollCommand command) {
+    Query query =
+        readPreferenceRouter.route(
+            ReadOperation.EXTERNAL_PROJECT_SCROLL, ExternalProjectRepository.scrollQuery(command));
+
+    return mongoTemplate
+        .find(query, ExternalProject.class)
+        .collectList()
+        .map(externalProjects -> Slices.of(externalProjects, PageRequest.ofSize(command.size())));
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.erm.repository;
+
+import java.time.Instant;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.example.erm.repository.domain.UserDeletion;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// only schedules; deletions are carried out by UserDeletionCascade in either profile
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveUserDeletionRepository {
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public Mono<Void> schedule(String userId, Instant requestedAt) {
+    return mongoTemplate
+        .upsert(
+            UserDeletionRepository.byId(userId),
+            UserDeletionRepository.scheduleOf(requestedAt),
+            UserDeletion.class)
+        .then();
+  }
+}
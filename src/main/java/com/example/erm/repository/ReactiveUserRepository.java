@@ -0,0 +1,73 @@
+package com.example.erm.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.erm.command.UserListCommand;
+import com.example.erm.command.UserUpdateCommand;
+import com.example.erm.configuration.ErmConfigurationProperties.Mongo.ReadRouting.ReadOperation;
+import com.example.erm.repository.domain.User;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// counterpart of UserRepository for the reactive profile, sharing its queries
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final ReadPreferenceRouter readPreferenceRouter;
+
+  public Mono<User> insert(User user) {
+    return mongoTemplate.insert(user);
+  }
+
+  public Mono<User> findById(String id) {
+    Query query = readPreferenceRouter.route(ReadOperation.USER_BY_ID, UserRepository.byId(id));
+
+    return mongoTemplate.findOne(query, User.class);
+  }
+
+  // id, version and updatedAt only
+  public Mono<User> findVersionById(String id) {
+    Query query =
+        readPreferenceRouter.route(ReadOperation.USER_BY_ID, UserRepository.versionQuery(id));
+
+    return mongoTemplate.findOne(query, User.class);
+  }
+
+  public Mono<Boolean> existsById(String id) {
+    return mongoTemplate.exists(UserRepository.byId(id), User.class);
+  }
+
+  public Mono<User> findByEmail(String email) {
+    Query query =
+        readPreferenceRouter.route(ReadOperation.USER_BY_EMAIL, UserRepository.byEmail(email));
+
+    return mongoTemplate.findOne(query, User.class);
+  }
+
+  public Mono<Slice<User>> list(UserListCommand command) {
+    Query query =
+        readPreferenceRouter.route(ReadOperation.USER_LIST, UserRepository.listQuery(command));
+
+    return mongoTemplate
+        .find(query, User.class)
+        .collectList()
+        .map(users -> Slices.of(users, PageRequest.ofSize(command.size())));
+  }
+
+  public Mono<User> deleteById(String id) {
+    return mongoTemplate.findAndRemove(UserRepository.byId(id), User.class);
+  }
+
+  public Mono<User> update(UserUpdateCommand command) {
+    return mongoTemplate.findAndModify(
+        UserRepository.updateQuery(command), UserRepository.updateOf(command), User.class);
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.erm.repository;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.configuration.ErmConfigurationProperties.Mongo.ReadRouting.ReadOperation;
+import com.example.erm.configuration.ErmConfigurationProperties.Mongo.ReadRouting.Route;
+import com.mongodb.ReadPreference;
+
+// applies the configured read preference per operation; unrouted reads keep the client's default,
+// the primary
+@Component
+public class ReadPreferenceRouter {
+  private final Map<ReadOperation, ReadPreference> readPreferences =
+      new EnumMap<>(ReadOperation.class);
+
+  public ReadPreferenceRouter(ErmConfigurationProperties ermConfigurationProperties) {
+    ermConfigurationProperties
+        .mongo()
+        .readRouting()
+        .operations()
+        .forEach((operation, route) -> readPreferences.put(operation, readPreferenceOf(route)));
+  }
+
+  public Query route(ReadOperation operation, Query query) {
+    ReadPreference readPreference = readPreferences.get(operation);
+
+    return readPreference != null ? query.withReadPreference(readPreference) : query;
+  }
+
+  static ReadPreference readPreferenceOf(Route route) {
+    String name =
+        switch (route.mode()) {
+          case PRIMARY -> "primary";
+          case PRIMARY_PREFERRED -> "primaryPreferred";
+          case SECONDARY -> "secondary";
+          case SECONDARY_PREFERRED -> "secondaryPreferred";
+          case NEAREST -> "nearest";
+        };
+    if (route.maxStaleness() == null) {
+      return ReadPreference.valueOf(name);
+    }
+
+    return ReadPreference.valueOf(
+        name, List.of(), route.maxStaleness().toSeconds(), TimeUnit.SECONDS);
+  }
+}
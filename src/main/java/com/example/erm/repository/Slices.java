@@ -0,0 +1,24 @@
+package com.example.erm.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+class Slices {
+
+  // content is expected to be fetched with one document more than the page size
+  <T> Slice<T> of(List<T> content, Pageable page) {
+    if (page.isUnpaged()) {
+      return new SliceImpl<>(content, page, false);
+    }
+    boolean hasNext = content.size() > page.getPageSize();
+
+    return new SliceImpl<>(
+        hasNext ? content.subList(0, page.getPageSize()) : content, page, hasNext);
+  }
+}
@@ -0,0 +1,163 @@
+package com.example.erm.repository;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.context.event.EventListener;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.event.UserChangedEvent;
+import com.example.erm.repository.domain.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Users by id and by email. Changes of this node evict through {@link UserChangedEvent}, changes
+ * of other nodes through the remote ones {@link UserChangeStreamListener} publishes. While the
+ * change stream is down an entry is only served for the fallback ttl after it was loaded, as
+ * evictions may be missing.
+ */
+public class UserCache implements MeterBinder {
+
+  static final String CHANGE_STREAM_METER_NAME = "erm.user.cache.change.stream.connected";
+
+  private final boolean enabled;
+  private final long fallbackTtlNanos;
+  private final Ticker ticker;
+  private final Cache<String, CachedUser> usersById;
+  private final Cache<String, CachedUser> usersByEmail;
+  // the emails each cached user is held under, so evicting by id touches only their keys; twice
+  // the size, as a user may be cached by id and by email
+  private final Cache<String, Set<String>> emailsById;
+  // bumped before every eviction; a load overlapping one is not kept, it may predate the change
+  private final AtomicLong evictions = new AtomicLong();
+
+  private volatile boolean changeStreamConnected;
+
+  public UserCache(ErmConfigurationProperties.UserCache settings, Ticker ticker) {
+    this.enabled = settings.enabled();
+    this.fallbackTtlNanos = settings.fallbackTtl().toNanos();
+    this.ticker = ticker;
+    this.usersById = newCache(settings.maximumSize(), settings, ticker);
+    this.usersByEmail = newCache(settings.maximumSize(), settings, ticker);
+    this.emailsById = newCache(2 * settings.maximumSize(), settings, ticker);
+  }
+
+  public Optional<User> findById(String id, Supplier<Optional<User>> load) {
+    return find(usersById, id, load);
+  }
+
+  public Optional<User> findByEmail(String email, Supplier<Optional<User>> load) {
+    return find(usersByEmail, email, load);
+  }
+
+  public void evict(String userId) {
+    evictions.incrementAndGet();
+    usersById.invalidate(userId);
+    Set<String> emails = emailsById.asMap().remove(userId);
+    if (emails != null) {
+      usersByEmail.invalidateAll(emails);
+    }
+  }
+
+  // the emails a user was cached under, for changes that do not tell the previous one
+  public Set<String> cachedEmails(String userId) {
+    return Objects.requireNonNullElse(emailsById.getIfPresent(userId), Set.of());
+  }
+
+  public void evictAll() {
+    evictions.incrementAndGet();
+    usersById.invalidateAll();
+    usersByEmail.invalidateAll();
+    emailsById.invalidateAll();
+  }
+
+  // a stream that did not resume may have missed changes, so nothing cached before is trusted
+  public void changeStreamConnected(boolean resumed) {
+    if (!resumed) {
+      evictAll();
+    }
+    changeStreamConnected = true;
+  }
+
+  public void changeStreamDisconnected() {
+    changeStreamConnected = false;
+  }
+
+  @EventListener
+  public void onUserChanged(UserChangedEvent event) {
+    evict(event.userId());
+    usersByEmail.invalidateAll(event.emails());
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, usersById, "users-by-id");
+    CaffeineCacheMetrics.monitor(registry, usersByEmail, "users-by-email");
+    Gauge.builder(CHANGE_STREAM_METER_NAME, this, cache -> cache.changeStreamConnected ? 1 : 0)
+        .description("Whether changes of other nodes currently evict cached users")
+        .register(registry);
+  }
+
+  private Optional<User> find(
+      Cache<String, CachedUser> cache, String key, Supplier<Optional<User>> load) {
+    if (!enabled) {
+      return load.get();
+    }
+    CachedUser cached = cache.getIfPresent(key);
+    if (cached != null
+        && (changeStreamConnected || ticker.read() - cached.loadedAt() < fallbackTtlNanos)) {
+      return Optional.of(copyOf(cached.user()));
+    }
+
+    long evictionsBeforeLoad = evictions.get();
+    Optional<User> user = load.get();
+    user.ifPresent(
+        loaded -> {
+          emailsById
+              .asMap()
+              .merge(loaded.getId(), Set.of(loaded.getEmail()), UserCache::union);
+          cache.put(key, new CachedUser(copyOf(loaded), ticker.read()));
+          if (evictions.get() != evictionsBeforeLoad) {
+            cache.invalidate(key);
+          }
+        });
+
+    return user;
+  }
+
+  private static Set<String> union(Set<String> emails, Set<String> more) {
+    return Stream.concat(emails.stream(), more.stream()).collect(Collectors.toUnmodifiableSet());
+  }
+
+  // callers get their own instance, so setting a field does not change the cached user
+  private static User copyOf(User user) {
+    return user.toBuilder()
+        .roles(user.getRoles() == null ? null : new ArrayList<>(user.getRoles()))
+        .build();
+  }
+
+  private static <V> Cache<String, V> newCache(
+      long maximumSize, ErmConfigurationProperties.UserCache settings, Ticker ticker) {
+    return Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(settings.ttl())
+        .ticker(ticker)
+        .recordStats()
+        .build();
+  }
+
+  private record CachedUser(User user, long loadedAt) {}
+}
@@ -0,0 +1,193 @@
+package com.example.erm.repository;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.erm.event.UserChangedEvent;
+import com.example.erm.repository.domain.User;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Evicts users changed by any node from the caches of this one, by publishing a remote {@link
+ * UserChangedEvent} with the email before and after the change, so caches keyed by email are
+ * evicted too. Change events do not carry the previous email, it is the one the {@link UserCache}
+ * holds for the user. The stream is resumed after the last seen event when it fails, so
+ * changes made in between are still evicted; if the oplog no longer holds that point, the whole
+ * user cache is dropped instead.
+ */
+@Slf4j
+public class UserChangeStreamListener implements SmartLifecycle {
+
+  // the server's error once the resume token has fallen off the oplog
+  private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+  // how long an idle getMore waits for events, and so how long stopping may take
+  private static final long MAX_AWAIT_MILLIS = 1000;
+
+  // only which user changed and its emails are needed, not how
+  private static final List<Bson> PIPELINE =
+      List.of(
+          Aggregates.project(
+              Projections.include(
+                  "operationType",
+                  "documentKey",
+                  "fullDocument." + User.Fields.email,
+                  "updateDescription.updatedFields." + User.Fields.email)));
+
+  private final MongoTemplate mongoTemplate;
+  private final UserCache userCache;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Duration reconnectDelay;
+
+  private volatile boolean running;
+  private Thread listener;
+  // only touched by the listener thread
+  private BsonDocument resumeToken;
+
+  public UserChangeStreamListener(
+      MongoTemplate mongoTemplate,
+      UserCache userCache,
+      ApplicationEventPublisher eventPublisher,
+      Duration reconnectDelay) {
+    this.mongoTemplate = mongoTemplate;
+    this.userCache = userCache;
+    this.eventPublisher = eventPublisher;
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    listener = Thread.ofPlatform().name("user-change-stream").daemon().start(this::run);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (listener == null) {
+      return;
+    }
+    try {
+      listener.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    while (running) {
+      try {
+        listen();
+      } catch (RuntimeException e) {
+        userCache.changeStreamDisconnected();
+        if (e instanceof MongoCommandException commandException
+            && commandException.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+          resumeToken = null;
+        }
+        log.warn(
+            "User change stream failed, reconnecting in {}. {}", reconnectDelay, e.getMessage());
+        pause();
+      }
+    }
+    userCache.changeStreamDisconnected();
+  }
+
+  private void listen() {
+    ChangeStreamIterable<Document> changes =
+        mongoTemplate
+            .getCollection(User.COLLECTION)
+            .watch(PIPELINE)
+            .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+    boolean resumed = resumeToken != null;
+    try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor =
+        (resumed ? changes.resumeAfter(resumeToken) : changes).cursor()) {
+      userCache.changeStreamConnected(resumed);
+      log.info("Listening to user changes{}", resumed ? ", resumed" : "");
+      while (running) {
+        ChangeStreamDocument<Document> change = cursor.tryNext();
+        if (change != null && !apply(change)) {
+          return;
+        }
+        // also advances while the collection is idle
+        if (cursor.getResumeToken() != null) {
+          resumeToken = cursor.getResumeToken();
+        }
+      }
+    }
+  }
+
+  // false once the stream has ended, after a drop or rename of the collection
+  private boolean apply(ChangeStreamDocument<Document> change) {
+    switch (change.getOperationType()) {
+      case INSERT, UPDATE, REPLACE, DELETE -> publish(change);
+      case INVALIDATE -> {
+        userCache.changeStreamDisconnected();
+        resumeToken = null;
+        return false;
+      }
+      default -> userCache.evictAll();
+    }
+
+    return true;
+  }
+
+  private void publish(ChangeStreamDocument<Document> change) {
+    String userId = userIdOf(change.getDocumentKey());
+    Set<String> emails = new HashSet<>(userCache.cachedEmails(userId));
+    emails.add(newEmailOf(change));
+
+    eventPublisher.publishEvent(UserChangedEvent.remote(userId, emails.toArray(String[]::new)));
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(reconnectDelay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+
+  // inserts and replacements carry the document, updates only the fields they set
+  private static String newEmailOf(ChangeStreamDocument<Document> change) {
+    if (change.getFullDocument() != null) {
+      return change.getFullDocument().getString(User.Fields.email);
+    }
+    UpdateDescription update = change.getUpdateDescription();
+    if (update == null || update.getUpdatedFields() == null) {
+      return null;
+    }
+    BsonValue email = update.getUpdatedFields().get(User.Fields.email);
+
+    return email != null && email.isString() ? email.asString().getValue() : null;
+  }
+
+  private static String userIdOf(BsonDocument documentKey) {
+    BsonValue id = documentKey.get("_id");
+
+    return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+  }
+}
@@ -0,0 +1,100 @@
+package com.example.erm.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import com.example.erm.repository.domain.UserDeletion;
+
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@RequiredArgsConstructor
+public class UserDeletionRepository {
+  private final MongoTemplate mongoTemplate;
+
+  public void schedule(String userId, Instant requestedAt) {
+    mongoTemplate.upsert(byId(userId), scheduleOf(requestedAt), UserDeletion.class);
+  }
+
+  // takes the oldest deletion nobody holds a valid lease on
+  public Optional<UserDeletion> claim(String owner, Instant now, Instant leaseUntil) {
+    Query query =
+        Query.query(
+                new Criteria()
+                    .orOperator(
+                        Criteria.where(UserDeletion.Fields.leaseUntil).is(null),
+                        Criteria.where(UserDeletion.Fields.leaseUntil).lt(now)))
+            .with(Sort.by(Sort.Direction.ASC, UserDeletion.Fields.requestedAt));
+    Update update =
+        new Update()
+            .set(UserDeletion.Fields.leaseOwner, owner)
+            .set(UserDeletion.Fields.leaseUntil, leaseUntil);
+
+    return Optional.ofNullable(
+        mongoTemplate.findAndModify(
+            query, update, FindAndModifyOptions.options().returnNew(true), UserDeletion.class));
+  }
+
+  // returns false if the lease has been lost to another worker
+  public boolean recordProgress(
+      String userId, String owner, long deletedProjects, Instant leaseUntil) {
+    Update update =
+        new Update()
+            .inc(UserDeletion.Fields.deletedProjects, deletedProjects)
+            .set(UserDeletion.Fields.leaseUntil, leaseUntil);
+
+    return mongoTemplate
+            .updateFirst(byIdAndOwner(userId, owner), update, UserDeletion.class)
+            .getModifiedCount()
+        > 0;
+  }
+
+  public void complete(String userId, String owner) {
+    mongoTemplate.remove(byIdAndOwner(userId, owner), UserDeletion.class);
+  }
+
+  public boolean isPending(String userId) {
+    return mongoTemplate.exists(byId(userId), UserDeletion.class);
+  }
+
+  // drops a deletion whose user was never deleted, unless it has been requested again since
+  public boolean abandon(String userId, String owner, Instant lastRequestedAt) {
+    Query query =
+        byIdAndOwner(userId, owner)
+            .addCriteria(Criteria.where(UserDeletion.Fields.lastRequestedAt).is(lastRequestedAt));
+
+    return mongoTemplate.remove(query, UserDeletion.class).getDeletedCount() > 0;
+  }
+
+  public long countPending() {
+    return mongoTemplate.count(new Query(), UserDeletion.class);
+  }
+
+  static Query byId(String userId) {
+    return Query.query(Criteria.where(UserDeletion.Fields.id).is(userId));
+  }
+
+  // a deletion requested again keeps its place in the queue and its progress
+  static Update scheduleOf(Instant requestedAt) {
+    return new Update()
+        .setOnInsert(UserDeletion.Fields.requestedAt, requestedAt)
+        .setOnInsert(UserDeletion.Fields.deletedProjects, 0L)
+        .set(UserDeletion.Fields.lastRequestedAt, requestedAt);
+  }
+
+  private static Query byIdAndOwner(String userId, String owner) {
+    return Query.query(
+        Criteria.where(UserDeletion.Fields.id)
+            .is(userId)
+            .and(UserDeletion.Fields.leaseOwner)
+            .is(owner));
+  }
+}
@@ -1,16 +1,26 @@
 package com.example.erm.repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import com.example.erm.command.UserListCommand;
 import com.example.erm.command.UserUpdateCommand;
+import com.example.erm.configuration.ErmConfigurationProperties.Mongo.ReadRouting.ReadOperation;
+import com.example.erm.repository.MongoBulkhead.Compartment;
 import com.example.erm.repository.domain.User;
-import com.mongodb.client.result.DeleteResult;
+import com.mongodb.bulk.BulkWriteError;
 
 import lombok.RequiredArgsConstructor;
 
@@ -18,34 +28,144 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class UserRepository {
   private final MongoTemplate mongoTemplate;
+  private final ReadPreferenceRouter readPreferenceRouter;
+  private final MongoBulkhead mongoBulkhead;
+  private final UserCache userCache;
 
   public User insert(User user) {
-    return mongoTemplate.insert(user);
+    return mongoBulkhead.call(Compartment.WRITE, () -> mongoTemplate.insert(user));
+  }
+
+  // unordered, so a failing document does not stop the remaining ones; returns the write errors
+  public List<BulkWriteError> insertAll(List<User> users) {
+    return mongoBulkhead.call(
+        Compartment.WRITE,
+        () -> {
+          try {
+            mongoTemplate
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)
+                .insert(users)
+                .execute();
+
+            return List.of();
+          } catch (BulkOperationException e) {
+            return e.getErrors();
+          }
+        });
   }
 
   public Optional<User> findById(String id) {
-    return Optional.ofNullable(mongoTemplate.findById(id, User.class));
+    Query query = readPreferenceRouter.route(ReadOperation.USER_BY_ID, byId(id));
+
+    return userCache.findById(
+        id,
+        () ->
+            Optional.ofNullable(
+                mongoBulkhead.call(
+                    Compartment.READ, () -> mongoTemplate.findOne(query, User.class))));
   }
 
-  public Optional<User> findByEmail(String email) {
+  public boolean existsById(String id) {
+    return mongoBulkhead.call(
+        Compartment.READ, () -> mongoTemplate.exists(byId(id), User.class));
+  }
+
+  // only what entity tags are built from
+  public Optional<User> findVersionById(String id) {
+    Query query = readPreferenceRouter.route(ReadOperation.USER_BY_ID, versionQuery(id));
+
     return Optional.ofNullable(
-        mongoTemplate.findOne(
-            Query.query(Criteria.where(User.Fields.email).is(email)), User.class));
+        mongoBulkhead.call(Compartment.READ, () -> mongoTemplate.findOne(query, User.class)));
   }
 
-  public DeleteResult deleteById(String id) {
-    return mongoTemplate.remove(Query.query(Criteria.where(User.Fields.id).is(id)), User.class);
+  // what authentication looks users up by, so it has the auth compartment
+  public Optional<User> findByEmail(String email) {
+    Query query = readPreferenceRouter.route(ReadOperation.USER_BY_EMAIL, byEmail(email));
+
+    return userCache.findByEmail(
+        email,
+        () ->
+            Optional.ofNullable(
+                mongoBulkhead.call(
+                    Compartment.AUTH, () -> mongoTemplate.findOne(query, User.class))));
+  }
+
+  public Slice<User> list(UserListCommand command) {
+    Query query = readPreferenceRouter.route(ReadOperation.USER_LIST, listQuery(command));
+
+    return Slices.of(
+        mongoBulkhead.call(Compartment.READ, () -> mongoTemplate.find(query, User.class)),
+        PageRequest.ofSize(command.size()));
+  }
+
+  public Optional<User> deleteById(String id) {
+    return Optional.ofNullable(
+        mongoBulkhead.call(
+            Compartment.WRITE, () -> mongoTemplate.findAndRemove(byId(id), User.class)));
   }
 
   public User update(UserUpdateCommand command) {
-    Query query = Query.query(Criteria.where(User.Fields.id).is(command.id()));
-    Update update =
-        new Update()
-            .set(User.Fields.email, command.email())
-            .set(User.Fields.password, command.password())
-            .set(User.Fields.name, command.name())
-            .set(User.Fields.roles, command.roles());
-
-    return mongoTemplate.findAndModify(query, update, User.class);
+    return mongoBulkhead.call(
+        Compartment.WRITE,
+        () -> mongoTemplate.findAndModify(updateQuery(command), updateOf(command), User.class));
+  }
+
+  static Query byId(String id) {
+    return Query.query(Criteria.where(User.Fields.id).is(id));
+  }
+
+  static Query versionQuery(String id) {
+    Query query = byId(id);
+    query.fields().include(User.Fields.id, User.Fields.version, User.Fields.updatedAt);
+
+    return query;
+  }
+
+  static Query updateQuery(UserUpdateCommand command) {
+    if (command.expectedVersion() == null) {
+      return byId(command.id());
+    }
+    Criteria criteria = Criteria.where(User.Fields.id).is(command.id()).and(User.Fields.version);
+
+    // users stored before versioning count as version 0
+    return Query.query(
+        command.expectedVersion() == 0
+            ? criteria.in(0L, null)
+            : criteria.is(command.expectedVersion()));
+  }
+
+  static Query byEmail(String email) {
+    return Query.query(Criteria.where(User.Fields.email).is(email));
+  }
+
+  static Query listQuery(UserListCommand command) {
+    Criteria criteria = new Criteria();
+    if (command.role() != null) {
+      criteria.and(User.Fields.roles).is(command.role());
+    }
+    if (command.emailPrefix() != null) {
+      // anchored and case sensitive, so it turns into index bounds on email_1
+      criteria.and(User.Fields.email).regex("^" + Pattern.quote(command.emailPrefix()));
+    }
+    if (command.afterId() != null) {
+      criteria.and(User.Fields.id).gt(command.afterId());
+    }
+    Query query =
+        Query.query(criteria)
+            .with(Sort.by(Sort.Direction.ASC, User.Fields.id))
+            .limit(command.size() + 1);
+    query.fields().exclude(User.Fields.password);
+
+    return query;
+  }
+
+  static Update updateOf(UserUpdateCommand command) {
+    return new Update()
+        .set(User.Fields.email, command.email())
+        .set(User.Fields.password, command.password())
+        .set(User.Fields.name, command.name())
+        .set(User.Fields.roles, command.roles())
+        .inc(User.Fields.version, 1)
+        .currentDate(User.Fields.updatedAt);
   }
 }
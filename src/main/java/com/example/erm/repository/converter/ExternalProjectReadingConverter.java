@@ -0,0 +1,26 @@
+package com.example.erm.repository.converter;
+
+import static com.example.erm.repository.converter.MongoDocumentValues.readId;
+import static com.example.erm.repository.converter.MongoDocumentValues.readInstant;
+
+import java.util.Date;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+import com.example.erm.repository.domain.ExternalProject;
+
+@ReadingConverter
+public class ExternalProjectReadingConverter implements Converter<Document, ExternalProject> {
+
+  @Override
+  public ExternalProject convert(Document document) {
+    return new ExternalProject(
+        readId(document.get(MongoDocumentValues.ID)),
+        document.getString(ExternalProject.Fields.userId),
+        document.getString(ExternalProject.Fields.name),
+        readInstant(document.get(ExternalProject.Fields.createdAt, Date.class)),
+        readInstant(document.get(ExternalProject.Fields.updatedAt, Date.class)));
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.erm.repository.converter;
+
+import static com.example.erm.repository.converter.MongoDocumentValues.writeId;
+import static com.example.erm.repository.converter.MongoDocumentValues.writeInstant;
+import static com.example.erm.repository.converter.UserWritingConverter.putIfSet;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+import com.example.erm.repository.domain.ExternalProject;
+
+@WritingConverter
+public class ExternalProjectWritingConverter implements Converter<ExternalProject, Document> {
+
+  @Override
+  public Document convert(ExternalProject externalProject) {
+    Document document = new Document(MongoDocumentValues.TYPE, ExternalProject.class.getName());
+    putIfSet(
+        document,
+        MongoDocumentValues.ID,
+        externalProject.getId() != null ? writeId(externalProject.getId()) : null);
+    putIfSet(document, ExternalProject.Fields.userId, externalProject.getUserId());
+    putIfSet(document, ExternalProject.Fields.name, externalProject.getName());
+    putIfSet(
+        document, ExternalProject.Fields.createdAt, writeInstant(externalProject.getCreatedAt()));
+    putIfSet(
+        document, ExternalProject.Fields.updatedAt, writeInstant(externalProject.getUpdatedAt()));
+
+    return document;
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.erm.repository.converter;
+
+import java.time.Instant;
+import java.util.Date;
+
+import org.bson.types.ObjectId;
+
+import lombok.experimental.UtilityClass;
+
+// stored representations as written by MappingMongoConverter
+@UtilityClass
+class MongoDocumentValues {
+
+  static final String ID = "_id";
+  static final String TYPE = "_class";
+
+  // string ids holding an object id are stored as one
+  static Object writeId(String id) {
+    return ObjectId.isValid(id) ? new ObjectId(id) : id;
+  }
+
+  static String readId(Object id) {
+    return id instanceof ObjectId objectId ? objectId.toHexString() : (String) id;
+  }
+
+  static Date writeInstant(Instant instant) {
+    return instant != null ? Date.from(instant) : null;
+  }
+
+  static Instant readInstant(Date date) {
+    return date != null ? date.toInstant() : null;
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.erm.repository.converter;
+
+import static com.example.erm.repository.converter.MongoDocumentValues.readId;
+import static com.example.erm.repository.converter.MongoDocumentValues.readInstant;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+import com.example.erm.repository.domain.User;
+
+// also reads projections; fields left out keep the defaults of the no-args constructor
+@ReadingConverter
+public class UserReadingConverter implements Converter<Document, User> {
+
+  @Override
+  public User convert(Document document) {
+    User user = new User();
+    user.setId(readId(document.get(MongoDocumentValues.ID)));
+    user.setEmail(document.getString(User.Fields.email));
+    user.setPassword(document.getString(User.Fields.password));
+    user.setName(document.getString(User.Fields.name));
+    if (document.get(User.Fields.roles) instanceof List<?> roles) {
+      user.setRoles(new ArrayList<>(roles.stream().map(String.class::cast).toList()));
+    }
+    user.setCreatedAt(readInstant(document.get(User.Fields.createdAt, Date.class)));
+    user.setUpdatedAt(readInstant(document.get(User.Fields.updatedAt, Date.class)));
+    // $inc on a missing field stores an int
+    if (document.get(User.Fields.version) instanceof Number version) {
+      user.setVersion(version.longValue());
+    }
+
+    return user;
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.erm.repository.converter;
+
+import static com.example.erm.repository.converter.MongoDocumentValues.writeId;
+import static com.example.erm.repository.converter.MongoDocumentValues.writeInstant;
+
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+import com.example.erm.repository.domain.User;
+
+// same fields in the same order as the reflective mapping, unset ones left out
+@WritingConverter
+public class UserWritingConverter implements Converter<User, Document> {
+
+  @Override
+  public Document convert(User user) {
+    Document document = new Document(MongoDocumentValues.TYPE, User.class.getName());
+    putIfSet(document, MongoDocumentValues.ID, user.getId() != null ? writeId(user.getId()) : null);
+    putIfSet(document, User.Fields.email, user.getEmail());
+    putIfSet(document, User.Fields.password, user.getPassword());
+    putIfSet(document, User.Fields.name, user.getName());
+    putIfSet(document, User.Fields.roles, user.getRoles());
+    putIfSet(document, User.Fields.createdAt, writeInstant(user.getCreatedAt()));
+    putIfSet(document, User.Fields.updatedAt, writeInstant(user.getUpdatedAt()));
+    putIfSet(document, User.Fields.version, user.getVersion());
+
+    return document;
+  }
+
+  static void putIfSet(Document document, String key, Object value) {
+    if (value != null) {
+      document.put(key, value);
+    }
+  }
+}
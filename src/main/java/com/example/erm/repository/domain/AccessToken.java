@@ -0,0 +1,30 @@
+package com.example.erm.repository.domain;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldNameConstants;
+
+@Document(collection = AccessToken.COLLECTION)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@FieldNameConstants
+public class AccessToken {
+
+  public static final String COLLECTION = "access_token";
+
+  // hash of the token value; the token itself is never stored
+  @Id private String id;
+
+  private String email;
+
+  private Instant expiresAt;
+}
@@ -0,0 +1,30 @@
+package com.example.erm.repository.domain;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldNameConstants;
+
+@Document(collection = ExternalProjectCounter.COLLECTION)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@FieldNameConstants
+public class ExternalProjectCounter {
+
+  public static final String COLLECTION = "external_project_counter";
+
+  // id of the user owning the counted projects
+  @Id private String id;
+
+  private long count;
+
+  private Instant updatedAt;
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -35,4 +36,7 @@ public class User {
   @CreatedDate private Instant createdAt;
 
   @LastModifiedDate private Instant updatedAt;
+
+  // incremented by every update; missing on users stored before it was introduced
+  @Version private Long version;
 }
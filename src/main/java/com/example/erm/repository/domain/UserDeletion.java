@@ -0,0 +1,38 @@
+package com.example.erm.repository.domain;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldNameConstants;
+
+// pending removal of the data of a deleted user; removed once the cascade has finished
+@Document(collection = UserDeletion.COLLECTION)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@FieldNameConstants
+public class UserDeletion {
+
+  public static final String COLLECTION = "user_deletion";
+
+  // id of the deleted user
+  @Id private String id;
+
+  private Instant requestedAt;
+
+  // set by every request of the deletion, unlike requestedAt
+  private Instant lastRequestedAt;
+
+  private long deletedProjects;
+
+  private String leaseOwner;
+
+  private Instant leaseUntil;
+}
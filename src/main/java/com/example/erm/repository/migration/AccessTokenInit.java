@@ -0,0 +1,52 @@
+package com.example.erm.repository.migration;
+
+import java.time.Duration;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.repository.domain.AccessToken;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+import lombok.RequiredArgsConstructor;
+
+// only the mongo token store needs the collection; runs on every start, so it is still created
+// when the store is switched to mongo later
+@ChangeUnit(id = "access-token-init", order = "001", runAlways = true)
+@RequiredArgsConstructor
+public class AccessTokenInit {
+
+  private final ErmConfigurationProperties ermConfigurationProperties;
+
+  @Execution
+  public void execution(MongoTemplate mongoTemplate) {
+    if (ermConfigurationProperties.security().accessToken().store()
+        != ErmConfigurationProperties.Security.AccessToken.Store.MONGO) {
+      return;
+    }
+    if (!mongoTemplate.collectionExists(AccessToken.class)) {
+      mongoTemplate.createCollection(AccessToken.class);
+    }
+
+    mongoTemplate
+        .indexOps(AccessToken.class)
+        .ensureIndex(
+            new Index()
+                .named("expiresAt_1")
+                .on(AccessToken.Fields.expiresAt, Sort.Direction.ASC)
+                .expire(Duration.ZERO));
+
+    mongoTemplate
+        .indexOps(AccessToken.class)
+        .ensureIndex(
+            new Index().named("email_1").on(AccessToken.Fields.email, Sort.Direction.ASC));
+  }
+
+  // the execution is idempotent; dropping the collection would sign out every user
+  @RollbackExecution
+  public void rollbackExecution(MongoTemplate mongoTemplate) {}
+}
@@ -0,0 +1,62 @@
+package com.example.erm.repository.migration;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import java.util.Date;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.example.erm.repository.domain.ExternalProject;
+import com.example.erm.repository.domain.ExternalProjectCounter;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+
+// backfills the per-user counters from the existing projects
+@ChangeUnit(id = "external-project-counter-init", order = "003")
+public class ExternalProjectCounterInit {
+
+  private static final int BATCH_SIZE = 1000;
+
+  @Execution
+  public void execution(MongoTemplate mongoTemplate) {
+    mongoTemplate.createCollection(ExternalProjectCounter.class);
+
+    Date now = new Date();
+    BulkOperations bulkOperations =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ExternalProjectCounter.class);
+    int pending = 0;
+    for (Document counted :
+        mongoTemplate.aggregate(
+            newAggregation(group(ExternalProject.Fields.userId).count().as("count")),
+            ExternalProject.class,
+            Document.class)) {
+      bulkOperations.upsert(
+          Query.query(Criteria.where(ExternalProjectCounter.Fields.id).is(counted.get("_id"))),
+          new Update()
+              .set(ExternalProjectCounter.Fields.count, counted.get("count"))
+              .set(ExternalProjectCounter.Fields.updatedAt, now));
+      if (++pending == BATCH_SIZE) {
+        bulkOperations.execute();
+        bulkOperations =
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ExternalProjectCounter.class);
+        pending = 0;
+      }
+    }
+    if (pending > 0) {
+      bulkOperations.execute();
+    }
+  }
+
+  @RollbackExecution
+  public void rollbackExecution(MongoTemplate mongoTemplate) {
+    mongoTemplate.dropCollection(ExternalProjectCounter.class);
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.erm.repository.migration;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+import com.example.erm.repository.domain.ExternalProject;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+
+// extends userId_1_createdAt_1 with _id, so that keyset pagination on (createdAt, _id) is fully
+// served by the index; the old index is a prefix of the new one and therefore dropped
+@ChangeUnit(id = "external-project-keyset-index", order = "002")
+public class ExternalProjectKeysetIndex {
+
+  private static final String PREVIOUS_INDEX = "userId_1_createdAt_1";
+
+  @Execution
+  public void execution(MongoTemplate mongoTemplate) {
+    mongoTemplate
+        .indexOps(ExternalProject.class)
+        .ensureIndex(
+            new Index()
+                .named("userId_1_createdAt_1__id_1")
+                .on(ExternalProject.Fields.userId, Sort.Direction.ASC)
+                .on(ExternalProject.Fields.createdAt, Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC));
+
+    mongoTemplate.indexOps(ExternalProject.class).dropIndex(PREVIOUS_INDEX);
+  }
+
+  @RollbackExecution
+  public void rollbackExecution(MongoTemplate mongoTemplate) {
+    mongoTemplate
+        .indexOps(ExternalProject.class)
+        .ensureIndex(
+            new Index()
+                .named(PREVIOUS_INDEX)
+                .on(ExternalProject.Fields.userId, Sort.Direction.ASC)
+                .on(ExternalProject.Fields.createdAt, Sort.Direction.ASC));
+
+    mongoTemplate.indexOps(ExternalProject.class).dropIndex("userId_1_createdAt_1__id_1");
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.erm.repository.migration;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+import com.example.erm.repository.domain.UserDeletion;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+
+@ChangeUnit(id = "user-deletion-init", order = "005")
+public class UserDeletionInit {
+
+  @Execution
+  public void execution(MongoTemplate mongoTemplate) {
+    mongoTemplate.createCollection(UserDeletion.class);
+
+    mongoTemplate
+        .indexOps(UserDeletion.class)
+        .ensureIndex(
+            new Index()
+                .named("requestedAt_1")
+                .on(UserDeletion.Fields.requestedAt, Sort.Direction.ASC));
+  }
+
+  @RollbackExecution
+  public void rollbackExecution(MongoTemplate mongoTemplate) {
+    mongoTemplate.dropCollection(UserDeletion.class);
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.erm.repository.migration;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+import com.example.erm.repository.domain.User;
+
+import io.mongock.api.annotations.ChangeUnit;
+import io.mongock.api.annotations.Execution;
+import io.mongock.api.annotations.RollbackExecution;
+
+// role filtering with keyset pagination on _id; email prefix filtering is served by email_1
+@ChangeUnit(id = "user-listing-indexes", order = "004")
+public class UserListingIndexes {
+
+  private static final String ROLES_INDEX = "roles_1__id_1";
+
+  @Execution
+  public void execution(MongoTemplate mongoTemplate) {
+    mongoTemplate
+        .indexOps(User.class)
+        .ensureIndex(
+            new Index()
+                .named(ROLES_INDEX)
+                .on(User.Fields.roles, Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC));
+  }
+
+  @RollbackExecution
+  public void rollbackExecution(MongoTemplate mongoTemplate) {
+    mongoTemplate.indexOps(User.class).dropIndex(ROLES_INDEX);
+  }
+}
@@ -0,0 +1,85 @@
+package com.example.erm.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.example.erm.event.UserChangedEvent;
+import com.example.erm.repository.AccessTokenStore;
+import com.example.erm.repository.domain.AccessToken;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RequiredArgsConstructor
+@Slf4j
+public class AccessTokenService {
+
+  private static final int TOKEN_BYTES = 32;
+
+  private final SecureRandom secureRandom = new SecureRandom();
+
+  private final AccessTokenStore accessTokenStore;
+  private final Duration ttl;
+  private final Clock clock;
+
+  public IssuedAccessToken issue(String email) {
+    byte[] tokenBytes = new byte[TOKEN_BYTES];
+    secureRandom.nextBytes(tokenBytes);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+    accessTokenStore.save(
+        AccessToken.builder()
+            .id(hash(token))
+            .email(email)
+            .expiresAt(clock.instant().plus(ttl))
+            .build());
+    log.debug("Issued access token for user {}", email);
+
+    return new IssuedAccessToken(token, ttl);
+  }
+
+  public Optional<AccessToken> resolve(String token) {
+    Instant now = clock.instant();
+
+    return accessTokenStore
+        .findById(hash(token))
+        .filter(accessToken -> accessToken.getExpiresAt().isAfter(now));
+  }
+
+  @EventListener
+  public void onUserChanged(UserChangedEvent event) {
+    // the store is shared, the node making the change has already deleted them
+    if (event.remote()) {
+      return;
+    }
+    accessTokenStore.deleteByEmails(event.emails());
+  }
+
+  @Scheduled(fixedDelayString = "${erm.security.access-token.sweep-interval:1m}")
+  public void deleteExpired() {
+    accessTokenStore.deleteExpired(clock.instant());
+  }
+
+  private static String hash(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+      return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Unable to hash access token", e);
+    }
+  }
+
+  public record IssuedAccessToken(String value, Duration expiresIn) {}
+}
@@ -0,0 +1,101 @@
+package com.example.erm.security;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.erm.exception.MongoBulkheadFullException;
+import com.example.erm.repository.domain.AccessToken;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class BearerTokenAuthenticationFilter extends OncePerRequestFilter {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  // tokens are only issued for http basic credentials, never exchanged for a new token
+  private static final RequestMatcher TOKEN_ENDPOINT =
+      AntPathRequestMatcher.antMatcher(HttpMethod.POST, "/api/auth/token");
+
+  private final SecurityContextHolderStrategy securityContextHolderStrategy =
+      SecurityContextHolder.getContextHolderStrategy();
+
+  private final AccessTokenService accessTokenService;
+  private final UserDetailsService userDetailsService;
+  private final AuthenticationEntryPoint authenticationEntryPoint;
+  private final SecurityContextRepository securityContextRepository;
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return TOKEN_ENDPOINT.matches(request);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+    if (authorization == null
+        || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    Optional<UserDetails> userDetails;
+    try {
+      userDetails =
+          accessTokenService
+              .resolve(authorization.substring(BEARER_PREFIX.length()).trim())
+              .flatMap(this::loadUser);
+    } catch (MongoBulkheadFullException e) {
+      securityContextHolderStrategy.clearContext();
+      authenticationEntryPoint.commence(
+          request, response, new AuthenticationServiceException("Access token lookup shed", e));
+      return;
+    }
+    if (userDetails.isEmpty()) {
+      securityContextHolderStrategy.clearContext();
+      authenticationEntryPoint.commence(
+          request, response, new BadCredentialsException("Invalid or expired access token"));
+      return;
+    }
+
+    SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+    context.setAuthentication(
+        UsernamePasswordAuthenticationToken.authenticated(
+            userDetails.get(), null, userDetails.get().getAuthorities()));
+    securityContextHolderStrategy.setContext(context);
+    securityContextRepository.saveContext(context, request, response);
+
+    filterChain.doFilter(request, response);
+  }
+
+  private Optional<UserDetails> loadUser(AccessToken accessToken) {
+    try {
+      return Optional.of(userDetailsService.loadUserByUsername(accessToken.getEmail()));
+    } catch (UsernameNotFoundException e) {
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.erm.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+  private final VerifiedCredentialCache verifiedCredentialCache;
+
+  public CachingDaoAuthenticationProvider(
+      UserDetailsService userDetailsService,
+      PasswordEncoder passwordEncoder,
+      VerifiedCredentialCache verifiedCredentialCache) {
+    super(passwordEncoder);
+    setUserDetailsService(userDetailsService);
+    this.verifiedCredentialCache = verifiedCredentialCache;
+  }
+
+  @Override
+  protected void additionalAuthenticationChecks(
+      UserDetails userDetails, UsernamePasswordAuthenticationToken authentication)
+      throws AuthenticationException {
+    Object credentials = authentication.getCredentials();
+    if (credentials != null
+        && verifiedCredentialCache.isVerified(
+            userDetails.getUsername(), userDetails.getPassword(), credentials.toString())) {
+      return;
+    }
+
+    super.additionalAuthenticationChecks(userDetails, authentication);
+    verifiedCredentialCache.put(
+        userDetails.getUsername(), userDetails.getPassword(), credentials.toString());
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.erm.security;
+
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.erm.exception.MongoBulkheadFullException;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Counterpart of {@link CachingDaoAuthenticationProvider} for the reactive profile. Verified
+ * credentials are answered from the {@link VerifiedCredentialCache}; otherwise the password is
+ * checked on the bounded elastic scheduler, as the encoder blocks.
+ */
+@RequiredArgsConstructor
+public class CachingReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+  private static final String BAD_CREDENTIALS = "Bad credentials";
+
+  private final UserDetailsChecker userDetailsChecker = new AccountStatusUserDetailsChecker();
+  private final ReactiveUserDetailsService userDetailsService;
+  private final PasswordEncoder passwordEncoder;
+  private final VerifiedCredentialCache verifiedCredentialCache;
+
+  @Override
+  public Mono<Authentication> authenticate(Authentication authentication) {
+    Object credentials = authentication.getCredentials();
+    if (credentials == null) {
+      return Mono.error(new BadCredentialsException(BAD_CREDENTIALS));
+    }
+    String rawPassword = credentials.toString();
+
+    return userDetailsService
+        .findByUsername(authentication.getName())
+        .onErrorMap(
+            MongoBulkheadFullException.class,
+            e -> new InternalAuthenticationServiceException("User lookup shed", e))
+        .switchIfEmpty(Mono.error(() -> new BadCredentialsException(BAD_CREDENTIALS)))
+        .doOnNext(userDetailsChecker::check)
+        .flatMap(userDetails -> verify(userDetails, rawPassword))
+        .map(
+            userDetails ->
+                UsernamePasswordAuthenticationToken.authenticated(
+                    userDetails, userDetails.getPassword(), userDetails.getAuthorities()));
+  }
+
+  private Mono<UserDetails> verify(UserDetails userDetails, String rawPassword) {
+    if (verifiedCredentialCache.isVerified(
+        userDetails.getUsername(), userDetails.getPassword(), rawPassword)) {
+      return Mono.just(userDetails);
+    }
+
+    return Mono.fromCallable(() -> passwordEncoder.matches(rawPassword, userDetails.getPassword()))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMap(
+            matches -> {
+              if (!matches) {
+                return Mono.error(new BadCredentialsException(BAD_CREDENTIALS));
+              }
+              verifiedCredentialCache.put(
+                  userDetails.getUsername(), userDetails.getPassword(), rawPassword);
+
+              return Mono.just(userDetails);
+            });
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.erm.security;
+
+import java.time.Duration;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.erm.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counterpart of {@link CachingUserDetailsService} for the reactive profile. Loads do not block,
+ * so the cache holds the pending lookup and concurrent requests of the same user share it.
+ */
+public class CachingReactiveUserDetailsService implements ReactiveUserDetailsService, MeterBinder {
+
+  private static final String CACHE_NAME = "user-details";
+
+  private final AsyncLoadingCache<String, UserDetails> cache;
+
+  public CachingReactiveUserDetailsService(
+      ReactiveUserDetailsService delegate,
+      long maximumSize,
+      Duration expireAfterWrite,
+      Duration refreshAfterWrite) {
+    // an empty lookup completes with null, which caffeine does not keep
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .refreshAfterWrite(refreshAfterWrite)
+            .recordStats()
+            .buildAsync((username, executor) -> delegate.findByUsername(username).toFuture());
+  }
+
+  // a cancelled request must not cancel the lookup other requests are waiting for
+  @Override
+  public Mono<UserDetails> findByUsername(String username) {
+    return Mono.fromFuture(cache.get(username), true);
+  }
+
+  @EventListener
+  public void onUserChanged(UserChangedEvent event) {
+    cache.synchronous().invalidateAll(event.emails());
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+}
@@ -0,0 +1,82 @@
+package com.example.erm.security;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.example.erm.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Keeps pre-built user details by email. Entries older than the refresh interval are still served
+ * while they are reloaded in the background, so a slow lookup delays only the reload itself and
+ * not every request of that user.
+ */
+public class CachingUserDetailsService
+    implements UserDetailsService, MeterBinder, AutoCloseable {
+
+  private static final String CACHE_NAME = "user-details";
+
+  private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+  private final LoadingCache<String, UserDetails> cache;
+
+  public CachingUserDetailsService(
+      UserDetailsService delegate,
+      long maximumSize,
+      Duration expireAfterWrite,
+      Duration refreshAfterWrite) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .refreshAfterWrite(refreshAfterWrite)
+            .executor(refreshExecutor)
+            .recordStats()
+            .build(username -> load(delegate, username));
+  }
+
+  @Override
+  public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    UserDetails userDetails = cache.get(username);
+    if (userDetails == null) {
+      throw new UsernameNotFoundException("User " + username + " not found");
+    }
+
+    return userDetails;
+  }
+
+  @EventListener
+  public void onUserChanged(UserChangedEvent event) {
+    cache.invalidateAll(event.emails());
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+
+  // called by spring on shutdown; refreshes still running are not waited for
+  @Override
+  public void close() {
+    refreshExecutor.shutdown();
+  }
+
+  private static UserDetails load(UserDetailsService delegate, String username) {
+    try {
+      return delegate.loadUserByUsername(username);
+    } catch (UsernameNotFoundException e) {
+      // not cached; a refresh of a meanwhile deleted user removes the entry
+      return null;
+    }
+  }
+}
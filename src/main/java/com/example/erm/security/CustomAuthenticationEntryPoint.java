@@ -2,24 +2,42 @@ package com.example.erm.security;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
 
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 
 import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.exception.MongoBulkheadFullException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 
-@RequiredArgsConstructor
+// a user or token lookup shed by the mongo bulkhead is answered with 503, as the credentials were
+// never checked
 public class CustomAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
   private final ProblemDetailFactory problemDetailFactory;
-  private final ObjectMapper objectMapper;
+  private final ObjectWriter problemDetailWriter;
+  private final String retryAfterSeconds;
+
+  public CustomAuthenticationEntryPoint(
+      ProblemDetailFactory problemDetailFactory, ObjectMapper objectMapper, Duration retryAfter) {
+    this.problemDetailFactory = problemDetailFactory;
+    this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    // the response stream is left open for the container
+    this.problemDetailWriter =
+        objectMapper
+            .writerFor(ProblemDetail.class)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
 
   @Override
   public void commence(
@@ -27,11 +45,18 @@ public class CustomAuthenticationEntryPoint implements AuthenticationEntryPoint
       HttpServletResponse response,
       AuthenticationException authException)
       throws IOException {
-    ProblemDetail problemDetail = problemDetailFactory.unauthorized();
+    ProblemDetail problemDetail;
+    if (NestedExceptionUtils.getMostSpecificCause(authException)
+        instanceof MongoBulkheadFullException) {
+      problemDetail = problemDetailFactory.overloaded();
+      response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    } else {
+      problemDetail = problemDetailFactory.unauthorized();
+    }
     problemDetail.setInstance(URI.create(request.getRequestURI()));
 
     response.setStatus(problemDetail.getStatus());
     response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-    response.getWriter().write(objectMapper.writeValueAsString(problemDetail));
+    problemDetailWriter.writeValue(response.getOutputStream(), problemDetail);
   }
 }
@@ -0,0 +1,58 @@
+package com.example.erm.security;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.exception.MongoBulkheadFullException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import reactor.core.publisher.Mono;
+
+// counterpart of CustomAuthenticationEntryPoint for the reactive profile
+public class CustomServerAuthenticationEntryPoint implements ServerAuthenticationEntryPoint {
+
+  private final ProblemDetailFactory problemDetailFactory;
+  private final ObjectWriter problemDetailWriter;
+  private final String retryAfterSeconds;
+
+  public CustomServerAuthenticationEntryPoint(
+      ProblemDetailFactory problemDetailFactory, ObjectMapper objectMapper, Duration retryAfter) {
+    this.problemDetailFactory = problemDetailFactory;
+    this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    this.problemDetailWriter = objectMapper.writerFor(ProblemDetail.class);
+  }
+
+  @Override
+  public Mono<Void> commence(ServerWebExchange exchange, AuthenticationException authException) {
+    ServerHttpResponse response = exchange.getResponse();
+    ProblemDetail problemDetail;
+    if (NestedExceptionUtils.getMostSpecificCause(authException)
+        instanceof MongoBulkheadFullException) {
+      problemDetail = problemDetailFactory.overloaded();
+      response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    } else {
+      problemDetail = problemDetailFactory.unauthorized();
+    }
+    problemDetail.setInstance(URI.create(exchange.getRequest().getPath().value()));
+
+    response.setStatusCode(HttpStatus.valueOf(problemDetail.getStatus()));
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+    return Mono.fromCallable(
+            () ->
+                response.bufferFactory().wrap(problemDetailWriter.writeValueAsBytes(problemDetail)))
+        .flatMap(buffer -> response.writeWith(Mono.just(buffer)));
+  }
+}
@@ -0,0 +1,92 @@
+package com.example.erm.security;
+
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.erm.repository.domain.User;
+
+/**
+ * Authenticated principal holding a snapshot of the user document it was loaded from, so that
+ * request handlers do not have to look the current user up again.
+ */
+public record ErmUserDetails(User user, List<GrantedAuthority> authorities) implements UserDetails {
+
+  private static final String ROLE_PREFIX = "ROLE_";
+
+  public ErmUserDetails {
+    List<String> roles = user.getRoles() == null ? List.of() : List.copyOf(user.getRoles());
+    user = user.toBuilder().roles(roles).build();
+    authorities = List.copyOf(authorities);
+  }
+
+  public static ErmUserDetails of(User user) {
+    List<String> roles = user.getRoles() == null ? List.of() : user.getRoles();
+    List<GrantedAuthority> authorities =
+        AuthorityUtils.createAuthorityList(roles.stream().map(role -> ROLE_PREFIX + role).toList());
+
+    return new ErmUserDetails(user, authorities);
+  }
+
+  @Override
+  public User user() {
+    return user.toBuilder().build();
+  }
+
+  public String id() {
+    return user.getId();
+  }
+
+  public List<String> roles() {
+    return user.getRoles();
+  }
+
+  @Override
+  public String getUsername() {
+    return user.getEmail();
+  }
+
+  @Override
+  public String getPassword() {
+    return user.getPassword();
+  }
+
+  @Override
+  public List<GrantedAuthority> getAuthorities() {
+    return authorities;
+  }
+
+  // the generated one would print the password hash of the user
+  @Override
+  public String toString() {
+    return "ErmUserDetails[id="
+        + user.getId()
+        + ", username="
+        + user.getEmail()
+        + ", authorities="
+        + authorities
+        + "]";
+  }
+
+  @Override
+  public boolean isAccountNonExpired() {
+    return true;
+  }
+
+  @Override
+  public boolean isAccountNonLocked() {
+    return true;
+  }
+
+  @Override
+  public boolean isCredentialsNonExpired() {
+    return true;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+}
@@ -21,10 +21,6 @@ public class MongoUserDetailsService implements UserDetailsService {
             .findByEmail(username)
             .orElseThrow(() -> new UsernameNotFoundException("User " + username + " not found"));
 
-    return org.springframework.security.core.userdetails.User.builder()
-        .username(user.getEmail())
-        .password(user.getPassword())
-        .roles(user.getRoles().toArray(String[]::new))
-        .build();
+    return ErmUserDetails.of(user);
   }
 }
@@ -0,0 +1,39 @@
+package com.example.erm.security;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// hashing is cpu bound, so it runs on a fixed number of platform threads shared by all callers
+public class ParallelPasswordEncoder implements AutoCloseable {
+
+  private final PasswordEncoder passwordEncoder;
+  private final ExecutorService executor;
+
+  public ParallelPasswordEncoder(PasswordEncoder passwordEncoder, int parallelism) {
+    this.passwordEncoder = passwordEncoder;
+    this.executor =
+        Executors.newFixedThreadPool(
+            parallelism, Thread.ofPlatform().name("password-hashing-", 0).daemon().factory());
+  }
+
+  public List<String> encodeAll(List<String> rawPasswords) {
+    List<CompletableFuture<String>> encodedPasswords =
+        rawPasswords.stream()
+            .map(
+                rawPassword ->
+                    CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(rawPassword), executor))
+            .toList();
+
+    return encodedPasswords.stream().map(CompletableFuture::join).toList();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,92 @@
+package com.example.erm.security;
+
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.example.erm.exception.MongoBulkheadFullException;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// counterpart of BearerTokenAuthenticationFilter for the reactive profile
+@RequiredArgsConstructor
+public class ReactiveBearerTokenAuthenticationFilter implements WebFilter {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  // tokens are only issued for http basic credentials, never exchanged for a new token
+  private static final ServerWebExchangeMatcher TOKEN_ENDPOINT =
+      ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, "/api/auth/token");
+
+  private final AccessTokenService accessTokenService;
+  private final ReactiveUserDetailsService userDetailsService;
+  private final ServerAuthenticationEntryPoint authenticationEntryPoint;
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    return TOKEN_ENDPOINT
+        .matches(exchange)
+        .flatMap(
+            matchResult ->
+                matchResult.isMatch() ? chain.filter(exchange) : authenticate(exchange, chain));
+  }
+
+  private Mono<Void> authenticate(ServerWebExchange exchange, WebFilterChain chain) {
+    String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    if (authorization == null
+        || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+      return chain.filter(exchange);
+    }
+    String token = authorization.substring(BEARER_PREFIX.length()).trim();
+
+    return resolve(token)
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .onErrorResume(
+            MongoBulkheadFullException.class,
+            e ->
+                authenticationEntryPoint
+                    .commence(
+                        exchange, new AuthenticationServiceException("Access token lookup shed", e))
+                    .then(Mono.empty()))
+        .flatMap(
+            authentication ->
+                authentication.isPresent()
+                    ? proceed(exchange, chain, authentication.get())
+                    : authenticationEntryPoint.commence(
+                        exchange, new BadCredentialsException("Invalid or expired access token")));
+  }
+
+  private static Mono<Void> proceed(
+      ServerWebExchange exchange, WebFilterChain chain, Authentication authentication) {
+    return chain
+        .filter(exchange)
+        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+  }
+
+  // the mongo token store blocks, so tokens are resolved off the event loop
+  private Mono<Authentication> resolve(String token) {
+    return Mono.fromCallable(() -> accessTokenService.resolve(token).orElse(null))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMap(accessToken -> userDetailsService.findByUsername(accessToken.getEmail()))
+        .map(
+            userDetails ->
+                UsernamePasswordAuthenticationToken.authenticated(
+                    userDetails, null, userDetails.getAuthorities()));
+  }
+}
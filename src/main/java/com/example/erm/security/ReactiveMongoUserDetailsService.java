@@ -0,0 +1,21 @@
+package com.example.erm.security;
+
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.erm.repository.ReactiveUserRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class ReactiveMongoUserDetailsService implements ReactiveUserDetailsService {
+
+  private final ReactiveUserRepository userRepository;
+
+  // empty if there is no such user, as ReactiveUserDetailsService expects
+  @Override
+  public Mono<UserDetails> findByUsername(String username) {
+    return userRepository.findByEmail(username).map(ErmUserDetails::of);
+  }
+}
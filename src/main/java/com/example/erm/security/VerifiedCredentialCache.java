@@ -0,0 +1,85 @@
+package com.example.erm.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.context.event.EventListener;
+
+import com.example.erm.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers successful password verifications, so that the password encoder does not have to run
+ * on every request of a client repeatedly sending the same http basic credentials.
+ *
+ * <p>Raw passwords are never kept; an entry holds an HMAC of the password under a per-process
+ * random key, together with the encoded password it was verified against.
+ */
+public class VerifiedCredentialCache implements MeterBinder {
+
+  private static final String CACHE_NAME = "verified-credentials";
+  private static final String DIGEST_ALGORITHM = "HmacSHA256";
+
+  private final Cache<String, VerifiedCredential> cache;
+  private final SecretKeySpec digestKey;
+
+  public VerifiedCredentialCache(long maximumSize, Duration ttl) {
+    this.cache =
+        Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    this.digestKey = new SecretKeySpec(key, DIGEST_ALGORITHM);
+  }
+
+  public boolean isVerified(String username, String encodedPassword, String rawPassword) {
+    VerifiedCredential credential = cache.getIfPresent(username);
+
+    return credential != null
+        && Objects.equals(credential.encodedPassword(), encodedPassword)
+        && MessageDigest.isEqual(credential.digest(), digest(rawPassword));
+  }
+
+  public void put(String username, String encodedPassword, String rawPassword) {
+    cache.put(username, new VerifiedCredential(encodedPassword, digest(rawPassword)));
+  }
+
+  public void invalidate(Collection<String> usernames) {
+    cache.invalidateAll(usernames);
+  }
+
+  @EventListener
+  public void onUserChanged(UserChangedEvent event) {
+    invalidate(event.emails());
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+
+  private byte[] digest(String rawPassword) {
+    try {
+      Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+      mac.init(digestKey);
+
+      return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to compute credential digest", e);
+    }
+  }
+
+  private record VerifiedCredential(String encodedPassword, byte[] digest) {}
+}
@@ -0,0 +1,107 @@
+package com.example.erm.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.repository.ExternalProjectCounterRepository;
+import com.example.erm.repository.ExternalProjectRepository;
+import com.example.erm.repository.ExternalProjectRepository.UserProjectCount;
+import com.example.erm.repository.UserDeletionRepository;
+import com.example.erm.repository.domain.ExternalProjectCounter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExternalProjectCounterReconciler {
+  private final ExternalProjectRepository externalProjectRepository;
+  private final ExternalProjectCounterRepository externalProjectCounterRepository;
+  private final UserDeletionRepository userDeletionRepository;
+  private final ErmConfigurationProperties ermConfigurationProperties;
+
+  @Scheduled(
+      initialDelayString = "${erm.external-project.counter-reconciliation.interval:1h}",
+      fixedDelayString = "${erm.external-project.counter-reconciliation.interval:1h}")
+  @SchedulerLock(name = "external-project-counter-reconciliation")
+  public void reconcile() {
+    // the increment of a project follows its insert, so only projects created before the grace
+    // period are known to be counted; younger ones are left out of the count, and a counter they
+    // already incremented is left alone
+    Duration gracePeriod =
+        ermConfigurationProperties.externalProject().counterReconciliation().gracePeriod();
+    Instant countedBefore = Instant.now().minus(gracePeriod);
+
+    int reconciled = 0;
+    int repaired = 0;
+    // both are ordered by user id and merged, so neither is held in memory; user ids are object id
+    // hex strings, which java and mongo order alike
+    try (Stream<UserProjectCount> counts =
+            externalProjectRepository.streamCountsByUserIdCreatedBefore(countedBefore);
+        Stream<ExternalProjectCounter> counters = externalProjectCounterRepository.streamAll()) {
+      Iterator<UserProjectCount> countIterator = counts.iterator();
+      Iterator<ExternalProjectCounter> counterIterator = counters.iterator();
+      UserProjectCount count = next(countIterator);
+      ExternalProjectCounter counter = next(counterIterator);
+      while (count != null || counter != null) {
+        int order =
+            count == null ? 1 : counter == null ? -1 : count.userId().compareTo(counter.getId());
+        boolean drifted;
+        if (order < 0) {
+          drifted = reconcile(count.userId(), null, count.count(), countedBefore);
+        } else {
+          // a counter without counted projects stands for none
+          long actual = order == 0 ? count.count() : 0;
+          drifted = reconcile(counter.getId(), counter, actual, countedBefore);
+        }
+        if (drifted) {
+          repaired++;
+        }
+        reconciled++;
+        if (order <= 0) {
+          count = next(countIterator);
+        }
+        if (order >= 0) {
+          counter = next(counterIterator);
+        }
+      }
+    }
+    log.debug("Reconciled {} external project counters, repaired {}", reconciled, repaired);
+  }
+
+  boolean reconcile(
+      String userId, ExternalProjectCounter counter, long actual, Instant countedBefore) {
+    if (counter != null
+        && (!counter.getUpdatedAt().isBefore(countedBefore) || counter.getCount() == actual)) {
+      return false;
+    }
+    // the cascade removes the counter once the projects are gone; it must not come back
+    if (userDeletionRepository.isPending(userId)) {
+      return false;
+    }
+
+    if (counter == null) {
+      return externalProjectCounterRepository.initialize(userId, actual);
+    }
+
+    log.warn(
+        "External project counter of user {} drifted. recorded={}, actual={}",
+        userId,
+        counter.getCount(),
+        actual);
+    return externalProjectCounterRepository.compareAndSet(
+        userId, counter.getCount(), actual, countedBefore);
+  }
+
+  private static <T> T next(Iterator<T> iterator) {
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+}
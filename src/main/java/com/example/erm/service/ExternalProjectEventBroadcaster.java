@@ -0,0 +1,207 @@
+package com.example.erm.service;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.event.ExternalProjectChangedEvent;
+import com.example.erm.repository.ExternalProjectChangeStreamListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fans the changes of the node's change stream out to the event streams of the node's
+ * subscribers. The latest changes are buffered, so a subscriber reconnecting with the id of the
+ * last event it got misses nothing, whichever node it got it from. Subscribers are never waited
+ * for: one that falls a whole queue behind is dropped and catches up from the buffer on reconnect.
+ */
+@Slf4j
+public class ExternalProjectEventBroadcaster
+    implements ExternalProjectChangeStreamListener.Subscriber {
+
+  static final String SUBSCRIBERS_METER_NAME = "erm.external.project.events.subscribers";
+  static final String DROPPED_METER_NAME = "erm.external.project.events.dropped";
+
+  private final int bufferSize;
+  private final Counter dropped;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // guarded by lock
+  private final ArrayDeque<ExternalProjectChangedEvent> buffer = new ArrayDeque<>();
+  private final Map<String, Set<Subscription>> subscriptions = new HashMap<>();
+  // the buffer holds every change after this position; nothing is known before the first change
+  private long bufferedAfter = Long.MAX_VALUE;
+  private int subscriberCount;
+
+  public ExternalProjectEventBroadcaster(
+      ErmConfigurationProperties.ExternalProject.Events settings, MeterRegistry meterRegistry) {
+    this.bufferSize = settings.bufferSize();
+    this.dropped =
+        Counter.builder(DROPPED_METER_NAME)
+            .description("Event stream subscribers dropped for falling behind")
+            .register(meterRegistry);
+    Gauge.builder(SUBSCRIBERS_METER_NAME, this, ExternalProjectEventBroadcaster::getSubscriberCount)
+        .description("Open external project event streams")
+        .register(meterRegistry);
+  }
+
+  // live changes go to the receiver; changes after lastEventId are in the subscription's replay,
+  // or the subscription is a reset if they are no longer known
+  public Subscription subscribe(String userId, String lastEventId, Receiver receiver) {
+    lock.lock();
+    try {
+      Long lastPosition = lastEventId != null ? parsePosition(lastEventId) : null;
+      boolean reset = lastEventId != null && (lastPosition == null || !isBuffered(lastPosition));
+      List<ExternalProjectChangedEvent> replay =
+          lastPosition == null || reset
+              ? List.of()
+              : buffer.stream()
+                  .filter(event -> event.position() > lastPosition)
+                  .filter(event -> event.userId().equals(userId))
+                  .toList();
+      Subscription subscription = new Subscription(userId, receiver, replay, reset);
+      subscriptions.computeIfAbsent(userId, key -> new LinkedHashSet<>()).add(subscription);
+      subscriberCount++;
+
+      return subscription;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void unsubscribe(Subscription subscription) {
+    lock.lock();
+    try {
+      Set<Subscription> userSubscriptions = subscriptions.get(subscription.userId);
+      if (userSubscriptions != null && userSubscriptions.remove(subscription)) {
+        subscriberCount--;
+        if (userSubscriptions.isEmpty()) {
+          subscriptions.remove(subscription.userId);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void changed(ExternalProjectChangedEvent event) {
+    lock.lock();
+    try {
+      if (buffer.size() >= bufferSize) {
+        bufferedAfter = buffer.removeFirst().position();
+      }
+      buffer.addLast(event);
+      Set<Subscription> userSubscriptions = subscriptions.get(event.userId());
+      if (userSubscriptions == null) {
+        return;
+      }
+      userSubscriptions.removeIf(
+          subscription -> {
+            if (subscription.receiver.offer(event)) {
+              return false;
+            }
+            log.debug("Dropping event stream of user {}, it fell behind", event.userId());
+            dropped.increment();
+            subscriberCount--;
+            subscription.receiver.dropped();
+            return true;
+          });
+      if (userSubscriptions.isEmpty()) {
+        subscriptions.remove(event.userId());
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // without a resume the buffer has a gap, so it starts over, and every subscriber reconnects to
+  // learn that it may have missed changes
+  @Override
+  public void changeStreamConnected(boolean resumed) {
+    if (resumed) {
+      return;
+    }
+    lock.lock();
+    try {
+      buffer.clear();
+      bufferedAfter = Long.MAX_VALUE;
+      subscriptions.values().stream()
+          .flatMap(Set::stream)
+          .forEach(subscription -> subscription.receiver.dropped());
+      subscriptions.clear();
+      subscriberCount = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getSubscriberCount() {
+    lock.lock();
+    try {
+      return subscriberCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isBuffered(long position) {
+    return position >= bufferedAfter
+        || (!buffer.isEmpty() && position >= buffer.peekFirst().position());
+  }
+
+  private static Long parsePosition(String eventId) {
+    try {
+      return Long.parseLong(eventId);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  // called under the broadcaster's lock, so neither may block
+  public interface Receiver {
+
+    // false if the event can not be taken right away, which ends the subscription
+    boolean offer(ExternalProjectChangedEvent event);
+
+    // nothing follows; the stream should end so the client reconnects with its Last-Event-ID
+    void dropped();
+  }
+
+  public static final class Subscription {
+
+    private final String userId;
+    private final Receiver receiver;
+    private final List<ExternalProjectChangedEvent> replay;
+    private final boolean reset;
+
+    private Subscription(
+        String userId,
+        Receiver receiver,
+        List<ExternalProjectChangedEvent> replay,
+        boolean reset) {
+      this.userId = userId;
+      this.receiver = receiver;
+      this.replay = replay;
+      this.reset = reset;
+    }
+
+    // changes after the Last-Event-ID, to be sent before anything the receiver gets
+    public List<ExternalProjectChangedEvent> getReplay() {
+      return replay;
+    }
+
+    // the changes since the Last-Event-ID are not known; the client has to list its projects
+    public boolean isReset() {
+      return reset;
+    }
+  }
+}
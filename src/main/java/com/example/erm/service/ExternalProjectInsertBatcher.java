@@ -0,0 +1,245 @@
+package com.example.erm.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.exception.ExternalProjectInsertTimeoutException;
+import com.example.erm.repository.ExternalProjectRepository;
+import com.example.erm.repository.domain.ExternalProject;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group commit for single external project creates. Callers are queued until the batch is full or
+ * the oldest of them has waited max-wait, and the batch is written with one unordered insert. Each
+ * caller gets its own project back, or the error of its own document.
+ *
+ * <p>While the batcher is not running, e.g. once it has been stopped on shutdown, projects are
+ * written one by one in the caller's thread.
+ */
+@Component
+@Slf4j
+public class ExternalProjectInsertBatcher implements SmartLifecycle {
+
+  static final String BATCH_SIZE_METER_NAME = "erm.external.project.insert.batch.size";
+  static final String QUEUE_DELAY_METER_NAME = "erm.external.project.insert.queue.delay";
+
+  // how often an idle flusher checks whether it was stopped
+  private static final long IDLE_POLL_MILLIS = 100;
+
+  // started before and stopped after the web server, which stops in the phases right below the
+  // graceful shutdown, so requests still being drained on shutdown get their projects written
+  static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+  private final BlockingQueue<PendingInsert> queue = new LinkedBlockingQueue<>();
+  private final ExternalProjectRepository externalProjectRepository;
+  private final ErmConfigurationProperties.ExternalProject.InsertBatching settings;
+  private final DistributionSummary batchSize;
+  private final Timer queueDelay;
+
+  private volatile boolean running;
+  private Thread flusher;
+
+  public ExternalProjectInsertBatcher(
+      ExternalProjectRepository externalProjectRepository,
+      ErmConfigurationProperties ermConfigurationProperties,
+      MeterRegistry meterRegistry) {
+    this.externalProjectRepository = externalProjectRepository;
+    this.settings = ermConfigurationProperties.externalProject().insertBatching();
+    this.batchSize =
+        DistributionSummary.builder(BATCH_SIZE_METER_NAME)
+            .description("External projects written per batched insert")
+            .baseUnit("projects")
+            .register(meterRegistry);
+    this.queueDelay =
+        Timer.builder(QUEUE_DELAY_METER_NAME)
+            .description("Time an external project waited for its batched insert")
+            .register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return settings.enabled();
+  }
+
+  public CompletableFuture<ExternalProject> submit(ExternalProject externalProject) {
+    PendingInsert pendingInsert =
+        new PendingInsert(externalProject, System.nanoTime(), new CompletableFuture<>());
+    if (!running) {
+      flush(List.of(pendingInsert));
+      return pendingInsert.result();
+    }
+    queue.add(pendingInsert);
+    // stopped meanwhile; unless the flusher or stop already took it, nobody else will
+    if (!running && queue.remove(pendingInsert)) {
+      flush(List.of(pendingInsert));
+    }
+
+    return pendingInsert.result();
+  }
+
+  // blocks until the batch holding the project is written, or the flusher failed to write it in
+  // time; a project still queued then is dropped, one already being written may still be stored
+  public ExternalProject insert(ExternalProject externalProject) {
+    CompletableFuture<ExternalProject> result = submit(externalProject);
+    try {
+      return result.get(
+          settings.maxWait().plus(settings.timeout()).toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      queue.removeIf(pendingInsert -> pendingInsert.result() == result);
+      log.warn("External project insert not written in time, the batcher may be stalled");
+      throw new ExternalProjectInsertTimeoutException();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new CompletionException(e.getCause());
+    }
+  }
+
+  @Override
+  public void start() {
+    if (!settings.enabled()) {
+      return;
+    }
+    running = true;
+    flusher = Thread.ofPlatform().name("external-project-insert-batcher").daemon().start(this::run);
+  }
+
+  // already queued projects are still written
+  @Override
+  public void stop() {
+    running = false;
+    if (flusher == null) {
+      return;
+    }
+    try {
+      flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<PendingInsert> pendingInserts = drain();
+    if (!pendingInserts.isEmpty()) {
+      flush(pendingInserts);
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return PHASE;
+  }
+
+  private void run() {
+    while (running || !queue.isEmpty()) {
+      List<PendingInsert> batch = new ArrayList<>(settings.maxBatchSize());
+      try {
+        PendingInsert first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        fill(batch, first.enqueuedAt() + settings.maxWait().toNanos());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failAll(batch, new IllegalStateException("External project insert batching was stopped"));
+        return;
+      }
+      flush(batch);
+    }
+  }
+
+  private void fill(List<PendingInsert> batch, long deadline) throws InterruptedException {
+    while (batch.size() < settings.maxBatchSize()) {
+      queue.drainTo(batch, settings.maxBatchSize() - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= settings.maxBatchSize() || remaining <= 0) {
+        return;
+      }
+      PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+
+  private void flush(List<PendingInsert> batch) {
+    long flushedAt = System.nanoTime();
+    batch.forEach(
+        pendingInsert ->
+            queueDelay.record(flushedAt - pendingInsert.enqueuedAt(), TimeUnit.NANOSECONDS));
+    batchSize.record(batch.size());
+
+    Map<Integer, BulkWriteError> errors;
+    try {
+      errors =
+          externalProjectRepository
+              .insertAllUnordered(batch.stream().map(PendingInsert::externalProject).toList())
+              .stream()
+              .collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity()));
+    } catch (RuntimeException e) {
+      log.warn("Unable to insert batch of {} external projects. {}", batch.size(), e.getMessage());
+      failAll(batch, e);
+      return;
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      PendingInsert pendingInsert = batch.get(i);
+      BulkWriteError error = errors.get(i);
+      if (error == null) {
+        pendingInsert.result().complete(pendingInsert.externalProject());
+      } else if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+        pendingInsert.result().completeExceptionally(new DuplicateKeyException(error.getMessage()));
+      } else {
+        pendingInsert
+            .result()
+            .completeExceptionally(new DataIntegrityViolationException(error.getMessage()));
+      }
+    }
+  }
+
+  private List<PendingInsert> drain() {
+    List<PendingInsert> pendingInserts = new ArrayList<>();
+    queue.drainTo(pendingInserts);
+
+    return pendingInserts;
+  }
+
+  private static void failAll(List<PendingInsert> pendingInserts, RuntimeException e) {
+    pendingInserts.forEach(pendingInsert -> pendingInsert.result().completeExceptionally(e));
+  }
+
+  private record PendingInsert(
+      ExternalProject externalProject,
+      long enqueuedAt,
+      CompletableFuture<ExternalProject> result) {}
+}
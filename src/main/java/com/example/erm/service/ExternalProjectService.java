@@ -1,33 +1,160 @@
 package com.example.erm.service;
 
-import org.springframework.data.domain.Page;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
 import com.example.erm.command.ExternalProjectCreateCommand;
 import com.example.erm.command.ExternalProjectListCommand;
+import com.example.erm.command.ExternalProjectScrollCommand;
+import com.example.erm.repository.ExternalProjectCounterRepository;
 import com.example.erm.repository.ExternalProjectRepository;
 import com.example.erm.repository.domain.ExternalProject;
+import com.example.erm.repository.domain.ExternalProjectCounter;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ExternalProjectService {
   private final ExternalProjectRepository externalProjectRepository;
+  private final ExternalProjectCounterRepository externalProjectCounterRepository;
+  private final ExternalProjectInsertBatcher externalProjectInsertBatcher;
+  // identical pages of one user requested at once share a query
+  private final SingleFlight<ExternalProjectListCommand, Slice<ExternalProject>> listings;
+  private final SingleFlight<ExternalProjectListCommand, Slice<RawBsonDocument>> rawListings;
+
+  public ExternalProjectService(
+      ExternalProjectRepository externalProjectRepository,
+      ExternalProjectCounterRepository externalProjectCounterRepository,
+      ExternalProjectInsertBatcher externalProjectInsertBatcher,
+      MeterRegistry meterRegistry) {
+    this.externalProjectRepository = externalProjectRepository;
+    this.externalProjectCounterRepository = externalProjectCounterRepository;
+    this.externalProjectInsertBatcher = externalProjectInsertBatcher;
+    this.listings =
+        new SingleFlight<>(
+            "external-project-list",
+            slice -> slice.map(externalProject -> externalProject.toBuilder().build()),
+            meterRegistry);
+    // raw documents are immutable and so is the content of a slice
+    this.rawListings =
+        new SingleFlight<>("external-project-raw-list", UnaryOperator.identity(), meterRegistry);
+  }
 
   public ExternalProject createExternalProject(ExternalProjectCreateCommand command) {
     log.debug("Creating external project. {}", command);
     ExternalProject externalProject =
-        externalProjectRepository.insert(
-            ExternalProject.builder().userId(command.userId()).name(command.name()).build());
+        externalProjectInsertBatcher.isEnabled()
+            ? externalProjectInsertBatcher.insert(newExternalProject(command, Instant.now()))
+            : externalProjectRepository.insert(
+                ExternalProject.builder().userId(command.userId()).name(command.name()).build());
+    // not atomic with the insert; drift is repaired by ExternalProjectCounterReconciler
+    externalProjectCounterRepository.increment(externalProject.getUserId(), 1);
+    forgetListings(Set.of(externalProject.getUserId()));
     log.debug("Created external project. {}", externalProject);
 
     return externalProject;
   }
 
-  public Page<ExternalProject> listExternalProjects(ExternalProjectListCommand command) {
-    return externalProjectRepository.list(command);
+  public List<ExternalProject> createExternalProjects(List<ExternalProjectCreateCommand> commands) {
+    log.debug("Creating {} external projects", commands.size());
+    List<ExternalProject> externalProjects =
+        externalProjectRepository.insertAll(newExternalProjects(commands));
+    Map<String, Long> createdPerUser = countPerUser(externalProjects);
+    createdPerUser.forEach(externalProjectCounterRepository::increment);
+    forgetListings(createdPerUser.keySet());
+    log.debug("Created {} external projects", externalProjects.size());
+
+    return externalProjects;
+  }
+
+  public Slice<ExternalProject> listExternalProjects(ExternalProjectListCommand command) {
+    return listings.execute(
+        command, () -> withTotal(command, externalProjectRepository.list(command)));
+  }
+
+  // the same listing as stored documents holding the response fields, for writing them unmapped
+  public Slice<RawBsonDocument> listRawExternalProjects(ExternalProjectListCommand command) {
+    return rawListings.execute(
+        command, () -> withTotal(command, externalProjectRepository.listRaw(command)));
+  }
+
+  // listings in flight may have started before the write and must not be joined after it
+  private void forgetListings(Set<String> userIds) {
+    listings.forgetIf(command -> userIds.contains(command.userId()));
+    rawListings.forgetIf(command -> userIds.contains(command.userId()));
+  }
+
+  private <T> Slice<T> withTotal(ExternalProjectListCommand command, Slice<T> slice) {
+    if (!command.withTotal()) {
+      return slice;
+    }
+
+    return PageableExecutionUtils.getPage(
+        slice.getContent(),
+        command.page(),
+        () -> externalProjectCounterRepository.count(command.userId()));
+  }
+
+  // projects are only ever created and deleted, and each of those moves the counter of the user,
+  // so the counter alone tells whether a listing changed
+  public ListingVersion findListingVersion(String userId) {
+    return externalProjectCounterRepository
+        .findById(userId)
+        .map(ListingVersion::of)
+        .orElse(ListingVersion.NONE);
+  }
+
+  public Stream<ExternalProject> streamExternalProjects(String userId) {
+    return externalProjectRepository.streamByUserId(userId);
+  }
+
+  public Slice<ExternalProject> scrollExternalProjects(ExternalProjectScrollCommand command) {
+    return externalProjectRepository.scroll(command);
+  }
+
+  public record ListingVersion(long count, Instant countedAt) {
+
+    public static final ListingVersion NONE = new ListingVersion(0, null);
+
+    public static ListingVersion of(ExternalProjectCounter counter) {
+      return new ListingVersion(counter.getCount(), counter.getUpdatedAt());
+    }
+  }
+
+  // ids are assigned in request order, so they also break ties of the shared createdAt in it
+  static List<ExternalProject> newExternalProjects(List<ExternalProjectCreateCommand> commands) {
+    Instant now = Instant.now();
+
+    return commands.stream().map(command -> newExternalProject(command, now)).toList();
+  }
+
+  static Map<String, Long> countPerUser(List<ExternalProject> externalProjects) {
+    return externalProjects.stream()
+        .collect(Collectors.groupingBy(ExternalProject::getUserId, Collectors.counting()));
+  }
+
+  // batched writes bypass auditing, so ids and timestamps are assigned here
+  private static ExternalProject newExternalProject(
+      ExternalProjectCreateCommand command, Instant now) {
+    return ExternalProject.builder()
+        .id(new ObjectId().toHexString())
+        .userId(command.userId())
+        .name(command.name())
+        .createdAt(now)
+        .updatedAt(now)
+        .build();
   }
 }
@@ -0,0 +1,100 @@
+package com.example.erm.service;
+
+import java.util.List;
+
+import org.bson.RawBsonDocument;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import com.example.erm.command.ExternalProjectCreateCommand;
+import com.example.erm.command.ExternalProjectListCommand;
+import com.example.erm.command.ExternalProjectScrollCommand;
+import com.example.erm.repository.ReactiveExternalProjectCounterRepository;
+import com.example.erm.repository.ReactiveExternalProjectRepository;
+import com.example.erm.repository.domain.ExternalProject;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// counterpart of ExternalProjectService for the reactive profile, building projects and listing
+// versions the same way
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveExternalProjectService {
+  private final ReactiveExternalProjectRepository externalProjectRepository;
+  private final ReactiveExternalProjectCounterRepository externalProjectCounterRepository;
+
+  public Mono<ExternalProject> createExternalProject(ExternalProjectCreateCommand command) {
+    log.debug("Creating external project. {}", command);
+
+    return externalProjectRepository
+        .insert(ExternalProject.builder().userId(command.userId()).name(command.name()).build())
+        // not atomic with the insert; drift is repaired by ExternalProjectCounterReconciler
+        .flatMap(
+            externalProject ->
+                externalProjectCounterRepository
+                    .increment(externalProject.getUserId(), 1)
+                    .thenReturn(externalProject))
+        .doOnNext(externalProject -> log.debug("Created external project. {}", externalProject));
+  }
+
+  public Mono<List<ExternalProject>> createExternalProjects(
+      List<ExternalProjectCreateCommand> commands) {
+    log.debug("Creating {} external projects", commands.size());
+
+    return externalProjectRepository
+        .insertAll(ExternalProjectService.newExternalProjects(commands))
+        .flatMap(
+            inserted ->
+                Flux.fromIterable(ExternalProjectService.countPerUser(inserted).entrySet())
+                    .concatMap(
+                        count ->
+                            externalProjectCounterRepository.increment(
+                                count.getKey(), count.getValue()))
+                    .then(Mono.just(inserted)))
+        .doOnNext(inserted -> log.debug("Created {} external projects", inserted.size()));
+  }
+
+  public Mono<Slice<ExternalProject>> listExternalProjects(ExternalProjectListCommand command) {
+    return withTotal(command, externalProjectRepository.list(command));
+  }
+
+  // see ExternalProjectService#listRawExternalProjects
+  public Mono<Slice<RawBsonDocument>> listRawExternalProjects(ExternalProjectListCommand command) {
+    return withTotal(command, externalProjectRepository.listRaw(command));
+  }
+
+  private <T> Mono<Slice<T>> withTotal(
+      ExternalProjectListCommand command, Mono<Slice<T>> externalProjects) {
+    if (!command.withTotal()) {
+      return externalProjects;
+    }
+
+    return externalProjects.zipWith(
+        externalProjectCounterRepository.count(command.userId()),
+        (slice, total) ->
+            PageableExecutionUtils.getPage(slice.getContent(), command.page(), () -> total));
+  }
+
+  // see ExternalProjectService#findListingVersion
+  public Mono<ExternalProjectService.ListingVersion> findListingVersion(String userId) {
+    return externalProjectCounterRepository
+        .findById(userId)
+        .map(ExternalProjectService.ListingVersion::of)
+        .defaultIfEmpty(ExternalProjectService.ListingVersion.NONE);
+  }
+
+  public Flux<ExternalProject> streamExternalProjects(String userId) {
+    return externalProjectRepository.streamByUserId(userId);
+  }
+
+  public Mono<Slice<ExternalProject>> scrollExternalProjects(ExternalProjectScrollCommand command) {
+    return externalProjectRepository.scroll(command);
+  }
+}
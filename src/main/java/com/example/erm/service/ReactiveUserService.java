@@ -0,0 +1,145 @@
+package com.example.erm.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.example.erm.command.UserCreateCommand;
+import com.example.erm.command.UserListCommand;
+import com.example.erm.command.UserUpdateCommand;
+import com.example.erm.event.UserChangedEvent;
+import com.example.erm.exception.UserModifiedException;
+import com.example.erm.repository.ReactiveUserDeletionRepository;
+import com.example.erm.repository.ReactiveUserRepository;
+import com.example.erm.repository.domain.User;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// counterpart of UserService for the reactive profile, building users and translating duplicate
+// emails the same way; password hashing and event listeners block, so they run on the bounded
+// elastic scheduler instead of the event loop
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveUserService {
+  private final ReactiveUserRepository userRepository;
+  private final ReactiveUserDeletionRepository userDeletionRepository;
+  private final PasswordEncoder passwordEncoder;
+  private final ApplicationEventPublisher eventPublisher;
+  private final UserService userService;
+
+  public Mono<User> createUser(UserCreateCommand command) {
+    log.debug("Creating user {}", command);
+
+    return encode(command.password())
+        .flatMap(password -> userRepository.insert(UserService.newUser(command, password)))
+        .onErrorMap(
+            DuplicateKeyException.class, e -> UserService.duplicateEmail("create", command.email()))
+        .flatMap(
+            user ->
+                publish(UserChangedEvent.of(user.getId(), user.getEmail())).thenReturn(user))
+        .doOnNext(user -> log.debug("Created user {}", user));
+  }
+
+  // chunks are hashed and bulk inserted by the blocking service, on the bounded elastic scheduler
+  public Mono<List<UserService.ImportedUser>> importUsers(List<UserCreateCommand> commands) {
+    return Mono.fromCallable(() -> userService.importUsers(commands))
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  public Mono<User> updateUser(UserUpdateCommand command) {
+    log.debug("Updating user {}", command);
+
+    return encode(command.password())
+        .flatMap(password -> userRepository.update(command.toBuilder().password(password).build()))
+        .onErrorMap(
+            DuplicateKeyException.class, e -> UserService.duplicateEmail("update", command.email()))
+        // repository returns the document as it was before the update, so both the previous and
+        // the new email get invalidated
+        .flatMap(
+            user ->
+                publish(UserChangedEvent.of(user.getId(), user.getEmail(), command.email()))
+                    .thenReturn(user))
+        .doOnNext(user -> log.debug("Updated user {}", user))
+        .switchIfEmpty(
+            Mono.defer(
+                () -> {
+                  log.debug("User to update not found. {}", command);
+                  return userModified(command);
+                }));
+  }
+
+  // the version condition failed if the user is still there
+  private Mono<User> userModified(UserUpdateCommand command) {
+    if (command.expectedVersion() == null) {
+      return Mono.empty();
+    }
+
+    return userRepository
+        .existsById(command.id())
+        .filter(Boolean::booleanValue)
+        .flatMap(exists -> Mono.error(new UserModifiedException(command.id())));
+  }
+
+  public Mono<User> findUserById(String id) {
+    return userRepository.findById(id);
+  }
+
+  // id, version and updatedAt only
+  public Mono<User> findUserVersionById(String id) {
+    return userRepository.findVersionById(id);
+  }
+
+  public Mono<Boolean> userExists(String id) {
+    return userRepository.existsById(id);
+  }
+
+  public Mono<Slice<User>> listUsers(UserListCommand command) {
+    return userRepository.list(command);
+  }
+
+  public Mono<User> findUserByEmail(String email) {
+    return userRepository.findByEmail(email);
+  }
+
+  public Mono<Boolean> deleteUserById(String id) {
+    log.debug("Deleting user with id {}", id);
+
+    // the user's external projects are removed in the background by UserDeletionCascade; it is
+    // scheduled first, so a failure in between cannot leave them behind
+    return userRepository
+        .existsById(id)
+        .filter(Boolean::booleanValue)
+        .flatMap(
+            exists ->
+                userDeletionRepository
+                    .schedule(id, Instant.now())
+                    .then(userRepository.deleteById(id)))
+        .flatMap(
+            user -> publish(UserChangedEvent.of(user.getId(), user.getEmail())).thenReturn(true))
+        .defaultIfEmpty(false)
+        .doOnNext(
+            deleted -> log.debug("User with id {} has {} been deleted", id, deleted ? "" : "not"));
+  }
+
+  private Mono<String> encode(String password) {
+    return Mono.fromCallable(() -> passwordEncoder.encode(password))
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+
+  private Mono<Void> publish(UserChangedEvent event) {
+    return Mono.fromRunnable(() -> eventPublisher.publishEvent(event))
+        .subscribeOn(Schedulers.boundedElastic())
+        .then();
+  }
+}
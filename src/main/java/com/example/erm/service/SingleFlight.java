@@ -0,0 +1,113 @@
+package com.example.erm.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent identical reads. The first caller of a key runs the read, callers arriving
+ * while it is in flight wait for it and get their own copy of its result or its exception. A caller
+ * waits at most the join timeout and then runs the read itself, so one stuck read does not hold
+ * every caller of its key. Nothing is kept once the read completes, so a later call always reads
+ * again.
+ */
+public class SingleFlight<K, V> {
+
+  static final String METER_NAME = "erm.single.flight.calls";
+  static final Duration DEFAULT_JOIN_TIMEOUT = Duration.ofSeconds(10);
+
+  private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+  // results are mutable entities, which callers must not share
+  private final UnaryOperator<V> copy;
+  private final Duration joinTimeout;
+  private final Counter executed;
+  private final Counter coalesced;
+  private final Counter timedOut;
+
+  public SingleFlight(String operation, UnaryOperator<V> copy, MeterRegistry meterRegistry) {
+    this(operation, copy, DEFAULT_JOIN_TIMEOUT, meterRegistry);
+  }
+
+  SingleFlight(
+      String operation, UnaryOperator<V> copy, Duration joinTimeout, MeterRegistry meterRegistry) {
+    this.copy = copy;
+    this.joinTimeout = joinTimeout;
+    this.executed = counter(operation, "executed", meterRegistry);
+    this.coalesced = counter(operation, "coalesced", meterRegistry);
+    this.timedOut = counter(operation, "timed-out", meterRegistry);
+  }
+
+  public V execute(K key, Supplier<V> read) {
+    CompletableFuture<V> call = new CompletableFuture<>();
+    CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+    if (inFlight != null) {
+      coalesced.increment();
+      try {
+        return copy.apply(await(inFlight));
+      } catch (TimeoutException e) {
+        timedOut.increment();
+        return read.get();
+      }
+    }
+
+    executed.increment();
+    V value;
+    try {
+      value = read.get();
+    } catch (RuntimeException | Error e) {
+      calls.remove(key, call);
+      call.completeExceptionally(e);
+      throw e;
+    }
+    // removed first, so nobody joins a read that has already finished
+    calls.remove(key, call);
+    call.complete(value);
+
+    return value;
+  }
+
+  // after a write, so callers arriving later do not get a read started before it
+  public void forget(K key) {
+    calls.remove(key);
+  }
+
+  public void forgetIf(Predicate<K> keys) {
+    calls.keySet().removeIf(keys);
+  }
+
+  private V await(CompletableFuture<V> inFlight) throws TimeoutException {
+    try {
+      return inFlight.get(joinTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new CompletionException(e.getCause());
+    }
+  }
+
+  private static Counter counter(String operation, String outcome, MeterRegistry meterRegistry) {
+    return Counter.builder(METER_NAME)
+        .description("Reads run or joined while an identical one was in flight")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
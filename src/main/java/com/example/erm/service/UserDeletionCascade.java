@@ -0,0 +1,117 @@
+package com.example.erm.service;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.repository.ExternalProjectCounterRepository;
+import com.example.erm.repository.ExternalProjectRepository;
+import com.example.erm.repository.UserDeletionRepository;
+import com.example.erm.repository.UserRepository;
+import com.example.erm.repository.domain.UserDeletion;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Removes the external projects of deleted users in the background. Every deletion is leased to
+ * one worker and its progress is stored with it, so it is picked up again after a restart or when
+ * the lease of a crashed node runs out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDeletionCascade implements MeterBinder {
+
+  private final String owner = UUID.randomUUID().toString();
+  private final AtomicLong deletedProjects = new AtomicLong();
+
+  private final UserDeletionRepository userDeletionRepository;
+  private final ExternalProjectRepository externalProjectRepository;
+  private final ExternalProjectCounterRepository externalProjectCounterRepository;
+  private final UserRepository userRepository;
+  private final ErmConfigurationProperties ermConfigurationProperties;
+
+  @Scheduled(fixedDelayString = "${erm.user-deletion.poll-interval:5s}")
+  public void run() {
+    Optional<UserDeletion> userDeletion;
+    while ((userDeletion = claim()).isPresent()) {
+      if (!cascade(userDeletion.get())) {
+        return;
+      }
+    }
+  }
+
+  // returns false if processing should stop
+  boolean cascade(UserDeletion userDeletion) {
+    String userId = userDeletion.getId();
+    ErmConfigurationProperties.UserDeletion settings = ermConfigurationProperties.userDeletion();
+    // deletions are scheduled before the user is deleted, so the user may still be there; after a
+    // lease it is not being deleted anymore, otherwise it is left to the next claim
+    if (userRepository.existsById(userId)) {
+      Instant lastRequestedAt = userDeletion.getLastRequestedAt();
+      if (lastRequestedAt == null
+          || lastRequestedAt.isBefore(Instant.now().minus(settings.lease()))) {
+        log.warn("User {} was not deleted after its deletion was scheduled", userId);
+        userDeletionRepository.abandon(userId, owner, lastRequestedAt);
+      }
+      return true;
+    }
+
+    log.debug("Deleting external projects of deleted user {}", userId);
+    while (true) {
+      long deleted = externalProjectRepository.deleteBatchByUserId(userId, settings.batchSize());
+      deletedProjects.addAndGet(deleted);
+      // a short batch is not the end yet, creates that passed their user check before the delete
+      // may still be inserting
+      if (deleted == 0) {
+        externalProjectCounterRepository.delete(userId);
+        userDeletionRepository.complete(userId, owner);
+        log.debug("Deleted external projects of deleted user {}", userId);
+        return true;
+      }
+
+      if (!userDeletionRepository.recordProgress(
+          userId, owner, deleted, Instant.now().plus(settings.lease()))) {
+        log.warn("Lost lease on deletion of user {}, leaving it to its new owner", userId);
+        return true;
+      }
+      // keeps a single user with many projects from saturating the database
+      try {
+        Thread.sleep(settings.pauseBetweenBatches());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder(
+            "erm.user.deletion.backlog",
+            userDeletionRepository,
+            UserDeletionRepository::countPending)
+        .description("deleted users whose external projects are not removed yet")
+        .register(registry);
+    FunctionCounter.builder("erm.user.deletion.deleted.projects", deletedProjects, AtomicLong::get)
+        .description("external projects removed after their user was deleted")
+        .register(registry);
+  }
+
+  private Optional<UserDeletion> claim() {
+    Instant now = Instant.now();
+
+    return userDeletionRepository.claim(
+        owner, now, now.plus(ermConfigurationProperties.userDeletion().lease()));
+  }
+}
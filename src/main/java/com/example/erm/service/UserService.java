@@ -1,47 +1,125 @@
 package com.example.erm.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.example.erm.command.UserCreateCommand;
+import com.example.erm.command.UserListCommand;
 import com.example.erm.command.UserUpdateCommand;
+import com.example.erm.event.UserChangedEvent;
 import com.example.erm.exception.DuplicateEmailException;
+import com.example.erm.exception.UserModifiedException;
+import com.example.erm.repository.UserDeletionRepository;
 import com.example.erm.repository.UserRepository;
 import com.example.erm.repository.domain.User;
-import com.mongodb.client.result.DeleteResult;
+import com.example.erm.security.ParallelPasswordEncoder;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class UserService {
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ParallelPasswordEncoder parallelPasswordEncoder;
+  private final UserDeletionRepository userDeletionRepository;
+  // a reloading dashboard asks for the same user many times at once
+  private final SingleFlight<String, Optional<User>> usersById;
+  private final SingleFlight<String, Optional<User>> usersByEmail;
+
+  public UserService(
+      UserRepository userRepository,
+      PasswordEncoder passwordEncoder,
+      ApplicationEventPublisher eventPublisher,
+      ParallelPasswordEncoder parallelPasswordEncoder,
+      UserDeletionRepository userDeletionRepository,
+      MeterRegistry meterRegistry) {
+    this.userRepository = userRepository;
+    this.passwordEncoder = passwordEncoder;
+    this.eventPublisher = eventPublisher;
+    this.parallelPasswordEncoder = parallelPasswordEncoder;
+    this.userDeletionRepository = userDeletionRepository;
+    this.usersById = new SingleFlight<>("user-by-id", UserService::copy, meterRegistry);
+    this.usersByEmail = new SingleFlight<>("user-by-email", UserService::copy, meterRegistry);
+  }
 
   public User createUser(UserCreateCommand command) {
     try {
       log.debug("Creating user {}", command);
       User user =
-          userRepository.insert(
-              User.builder()
-                  .email(command.email())
-                  .name(command.name())
-                  .password(passwordEncoder.encode(command.password()))
-                  .roles(command.roles())
-                  .build());
+          userRepository.insert(newUser(command, passwordEncoder.encode(command.password())));
       log.debug("Created user {}", user);
+      eventPublisher.publishEvent(UserChangedEvent.of(user.getId(), user.getEmail()));
 
       return user;
     } catch (DuplicateKeyException e) {
-      // simplified assumption; for now only email has unique index
-      log.debug("Unable to create user. user with email {} already exists", command.email());
-      throw new DuplicateEmailException(command.email());
+      throw duplicateEmail("create", command.email());
+    }
+  }
+
+  public List<ImportedUser> importUsers(List<UserCreateCommand> commands) {
+    log.debug("Importing {} users", commands.size());
+    List<String> encodedPasswords =
+        parallelPasswordEncoder.encodeAll(
+            commands.stream().map(UserCreateCommand::password).toList());
+    // ids are assigned upfront, bulk inserts do not report them back; with an id present auditing
+    // treats the users as not new, hence the explicit createdAt
+    Instant now = Instant.now();
+    List<User> users =
+        IntStream.range(0, commands.size())
+            .mapToObj(
+                i ->
+                    User.builder()
+                        .id(new ObjectId().toHexString())
+                        .email(commands.get(i).email())
+                        .name(commands.get(i).name())
+                        .password(encodedPasswords.get(i))
+                        .roles(commands.get(i).roles())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+            .toList();
+
+    Map<Integer, BulkWriteError> errors =
+        userRepository.insertAll(users).stream()
+            .collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity()));
+
+    List<ImportedUser> importedUsers = new ArrayList<>(users.size());
+    for (int i = 0; i < users.size(); i++) {
+      User user = users.get(i);
+      BulkWriteError error = errors.get(i);
+      if (error == null) {
+        eventPublisher.publishEvent(UserChangedEvent.of(user.getId(), user.getEmail()));
+        importedUsers.add(new ImportedUser(user.getId(), user.getEmail(), ImportStatus.CREATED));
+      } else if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+        // simplified assumption; for now only email has unique index
+        importedUsers.add(new ImportedUser(null, user.getEmail(), ImportStatus.DUPLICATE_EMAIL));
+      } else {
+        log.warn("Unable to import user {}. {}", user.getEmail(), error.getMessage());
+        importedUsers.add(new ImportedUser(null, user.getEmail(), ImportStatus.FAILED));
+      }
     }
+    log.debug("Imported {} of {} users", users.size() - errors.size(), users.size());
+
+    return importedUsers;
   }
 
   public Optional<User> updateUser(UserUpdateCommand command) {
@@ -54,33 +132,104 @@ public class UserService {
                       .password(passwordEncoder.encode(command.password()))
                       .build()));
       updatedUser.ifPresentOrElse(
-          user -> log.debug("Updated user {}", user),
+          user -> {
+            log.debug("Updated user {}", user);
+            // repository returns the document as it was before the update, so both the previous
+            // and the new email get invalidated
+            eventPublisher.publishEvent(
+                UserChangedEvent.of(user.getId(), user.getEmail(), command.email()));
+          },
           () -> {
             log.debug("User to update not found. {}", command);
           });
+      // the version condition failed if the user is still there
+      if (updatedUser.isEmpty()
+          && command.expectedVersion() != null
+          && userRepository.existsById(command.id())) {
+        throw new UserModifiedException(command.id());
+      }
       return updatedUser;
     } catch (DuplicateKeyException e) {
-      // simplified assumption; for now only email has unique index
-      log.debug("Unable to update user. user with email {} already exists", command.email());
-      throw new DuplicateEmailException(command.email());
+      throw duplicateEmail("update", command.email());
     }
   }
 
   public Optional<User> findUserById(String id) {
-    return userRepository.findById(id);
+    return usersById.execute(id, () -> userRepository.findById(id));
+  }
+
+  // id, version and updatedAt only
+  public Optional<User> findUserVersionById(String id) {
+    return userRepository.findVersionById(id);
+  }
+
+  public boolean userExists(String id) {
+    return userRepository.existsById(id);
+  }
+
+  public Slice<User> listUsers(UserListCommand command) {
+    return userRepository.list(command);
   }
 
   public Optional<User> findUserByEmail(String email) {
-    return userRepository.findByEmail(email);
+    return usersByEmail.execute(email, () -> userRepository.findByEmail(email));
   }
 
   public boolean deleteUserById(String id) {
     log.debug("Deleting user with id {}", id);
-    DeleteResult deleteResult = userRepository.deleteById(id);
+    if (!userRepository.existsById(id)) {
+      log.debug("User with id {} has not been deleted", id);
+      return false;
+    }
+    // the user's external projects are removed in the background by UserDeletionCascade; it is
+    // scheduled first, so a failure in between cannot leave them behind
+    userDeletionRepository.schedule(id, Instant.now());
+    Optional<User> deletedUser = userRepository.deleteById(id);
+    deletedUser.ifPresent(
+        user -> eventPublisher.publishEvent(UserChangedEvent.of(user.getId(), user.getEmail())));
 
-    boolean deleted = deleteResult.wasAcknowledged() && deleteResult.getDeletedCount() > 0;
+    boolean deleted = deletedUser.isPresent();
     log.debug("User with id {} has {} been deleted", id, deleted ? "" : "not");
 
     return deleted;
   }
+
+  @EventListener
+  public void onUserChanged(UserChangedEvent event) {
+    usersById.forget(event.userId());
+    event.emails().forEach(usersByEmail::forget);
+  }
+
+  static User newUser(UserCreateCommand command, String encodedPassword) {
+    return User.builder()
+        .email(command.email())
+        .name(command.name())
+        .password(encodedPassword)
+        .roles(command.roles())
+        .build();
+  }
+
+  // simplified assumption; for now only email has unique index
+  static DuplicateEmailException duplicateEmail(String operation, String email) {
+    log.debug("Unable to {} user. user with email {} already exists", operation, email);
+
+    return new DuplicateEmailException(email);
+  }
+
+  // roles are copied too, the list of a loaded user is mutable
+  private static Optional<User> copy(Optional<User> user) {
+    return user.map(
+        found ->
+            found.toBuilder()
+                .roles(found.getRoles() == null ? null : new ArrayList<>(found.getRoles()))
+                .build());
+  }
+
+  public record ImportedUser(String id, String email, ImportStatus status) {}
+
+  public enum ImportStatus {
+    CREATED,
+    DUPLICATE_EMAIL,
+    FAILED
+  }
 }
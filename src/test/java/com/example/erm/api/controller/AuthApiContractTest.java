@@ -0,0 +1,97 @@
+package com.example.erm.api.controller;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.erm.repository.domain.User;
+import com.example.erm.security.AccessTokenService;
+
+// the auth api as both stacks serve it; AuthApiControllerTest and ReactiveAuthApiControllerTest
+// run it against their controllers
+abstract class AuthApiContractTest {
+
+  private static final User TEST_USER =
+      User.builder()
+          .id("123")
+          .email("john@example.com")
+          .password("secret")
+          .name("John")
+          .roles(List.of("USER"))
+          .build();
+
+  @Autowired private AccessTokenService accessTokenService;
+
+  abstract WebTestClient client();
+
+  // makes the user known to the authentication of the stack
+  abstract void givenUser(User user);
+
+  @WithMockUser(username = "john@example.com")
+  @Test
+  void testCreateAccessToken() {
+    client()
+        .post()
+        .uri("/api/auth/token")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.accessToken")
+        .isNotEmpty()
+        .jsonPath("$.tokenType")
+        .isEqualTo("Bearer")
+        .jsonPath("$.expiresIn")
+        .isEqualTo(900);
+  }
+
+  @Test
+  void testCreateAccessTokenUnauthenticated() {
+    client().post().uri("/api/auth/token").exchange().expectStatus().isUnauthorized();
+  }
+
+  @Test
+  void testBearerTokenAuthenticatesRequest() {
+    givenUser(TEST_USER);
+    String accessToken = accessTokenService.issue(TEST_USER.getEmail()).value();
+
+    client()
+        .get()
+        .uri("/api/user/me")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.email")
+        .isEqualTo(TEST_USER.getEmail());
+  }
+
+  @Test
+  void testInvalidBearerTokenIsRejected() {
+    client()
+        .get()
+        .uri("/api/user/me")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer invalid")
+        .exchange()
+        .expectStatus()
+        .isUnauthorized();
+  }
+
+  @Test
+  void testBearerTokenCannotBeExchangedForNewToken() {
+    String accessToken = accessTokenService.issue(TEST_USER.getEmail()).value();
+
+    client()
+        .post()
+        .uri("/api/auth/token")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+        .exchange()
+        .expectStatus()
+        .isUnauthorized();
+  }
+}
@@ -0,0 +1,51 @@
+package com.example.erm.api.controller;
+
+import static org.mockito.Mockito.doReturn;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+
+import com.example.erm.api.GlobalExceptionHandler;
+import com.example.erm.api.mapper.UserApiMapperImpl;
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.configuration.SecurityConfiguration;
+import com.example.erm.repository.domain.User;
+import com.example.erm.security.ErmUserDetails;
+import com.example.erm.service.UserService;
+
+@AutoConfigureMockMvc
+@WebMvcTest(controllers = {AuthApiController.class, UserApiController.class})
+@Import({
+  UserApiMapperImpl.class,
+  SecurityConfiguration.class,
+  GlobalExceptionHandler.class,
+  ProblemDetailFactory.class
+})
+class AuthApiControllerTest extends AuthApiContractTest {
+
+  @Autowired private MockMvc mvc;
+
+  @MockitoBean private UserService userService;
+
+  @MockitoBean private UserDetailsService userDetailsService;
+
+  @Override
+  WebTestClient client() {
+    return MockMvcWebTestClient.bindTo(mvc).build();
+  }
+
+  @Override
+  void givenUser(User user) {
+    doReturn(ErmUserDetails.of(user)).when(userDetailsService).loadUserByUsername(user.getEmail());
+    doReturn(Optional.of(user)).when(userService).findUserByEmail(user.getEmail());
+  }
+}
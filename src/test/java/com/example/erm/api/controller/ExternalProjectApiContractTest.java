@@ -0,0 +1,534 @@
+package com.example.erm.api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.erm.api.util.ApiMediaTypes;
+import com.example.erm.api.util.ExternalProjectCursors;
+import com.example.erm.command.ExternalProjectCreateCommand;
+import com.example.erm.command.ExternalProjectListCommand;
+import com.example.erm.command.ExternalProjectScrollCommand;
+import com.example.erm.repository.domain.ExternalProject;
+import com.example.erm.security.WithMockErmUser;
+import com.example.erm.service.ExternalProjectService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+// the external project api as both stacks serve it; ExternalProjectApiControllerTest and
+// ReactiveExternalProjectApiControllerTest run it against their controllers and services
+abstract class ExternalProjectApiContractTest {
+
+  private static final ExternalProjectService.ListingVersion LISTING_VERSION =
+      new ExternalProjectService.ListingVersion(2, Instant.ofEpochMilli(1000));
+
+  abstract WebTestClient client();
+
+  abstract Object userService();
+
+  abstract Object externalProjectService();
+
+  abstract void givenUserExists(String userId, boolean exists);
+
+  abstract void givenListingVersion(ExternalProjectService.ListingVersion listingVersion);
+
+  abstract void givenCreated(ExternalProject externalProject);
+
+  abstract void givenCreated(List<ExternalProject> externalProjects);
+
+  abstract void givenListed(Slice<ExternalProject> externalProjects);
+
+  abstract void givenScrolled(Slice<ExternalProject> externalProjects);
+
+  abstract void givenExported(String userId, List<ExternalProject> externalProjects);
+
+  @BeforeEach
+  void setUp() {
+    givenListingVersion(LISTING_VERSION);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testAddExternalProjectToUser() {
+    String userId = UUID.randomUUID().toString();
+    Instant now = Instant.now();
+    givenUserExists(userId, true);
+    givenCreated(new ExternalProject("1", userId, "my-project", now, now));
+
+    client()
+        .post()
+        .uri("/api/user/" + userId + "/external-project")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {
+                "name": "my-project"
+            }
+            """)
+        .exchange()
+        .expectStatus()
+        .isCreated()
+        .expectBody()
+        .jsonPath("$.name")
+        .isEqualTo("my-project");
+
+    ExternalProjectCreateCommand command =
+        ServiceCalls.argumentOf(externalProjectService(), "createExternalProject");
+    assertThat(command.userId()).isEqualTo(userId);
+    assertThat(command.name()).isEqualTo("my-project");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testAddExternalProjectToUnknownUser() {
+    String userId = UUID.randomUUID().toString();
+    givenUserExists(userId, false);
+
+    client()
+        .post()
+        .uri("/api/user/" + userId + "/external-project")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {
+                "name": "my-project"
+            }
+            """)
+        .exchange()
+        .expectStatus()
+        .isNotFound();
+
+    verifyNoInteractions(externalProjectService());
+  }
+
+  @WithMockErmUser(id = "123", username = "me@myself.com")
+  @Test
+  void testAddExternalProjectToCurrentUser() {
+    Instant now = Instant.now();
+    givenCreated(new ExternalProject("1", "123", "my-project", now, now));
+
+    client()
+        .post()
+        .uri("/api/user/me/external-project")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {
+                "name": "my-project"
+            }
+            """)
+        .exchange()
+        .expectStatus()
+        .isCreated();
+
+    ExternalProjectCreateCommand command =
+        ServiceCalls.argumentOf(externalProjectService(), "createExternalProject");
+    assertThat(command.userId()).isEqualTo("123");
+    assertThat(command.name()).isEqualTo("my-project");
+    verifyNoInteractions(userService());
+  }
+
+  @WithMockErmUser(id = "123", username = "me@myself.com")
+  @Test
+  void testAddExternalProjectToCurrentUserInCbor() throws Exception {
+    Instant now = Instant.now();
+    givenCreated(new ExternalProject("1", "123", "my-project", now, now));
+    byte[] body = new CBORMapper().writeValueAsBytes(Map.of("name", "my-project"));
+
+    client()
+        .post()
+        .uri("/api/user/me/external-project")
+        .contentType(MediaType.valueOf(ApiMediaTypes.CBOR))
+        .accept(MediaType.valueOf(ApiMediaTypes.CBOR))
+        .bodyValue(body)
+        .exchange()
+        .expectStatus()
+        .isCreated()
+        .expectHeader()
+        .contentTypeCompatibleWith(ApiMediaTypes.CBOR);
+
+    ExternalProjectCreateCommand command =
+        ServiceCalls.argumentOf(externalProjectService(), "createExternalProject");
+    assertThat(command.name()).isEqualTo("my-project");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testAddExternalProjectsToUserInBatch() {
+    String userId = UUID.randomUUID().toString();
+    Instant now = Instant.now();
+    givenUserExists(userId, true);
+    givenCreated(
+        List.of(
+            new ExternalProject("1", userId, "first-project", now, now),
+            new ExternalProject("2", userId, "second-project", now, now)));
+
+    client()
+        .post()
+        .uri("/api/user/" + userId + "/external-project:batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {"items": [{"name": "first-project"}, {"name": "second-project"}]}
+            """)
+        .exchange()
+        .expectStatus()
+        .isCreated()
+        .expectBody()
+        .jsonPath("$.items.length()")
+        .isEqualTo(2)
+        .jsonPath("$.items[0].name")
+        .isEqualTo("first-project")
+        .jsonPath("$.items[1].name")
+        .isEqualTo("second-project");
+
+    List<ExternalProjectCreateCommand> commands =
+        ServiceCalls.argumentOf(externalProjectService(), "createExternalProjects");
+    assertThat(commands)
+        .containsExactly(
+            new ExternalProjectCreateCommand(userId, "first-project"),
+            new ExternalProjectCreateCommand(userId, "second-project"));
+    assertThat(ServiceCalls.methodsCalled(userService())).containsExactly("userExists");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testAddExternalProjectsToUserInBatchValidationError() {
+    String userId = UUID.randomUUID().toString();
+    givenUserExists(userId, true);
+
+    client()
+        .post()
+        .uri("/api/user/" + userId + "/external-project:batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {"items": [{"name": "first-project"}, {"name": ""}]}
+            """)
+        .exchange()
+        .expectStatus()
+        .isBadRequest();
+
+    verifyNoInteractions(externalProjectService());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testListExternalProjectsOfUser() {
+    String userId = UUID.randomUUID().toString();
+    Instant now = Instant.now();
+    givenUserExists(userId, true);
+    givenListed(
+        new PageImpl<>(
+            List.of(
+                new ExternalProject(UUID.randomUUID().toString(), userId, "my-project", now, now),
+                new ExternalProject(
+                    UUID.randomUUID().toString(),
+                    userId,
+                    "another-project",
+                    now.minusSeconds(1),
+                    now.minusSeconds(1)))));
+
+    client()
+        .get()
+        .uri("/api/user/" + userId + "/external-project")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items")
+        .isArray()
+        .jsonPath("$.items.length()")
+        .isEqualTo(2)
+        .jsonPath("$.items[0].name")
+        .isEqualTo("my-project")
+        .jsonPath("$.items[1].name")
+        .isEqualTo("another-project");
+  }
+
+  @WithMockErmUser(id = "123", username = "me@myself.com")
+  @Test
+  void testListExternalProjectsNotModified() {
+    givenListed(new SliceImpl<>(List.of()));
+    String etag =
+        client()
+            .get()
+            .uri("/api/user/me/external-project")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(String.class)
+            .getResponseHeaders()
+            .getETag();
+
+    client()
+        .get()
+        .uri("/api/user/me/external-project")
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .exchange()
+        .expectStatus()
+        .isNotModified()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, etag)
+        .expectHeader()
+        .valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+        .expectBody()
+        .isEmpty();
+
+    assertThat(ServiceCalls.methodsCalled(externalProjectService()))
+        .containsOnlyOnce("listExternalProjects");
+  }
+
+  @WithMockErmUser(id = "123", username = "me@myself.com")
+  @Test
+  void testListExternalProjectsOfCurrentUser() {
+    String userId = "123";
+    Instant now = Instant.now();
+    givenListed(
+        new PageImpl<>(
+            List.of(
+                new ExternalProject(
+                    UUID.randomUUID().toString(), userId, "first-project", now, now),
+                new ExternalProject(
+                    UUID.randomUUID().toString(),
+                    userId,
+                    "second-project",
+                    now.minusSeconds(1),
+                    now.minusSeconds(1)),
+                new ExternalProject(
+                    UUID.randomUUID().toString(),
+                    userId,
+                    "third-project",
+                    now.minusSeconds(10),
+                    now.minusSeconds(10)))));
+
+    client()
+        .get()
+        .uri("/api/user/me/external-project?page=0&size=10")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items")
+        .isArray()
+        .jsonPath("$.items.length()")
+        .isEqualTo(3)
+        .jsonPath("$.items[0].name")
+        .isEqualTo("first-project")
+        .jsonPath("$.items[1].name")
+        .isEqualTo("second-project")
+        .jsonPath("$.items[2].name")
+        .isEqualTo("third-project")
+        .jsonPath("$.page.totalElements")
+        .isEqualTo(3);
+
+    ExternalProjectListCommand command =
+        ServiceCalls.argumentOf(externalProjectService(), "listExternalProjects");
+    assertThat(command.userId()).isEqualTo(userId);
+    assertThat(command.page().getPageSize()).isEqualTo(10);
+    verifyNoInteractions(userService());
+  }
+
+  @WithMockErmUser(id = "123", username = "me@myself.com")
+  @Test
+  void testListExternalProjectsOfCurrentUserInCbor() throws Exception {
+    Instant now = Instant.now();
+    givenListed(
+        new PageImpl<>(List.of(new ExternalProject("1", "123", "first-project", now, now))));
+
+    byte[] content =
+        client()
+            .get()
+            .uri("/api/user/me/external-project")
+            .accept(MediaType.valueOf(ApiMediaTypes.CBOR))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(ApiMediaTypes.CBOR)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+    JsonNode response = new CBORMapper().readTree(content);
+    assertThat(response.at("/items/0/name").asText()).isEqualTo("first-project");
+    assertThat(response.at("/page/totalElements").asLong()).isEqualTo(1);
+  }
+
+  @WithMockErmUser(id = "123", username = "me@myself.com")
+  @Test
+  void testListExternalProjectsOfCurrentUserWithoutTotal() {
+    Instant now = Instant.now();
+    givenListed(
+        new SliceImpl<>(
+            List.of(
+                new ExternalProject(
+                    UUID.randomUUID().toString(), "123", "first-project", now, now)),
+            PageRequest.ofSize(1),
+            true));
+
+    client()
+        .get()
+        .uri("/api/user/me/external-project?withTotal=false")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items.length()")
+        .isEqualTo(1)
+        .jsonPath("$.page.totalElements")
+        .isEmpty()
+        .jsonPath("$.page.last")
+        .isEqualTo(false);
+
+    ExternalProjectListCommand command =
+        ServiceCalls.argumentOf(externalProjectService(), "listExternalProjects");
+    assertThat(command.withTotal()).isFalse();
+  }
+
+  @WithMockErmUser(id = "123", username = "me@myself.com")
+  @Test
+  void testScrollExternalProjectsOfCurrentUser() {
+    String userId = "123";
+    Instant now = Instant.now();
+    ExternalProject first =
+        new ExternalProject(new ObjectId().toHexString(), userId, "first-project", now, now);
+    ExternalProject second =
+        new ExternalProject(
+            new ObjectId().toHexString(),
+            userId,
+            "second-project",
+            now.plusSeconds(1),
+            now.plusSeconds(1));
+    givenScrolled(new SliceImpl<>(List.of(first, second), PageRequest.ofSize(2), true));
+    String after = ExternalProjectCursors.encode(first);
+
+    client()
+        .get()
+        .uri("/api/user/me/external-project?after=" + after + "&size=2")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items.length()")
+        .isEqualTo(2)
+        .jsonPath("$.items[0].name")
+        .isEqualTo("first-project")
+        .jsonPath("$.items[1].name")
+        .isEqualTo("second-project")
+        .jsonPath("$.page.size")
+        .isEqualTo(2)
+        .jsonPath("$.page.last")
+        .isEqualTo(false)
+        .jsonPath("$.page.nextCursor")
+        .isEqualTo(ExternalProjectCursors.encode(second));
+
+    ExternalProjectScrollCommand command =
+        ServiceCalls.argumentOf(externalProjectService(), "scrollExternalProjects");
+    assertThat(command.userId()).isEqualTo(userId);
+    assertThat(command.after().id()).isEqualTo(first.getId());
+    assertThat(command.after().createdAt().toEpochMilli()).isEqualTo(now.toEpochMilli());
+    assertThat(command.size()).isEqualTo(2);
+  }
+
+  @WithMockErmUser(id = "123", username = "me@myself.com")
+  @Test
+  void testScrollExternalProjectsWithInvalidCursor() {
+    client()
+        .get()
+        .uri("/api/user/me/external-project?after=not-a-cursor")
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.title")
+        .isEqualTo("Invalid cursor");
+
+    verifyNoInteractions(externalProjectService());
+  }
+
+  @WithMockErmUser(id = "123", username = "me@myself.com")
+  @Test
+  void testScrollExternalProjectsWithInvalidCursorInSmile() throws Exception {
+    byte[] content =
+        client()
+            .get()
+            .uri("/api/user/me/external-project?after=not-a-cursor")
+            .accept(MediaType.valueOf(ApiMediaTypes.SMILE))
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectHeader()
+            .contentTypeCompatibleWith(ApiMediaTypes.SMILE)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+    assertThat(new SmileMapper().readTree(content).path("title").asText())
+        .isEqualTo("Invalid cursor");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testExportExternalProjectsOfUser() {
+    String userId = UUID.randomUUID().toString();
+    Instant now = Instant.now();
+    givenUserExists(userId, true);
+    givenExported(
+        userId,
+        List.of(
+            new ExternalProject("1", userId, "first-project", now, now),
+            new ExternalProject("2", userId, "second-project", now, now)));
+
+    String content =
+        client()
+            .get()
+            .uri("/api/user/" + userId + "/external-project/export")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+    assertThat(content.lines())
+        .hasSize(2)
+        .allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"));
+    assertThat(content).endsWith("\n").contains("first-project").contains("second-project");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testExportExternalProjectsOfUnknownUser() {
+    String userId = UUID.randomUUID().toString();
+    givenUserExists(userId, false);
+
+    client()
+        .get()
+        .uri("/api/user/" + userId + "/external-project/export")
+        .exchange()
+        .expectStatus()
+        .isNotFound();
+
+    verifyNoInteractions(externalProjectService());
+  }
+}
@@ -0,0 +1,204 @@
+package com.example.erm.api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.erm.event.ExternalProjectChangedEvent;
+import com.example.erm.repository.domain.ExternalProject;
+import com.example.erm.security.WithMockErmUser;
+import com.example.erm.service.ExternalProjectEventBroadcaster;
+import com.example.erm.service.ExternalProjectEventBroadcaster.Subscription;
+
+// the event stream as both stacks serve it; ExternalProjectEventApiControllerTest and
+// ReactiveExternalProjectEventApiControllerTest run it against their controllers
+abstract class ExternalProjectEventApiContractTest {
+
+  private static final Instant CREATED_AT = Instant.parse("2025-04-01T15:03:19.379Z");
+
+  @MockitoBean private ExternalProjectEventBroadcaster externalProjectEventBroadcaster;
+
+  abstract WebTestClient client();
+
+  abstract void givenUserExists(String userId, boolean exists);
+
+  @WithMockErmUser(id = "123")
+  @Test
+  void testEventsAreFramedAsServerSentEvents() {
+    Subscription subscription = subscription(false, List.of());
+    subscribeWith(
+        subscription,
+        Duration.ZERO,
+        event(1, ExternalProjectChangedEvent.Type.CREATED),
+        event(2, ExternalProjectChangedEvent.Type.UPDATED));
+
+    String content = streamEvents("/api/user/me/external-project/events", null);
+
+    assertThat(content)
+        .startsWith("id:1\nevent:created\ndata:{")
+        .contains("\"name\":\"project-1\"")
+        .contains("}\n\nid:2\nevent:updated\ndata:{")
+        .contains("\"name\":\"project-2\"")
+        .endsWith("}\n\n");
+    verify(externalProjectEventBroadcaster).subscribe(eq("123"), isNull(), any());
+    verify(externalProjectEventBroadcaster).unsubscribe(subscription);
+  }
+
+  @WithMockErmUser(id = "123")
+  @Test
+  void testEventsAfterLastEventIdAreReplayedFirst() {
+    subscribeWith(
+        subscription(false, List.of(event(2, ExternalProjectChangedEvent.Type.CREATED))),
+        Duration.ZERO,
+        event(3, ExternalProjectChangedEvent.Type.UPDATED));
+
+    String content = streamEvents("/api/user/me/external-project/events", "1");
+
+    assertThat(content).startsWith("id:2\nevent:created\n").contains("\n\nid:3\nevent:updated\n");
+    verify(externalProjectEventBroadcaster).subscribe(eq("123"), eq("1"), any());
+  }
+
+  @WithMockErmUser(id = "123")
+  @Test
+  void testResetIsSentWhenEventsAfterLastEventIdAreNotKnown() {
+    subscribeWith(subscription(true, List.of()), Duration.ZERO);
+
+    String content = streamEvents("/api/user/me/external-project/events", "1");
+
+    assertThat(content).isEqualTo("event:reset\ndata:\n\n");
+  }
+
+  @WithMockErmUser(id = "123")
+  @Test
+  void testHeartbeatIsSentWhileNothingChanges() {
+    subscribeWith(subscription(false, List.of()), Duration.ofMillis(300));
+
+    String content = streamEvents("/api/user/me/external-project/events", null);
+
+    assertThat(content).startsWith(":\n\n");
+    assertThat(content.replace(":\n\n", "")).isEmpty();
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testStreamEventsOfUser() {
+    String userId = UUID.randomUUID().toString();
+    givenUserExists(userId, true);
+    subscribeWith(subscription(false, List.of()), Duration.ZERO);
+
+    streamEvents("/api/user/" + userId + "/external-project/events", null);
+
+    verify(externalProjectEventBroadcaster).subscribe(eq(userId), isNull(), any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testStreamEventsOfUnknownUser() {
+    String userId = UUID.randomUUID().toString();
+    givenUserExists(userId, false);
+
+    client()
+        .get()
+        .uri("/api/user/" + userId + "/external-project/events")
+        .exchange()
+        .expectStatus()
+        .isNotFound();
+
+    verifyNoInteractions(externalProjectEventBroadcaster);
+  }
+
+  @WithMockErmUser(id = "123")
+  @Test
+  void testStreamEventsOfUserIsForbiddenForNonAdmin() {
+    client()
+        .get()
+        .uri("/api/user/456/external-project/events")
+        .exchange()
+        .expectStatus()
+        .isForbidden();
+
+    verifyNoInteractions(externalProjectEventBroadcaster);
+  }
+
+  private String streamEvents(String uri, String lastEventId) {
+    String content =
+        client()
+            .get()
+            .uri(uri)
+            .headers(
+                headers -> {
+                  if (lastEventId != null) {
+                    headers.set("Last-Event-ID", lastEventId);
+                  }
+                })
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+    // the servlet stack writes a space after the field name, the reactive one does not
+    return content.replace(": ", ":");
+  }
+
+  // hands the live events to the receiver on subscription and ends the stream after endAfter
+  private void subscribeWith(
+      Subscription subscription, Duration endAfter, ExternalProjectChangedEvent... live) {
+    doAnswer(
+            invocation -> {
+              ExternalProjectEventBroadcaster.Receiver receiver = invocation.getArgument(2);
+              for (ExternalProjectChangedEvent event : live) {
+                receiver.offer(event);
+              }
+              if (endAfter.isZero()) {
+                receiver.dropped();
+              } else {
+                CompletableFuture.delayedExecutor(endAfter.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(receiver::dropped);
+              }
+              return subscription;
+            })
+        .when(externalProjectEventBroadcaster)
+        .subscribe(any(), any(), any());
+  }
+
+  private static Subscription subscription(
+      boolean reset, List<ExternalProjectChangedEvent> replay) {
+    Subscription subscription = mock(Subscription.class);
+    doReturn(reset).when(subscription).isReset();
+    doReturn(replay).when(subscription).getReplay();
+
+    return subscription;
+  }
+
+  private static ExternalProjectChangedEvent event(
+      long position, ExternalProjectChangedEvent.Type type) {
+    return new ExternalProjectChangedEvent(
+        position,
+        type,
+        new ExternalProject(
+            Long.toString(position), "123", "project-" + position, CREATED_AT, CREATED_AT));
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.erm.api.controller;
+
+import static org.mockito.Mockito.doReturn;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+
+import com.example.erm.api.GlobalExceptionHandler;
+import com.example.erm.api.mapper.ExternalProjectApiMapperImpl;
+import com.example.erm.api.mapper.UserApiMapperImpl;
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.configuration.JacksonSerializationConfiguration;
+import com.example.erm.configuration.SecurityConfiguration;
+import com.example.erm.service.UserService;
+
+@AutoConfigureMockMvc
+@WebMvcTest(
+    controllers = {ExternalProjectEventApiController.class},
+    properties = {
+      "erm.external-project.events.enabled=true",
+      "erm.external-project.events.heartbeat-interval=50ms"
+    })
+@Import({
+  UserApiMapperImpl.class,
+  ExternalProjectApiMapperImpl.class,
+  SecurityConfiguration.class,
+  GlobalExceptionHandler.class,
+  ProblemDetailFactory.class,
+  JacksonSerializationConfiguration.class
+})
+class ExternalProjectEventApiControllerTest extends ExternalProjectEventApiContractTest {
+
+  @Autowired private MockMvc mvc;
+
+  @MockitoBean private UserService userService;
+
+  @MockitoBean private UserDetailsService userDetailsService;
+
+  @Override
+  WebTestClient client() {
+    return MockMvcWebTestClient.bindTo(mvc).build();
+  }
+
+  @Override
+  void givenUserExists(String userId, boolean exists) {
+    doReturn(exists).when(userService).userExists(userId);
+  }
+}
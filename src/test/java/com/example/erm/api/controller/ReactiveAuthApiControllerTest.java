@@ -0,0 +1,48 @@
+package com.example.erm.api.controller;
+
+import static org.mockito.Mockito.doReturn;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.erm.api.GlobalExceptionHandler;
+import com.example.erm.api.mapper.UserApiMapperImpl;
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.configuration.ReactiveSecurityConfiguration;
+import com.example.erm.repository.domain.User;
+import com.example.erm.security.ErmUserDetails;
+import com.example.erm.service.ReactiveUserService;
+
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(controllers = {ReactiveAuthApiController.class, ReactiveUserApiController.class})
+@Import({
+  UserApiMapperImpl.class,
+  ReactiveSecurityConfiguration.class,
+  GlobalExceptionHandler.class,
+  ProblemDetailFactory.class
+})
+class ReactiveAuthApiControllerTest extends AuthApiContractTest {
+
+  @Autowired private WebTestClient client;
+
+  @MockitoBean private ReactiveUserService userService;
+
+  @MockitoBean private ReactiveUserDetailsService userDetailsService;
+
+  @Override
+  WebTestClient client() {
+    return client;
+  }
+
+  @Override
+  void givenUser(User user) {
+    doReturn(Mono.just(ErmUserDetails.of(user)))
+        .when(userDetailsService)
+        .findByUsername(user.getEmail());
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.erm.api.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.erm.api.GlobalExceptionHandler;
+import com.example.erm.api.mapper.ExternalProjectApiMapperImpl;
+import com.example.erm.api.mapper.UserApiMapperImpl;
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.configuration.JacksonBinaryFormatsConfiguration;
+import com.example.erm.configuration.ReactiveSecurityConfiguration;
+import com.example.erm.configuration.ReactiveWebConfiguration;
+import com.example.erm.repository.domain.ExternalProject;
+import com.example.erm.service.ExternalProjectService;
+import com.example.erm.service.ReactiveExternalProjectService;
+import com.example.erm.service.ReactiveUserService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(controllers = {ReactiveExternalProjectApiController.class})
+@Import({
+  UserApiMapperImpl.class,
+  ExternalProjectApiMapperImpl.class,
+  ReactiveSecurityConfiguration.class,
+  ReactiveWebConfiguration.class,
+  GlobalExceptionHandler.class,
+  ProblemDetailFactory.class,
+  JacksonBinaryFormatsConfiguration.class
+})
+class ReactiveExternalProjectApiControllerTest extends ExternalProjectApiContractTest {
+
+  @Autowired private WebTestClient client;
+
+  @MockitoBean private ReactiveUserService userService;
+
+  @MockitoBean private ReactiveUserDetailsService userDetailsService;
+
+  @MockitoBean private ReactiveExternalProjectService externalProjectService;
+
+  @Override
+  WebTestClient client() {
+    return client;
+  }
+
+  @Override
+  Object userService() {
+    return userService;
+  }
+
+  @Override
+  Object externalProjectService() {
+    return externalProjectService;
+  }
+
+  @Override
+  void givenUserExists(String userId, boolean exists) {
+    doReturn(Mono.just(exists)).when(userService).userExists(userId);
+  }
+
+  @Override
+  void givenListingVersion(ExternalProjectService.ListingVersion listingVersion) {
+    doReturn(Mono.just(listingVersion)).when(externalProjectService).findListingVersion(any());
+  }
+
+  @Override
+  void givenCreated(ExternalProject externalProject) {
+    doReturn(Mono.just(externalProject)).when(externalProjectService).createExternalProject(any());
+  }
+
+  @Override
+  void givenCreated(List<ExternalProject> externalProjects) {
+    doReturn(Mono.just(externalProjects))
+        .when(externalProjectService)
+        .createExternalProjects(any());
+  }
+
+  @Override
+  void givenListed(Slice<ExternalProject> externalProjects) {
+    doReturn(Mono.just(externalProjects)).when(externalProjectService).listExternalProjects(any());
+  }
+
+  @Override
+  void givenScrolled(Slice<ExternalProject> externalProjects) {
+    doReturn(Mono.just(externalProjects))
+        .when(externalProjectService)
+        .scrollExternalProjects(any());
+  }
+
+  @Override
+  void givenExported(String userId, List<ExternalProject> externalProjects) {
+    doReturn(Flux.fromIterable(externalProjects))
+        .when(externalProjectService)
+        .streamExternalProjects(userId);
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.erm.api.controller;
+
+import static org.mockito.Mockito.doReturn;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.erm.api.GlobalExceptionHandler;
+import com.example.erm.api.mapper.ExternalProjectApiMapperImpl;
+import com.example.erm.api.mapper.UserApiMapperImpl;
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.configuration.ReactiveSecurityConfiguration;
+import com.example.erm.configuration.ReactiveWebConfiguration;
+import com.example.erm.service.ReactiveUserService;
+
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(
+    controllers = {ReactiveExternalProjectEventApiController.class},
+    properties = {
+      "erm.external-project.events.enabled=true",
+      "erm.external-project.events.heartbeat-interval=50ms"
+    })
+@Import({
+  UserApiMapperImpl.class,
+  ExternalProjectApiMapperImpl.class,
+  ReactiveSecurityConfiguration.class,
+  ReactiveWebConfiguration.class,
+  GlobalExceptionHandler.class,
+  ProblemDetailFactory.class
+})
+class ReactiveExternalProjectEventApiControllerTest extends ExternalProjectEventApiContractTest {
+
+  @Autowired private WebTestClient client;
+
+  @MockitoBean private ReactiveUserService userService;
+
+  @MockitoBean private ReactiveUserDetailsService userDetailsService;
+
+  @Override
+  WebTestClient client() {
+    return client;
+  }
+
+  @Override
+  void givenUserExists(String userId, boolean exists) {
+    doReturn(Mono.just(exists)).when(userService).userExists(userId);
+  }
+}
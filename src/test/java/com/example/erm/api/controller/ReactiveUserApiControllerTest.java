@@ -0,0 +1,85 @@
+package com.example.erm.api.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.erm.api.GlobalExceptionHandler;
+import com.example.erm.api.mapper.UserApiMapperImpl;
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.configuration.ReactiveSecurityConfiguration;
+import com.example.erm.repository.domain.User;
+import com.example.erm.service.ReactiveUserService;
+import com.example.erm.service.UserService;
+
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(controllers = {ReactiveUserApiController.class})
+@Import({
+  UserApiMapperImpl.class,
+  ReactiveSecurityConfiguration.class,
+  GlobalExceptionHandler.class,
+  ProblemDetailFactory.class
+})
+class ReactiveUserApiControllerTest extends UserApiContractTest {
+
+  @Autowired private WebTestClient client;
+
+  @MockitoBean private ReactiveUserService userService;
+
+  @MockitoBean private ReactiveUserDetailsService userDetailsService;
+
+  @Override
+  WebTestClient client() {
+    return client;
+  }
+
+  @Override
+  Object userService() {
+    return userService;
+  }
+
+  @Override
+  void givenCreatedUser(User user) {
+    doReturn(Mono.just(user)).when(userService).createUser(any());
+  }
+
+  @Override
+  void givenUpdatedUser(User user) {
+    doReturn(Mono.justOrEmpty(user)).when(userService).updateUser(any());
+  }
+
+  @Override
+  void givenUser(String id, User user) {
+    doReturn(Mono.justOrEmpty(user)).when(userService).findUserById(id);
+  }
+
+  @Override
+  void givenUserVersion(String id, User version) {
+    doReturn(Mono.justOrEmpty(version)).when(userService).findUserVersionById(id);
+  }
+
+  @Override
+  void givenDeleted(String id, boolean deleted) {
+    doReturn(Mono.just(deleted)).when(userService).deleteUserById(id);
+  }
+
+  @Override
+  void givenImported(List<UserService.ImportedUser> importedUsers) {
+    doReturn(Mono.just(importedUsers)).when(userService).importUsers(any());
+  }
+
+  @Override
+  void givenListed(Slice<User> users) {
+    doReturn(Mono.just(users)).when(userService).listUsers(any());
+  }
+}
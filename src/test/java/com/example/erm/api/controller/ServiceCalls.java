@@ -0,0 +1,33 @@
+package com.example.erm.api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mockingDetails;
+
+import java.util.List;
+
+import org.mockito.invocation.Invocation;
+
+// calls recorded by a mocked service; the blocking and the reactive services have the same methods
+// and arguments and only differ in their results, so the shared suites verify them by name
+final class ServiceCalls {
+
+  private ServiceCalls() {}
+
+  static List<String> methodsCalled(Object service) {
+    return mockingDetails(service).getInvocations().stream()
+        .map(invocation -> invocation.getMethod().getName())
+        .toList();
+  }
+
+  // the first argument of the one call of the method
+  @SuppressWarnings("unchecked")
+  static <T> T argumentOf(Object service, String method) {
+    List<Invocation> calls =
+        mockingDetails(service).getInvocations().stream()
+            .filter(invocation -> invocation.getMethod().getName().equals(method))
+            .toList();
+    assertThat(calls).as("calls of %s", method).hasSize(1);
+
+    return (T) calls.getFirst().getArgument(0);
+  }
+}
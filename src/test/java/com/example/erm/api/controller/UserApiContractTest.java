@@ -0,0 +1,570 @@
+package com.example.erm.api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.erm.command.UserCreateCommand;
+import com.example.erm.command.UserListCommand;
+import com.example.erm.command.UserUpdateCommand;
+import com.example.erm.repository.domain.User;
+import com.example.erm.security.WithMockErmUser;
+import com.example.erm.service.UserService;
+
+// the user api as both stacks serve it; UserApiControllerTest and ReactiveUserApiControllerTest
+// run it against their controllers and services
+abstract class UserApiContractTest {
+
+  private static final User TEST_USER =
+      User.builder().id("123").email("john@example.com").password("secret").name("John").build();
+
+  private static final String UPDATE_REQUEST =
+      """
+      {
+          "email": "alice@foo.com",
+          "password": "secret",
+          "name": "Alice",
+          "roles": ["USER"]
+      }
+      """;
+
+  abstract WebTestClient client();
+
+  abstract Object userService();
+
+  abstract void givenCreatedUser(User user);
+
+  // null when there is no user to update
+  abstract void givenUpdatedUser(User user);
+
+  // null when there is no such user
+  abstract void givenUser(String id, User user);
+
+  abstract void givenUserVersion(String id, User version);
+
+  abstract void givenDeleted(String id, boolean deleted);
+
+  abstract void givenImported(List<UserService.ImportedUser> importedUsers);
+
+  abstract void givenListed(Slice<User> users);
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testCreateUserValid() {
+    givenCreatedUser(TEST_USER);
+
+    client()
+        .post()
+        .uri("/api/user")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {
+                "email": "john@foo.com",
+                "password": "secret",
+                "name": "John",
+                "roles": ["USER"]
+            }
+            """)
+        .exchange()
+        .expectStatus()
+        .isCreated()
+        .expectBody()
+        .jsonPath("$.id")
+        .isEqualTo(TEST_USER.getId());
+
+    UserCreateCommand command = ServiceCalls.argumentOf(userService(), "createUser");
+    assertThat(command.email()).isEqualTo("john@foo.com");
+    assertThat(command.password()).isEqualTo("secret");
+    assertThat(command.name()).isEqualTo("John");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @ParameterizedTest
+  @MethodSource("invalidCreateRequests")
+  void testCreateUserValidationErrors(String request) {
+    client()
+        .post()
+        .uri("/api/user")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request)
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.detail")
+        .isEqualTo("Validation failed");
+
+    verifyNoInteractions(userService());
+  }
+
+  private static Stream<Arguments> invalidCreateRequests() {
+    return Stream.of(
+        Arguments.of(
+            """
+            {
+                "email": "john@foo.com",
+                "password": "",
+                "name": "John"
+            }
+            """),
+        Arguments.of(
+            """
+            {
+                "email": "invalid-email",
+                "password": "secret",
+                "name": "John"
+            }
+            """),
+        Arguments.of(
+            """
+            {
+                "email": "john@foo.com",
+                "password": "   ",
+                "name": "John"
+            }
+            """),
+        Arguments.of(
+            """
+            {
+                "email": "john@foo.com",
+                "password": "password",
+                "name": "John",
+                "roles": ["INVALID_ROLE"]
+            }
+            """));
+  }
+
+  @WithMockUser
+  @Test
+  void testCreateUserNotAdmin() {
+    client()
+        .post()
+        .uri("/api/user")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {
+                "email": "john@foo.com",
+                "password": "secret",
+                "name": "John",
+                "roles": ["USER"]
+            }
+            """)
+        .exchange()
+        .expectStatus()
+        .isForbidden();
+
+    verifyNoInteractions(userService());
+  }
+
+  @Test
+  void testUnauthenticated() {
+    client()
+        .get()
+        .uri("/api/user/me")
+        .exchange()
+        .expectStatus()
+        .isUnauthorized()
+        .expectBody()
+        .jsonPath("$.status")
+        .isEqualTo(401);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testUpdateUser() {
+    givenUpdatedUser(TEST_USER);
+
+    client()
+        .put()
+        .uri("/api/user/123")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {
+                "email": "alice@foo.com",
+                "password": "topsecret",
+                "name": "Alice",
+                "roles": ["ADMIN"]
+            }
+            """)
+        .exchange()
+        .expectStatus()
+        .isOk();
+
+    UserUpdateCommand command = ServiceCalls.argumentOf(userService(), "updateUser");
+    assertThat(command.email()).isEqualTo("alice@foo.com");
+    assertThat(command.password()).isEqualTo("topsecret");
+    assertThat(command.name()).isEqualTo("Alice");
+    assertThat(command.roles()).isEqualTo(List.of("ADMIN"));
+  }
+
+  @WithMockErmUser(id = "456")
+  @Test
+  void testUpdateCurrentUser() {
+    givenUpdatedUser(TEST_USER);
+
+    client()
+        .put()
+        .uri("/api/user/me")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {
+                "email": "alice@foo.com",
+                "password": "topsecret",
+                "name": "Alice",
+                "roles": ["USER"]
+            }
+            """)
+        .exchange()
+        .expectStatus()
+        .isOk();
+
+    UserUpdateCommand command = ServiceCalls.argumentOf(userService(), "updateUser");
+    assertThat(command.id()).isEqualTo("456");
+    assertThat(command.email()).isEqualTo("alice@foo.com");
+    assertThat(command.password()).isEqualTo("topsecret");
+    assertThat(command.name()).isEqualTo("Alice");
+    assertThat(command.roles()).isEqualTo(List.of("USER"));
+    assertThat(ServiceCalls.methodsCalled(userService())).doesNotContain("findUserByEmail");
+  }
+
+  @WithMockUser
+  @Test
+  void testUpdateUserNotAdmin() {
+    client()
+        .put()
+        .uri("/api/user/123")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            {
+                "email": "bob@foo.com",
+                "password": "secret",
+                "name": "Bob",
+                "roles": ["USER"]
+            }
+            """)
+        .exchange()
+        .expectStatus()
+        .isForbidden();
+
+    verifyNoInteractions(userService());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testUpdateUserNotFound() {
+    givenUpdatedUser(null);
+
+    client()
+        .put()
+        .uri("/api/user/456")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(UPDATE_REQUEST)
+        .exchange()
+        .expectStatus()
+        .isNotFound();
+  }
+
+  @WithMockErmUser(id = "123", username = "john@example.com", name = "John")
+  @Test
+  void testFindCurrentUser() {
+    client()
+        .get()
+        .uri("/api/user/me")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.id")
+        .isEqualTo(TEST_USER.getId())
+        .jsonPath("$.name")
+        .isEqualTo(TEST_USER.getName())
+        .jsonPath("$.email")
+        .isEqualTo(TEST_USER.getEmail());
+
+    verifyNoInteractions(userService());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testFindUserById() {
+    givenUser("123", TEST_USER);
+
+    client()
+        .get()
+        .uri("/api/user/123")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.name")
+        .isEqualTo(TEST_USER.getName())
+        .jsonPath("$.email")
+        .isEqualTo(TEST_USER.getEmail());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testFindUserByIdNotModified() {
+    givenUserVersion(
+        "123", User.builder().id("123").version(4L).updatedAt(Instant.ofEpochMilli(5)).build());
+
+    client()
+        .get()
+        .uri("/api/user/123")
+        .header(HttpHeaders.IF_NONE_MATCH, "\"123-4-5\"")
+        .exchange()
+        .expectStatus()
+        .isNotModified()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, "\"123-4-5\"");
+
+    assertThat(ServiceCalls.methodsCalled(userService())).doesNotContain("findUserById");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testFindUserByIdModified() {
+    User user = TEST_USER.toBuilder().version(5L).updatedAt(Instant.ofEpochMilli(6)).build();
+    givenUserVersion("123", user);
+    givenUser("123", user);
+
+    client()
+        .get()
+        .uri("/api/user/123")
+        .header(HttpHeaders.IF_NONE_MATCH, "\"123-4-5\"")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals(HttpHeaders.ETAG, "\"123-5-6\"")
+        .expectBody()
+        .jsonPath("$.name")
+        .isEqualTo(TEST_USER.getName());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testFindUserByIdNotFound() {
+    givenUser("456", null);
+
+    client().get().uri("/api/user/456").exchange().expectStatus().isNotFound();
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testUpdateUserIfMatch() {
+    givenUpdatedUser(TEST_USER);
+
+    client()
+        .put()
+        .uri("/api/user/123")
+        .header(HttpHeaders.IF_MATCH, "\"123-4-5\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(UPDATE_REQUEST)
+        .exchange()
+        .expectStatus()
+        .isOk();
+
+    UserUpdateCommand command = ServiceCalls.argumentOf(userService(), "updateUser");
+    assertThat(command.expectedVersion()).isEqualTo(4L);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testUpdateUserIfMatchOfAnotherUser() {
+    client()
+        .put()
+        .uri("/api/user/123")
+        .header(HttpHeaders.IF_MATCH, "\"456-4-5\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(UPDATE_REQUEST)
+        .exchange()
+        .expectStatus()
+        .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+    assertThat(ServiceCalls.methodsCalled(userService())).doesNotContain("updateUser");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testDeleteUser() {
+    givenDeleted("123", true);
+
+    client().delete().uri("/api/user/123").exchange().expectStatus().isNoContent();
+
+    assertThat(ServiceCalls.<String>argumentOf(userService(), "deleteUserById")).isEqualTo("123");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testDeleteUserNotFound() {
+    givenDeleted("456", false);
+
+    client().delete().uri("/api/user/456").exchange().expectStatus().isNotFound();
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testImportUsersFromNdjson() {
+    givenImported(
+        List.of(
+            new UserService.ImportedUser("123", "john@foo.com", UserService.ImportStatus.CREATED),
+            new UserService.ImportedUser(
+                null, "jane@foo.com", UserService.ImportStatus.DUPLICATE_EMAIL)));
+
+    client()
+        .post()
+        .uri("/api/user/import")
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .bodyValue(
+            """
+            {"email": "john@foo.com", "password": "secret", "roles": ["USER"]}
+            {"email": "jim@foo.com", "password": "", "roles": ["USER"]}
+            {"email": "jane@foo.com", "password": "secret", "roles": ["USER"]}
+            """)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.created")
+        .isEqualTo(1)
+        .jsonPath("$.rejected")
+        .isEqualTo(2)
+        .jsonPath("$.items[0].status")
+        .isEqualTo("CREATED")
+        .jsonPath("$.items[0].id")
+        .isEqualTo("123")
+        .jsonPath("$.items[1].index")
+        .isEqualTo(1)
+        .jsonPath("$.items[1].status")
+        .isEqualTo("INVALID")
+        .jsonPath("$.items[1].errors[0]")
+        .isEqualTo("password: must not be blank")
+        .jsonPath("$.items[2].index")
+        .isEqualTo(2)
+        .jsonPath("$.items[2].status")
+        .isEqualTo("DUPLICATE_EMAIL");
+
+    List<UserCreateCommand> commands = ServiceCalls.argumentOf(userService(), "importUsers");
+    assertThat(commands)
+        .extracting(UserCreateCommand::email)
+        .containsExactly("john@foo.com", "jane@foo.com");
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testImportUsersFromJsonArrayWithMalformedItem() {
+    givenImported(
+        List.of(
+            new UserService.ImportedUser("123", "john@foo.com", UserService.ImportStatus.CREATED)));
+
+    client()
+        .post()
+        .uri("/api/user/import")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            """
+            [
+              {"email": "john@foo.com", "password": "secret", "roles": ["USER"]},
+              {"email": "jane@foo.com", "password":
+            """)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.created")
+        .isEqualTo(1)
+        .jsonPath("$.items.length()")
+        .isEqualTo(2)
+        .jsonPath("$.items[1].index")
+        .isEqualTo(1)
+        .jsonPath("$.items[1].status")
+        .isEqualTo("INVALID");
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  void testImportUsersRequiresAdmin() {
+    client()
+        .post()
+        .uri("/api/user/import")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("[]")
+        .exchange()
+        .expectStatus()
+        .isForbidden();
+
+    verifyNoInteractions(userService());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testListUsers() {
+    givenListed(new SliceImpl<>(List.of(TEST_USER), PageRequest.ofSize(1), true));
+
+    client()
+        .get()
+        .uri("/api/user?role=USER&emailPrefix=john&after=67e900a69cbc1b6a7d1d4b37&size=1")
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.items.length()")
+        .isEqualTo(1)
+        .jsonPath("$.items[0].email")
+        .isEqualTo(TEST_USER.getEmail())
+        .jsonPath("$.items[0].password")
+        .doesNotExist()
+        .jsonPath("$.page.nextCursor")
+        .isEqualTo(TEST_USER.getId());
+
+    UserListCommand command = ServiceCalls.argumentOf(userService(), "listUsers");
+    assertThat(command)
+        .isEqualTo(new UserListCommand("USER", "john", "67e900a69cbc1b6a7d1d4b37", 1));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  void testListUsersWithInvalidCursor() {
+    client()
+        .get()
+        .uri("/api/user?after=not-an-id")
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.title")
+        .isEqualTo("Invalid cursor");
+
+    verifyNoInteractions(userService());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  void testListUsersRequiresAdmin() {
+    client().get().uri("/api/user").exchange().expectStatus().isForbidden();
+
+    verifyNoInteractions(userService());
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.erm.api.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.erm.api.util.ProblemDetailFactory;
+import com.example.erm.configuration.ErmConfigurationProperties;
+import com.example.erm.configuration.TestErmConfigurationProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConcurrencyLimitFilterTest {
+
+  private SimpleMeterRegistry registry;
+  private GradientConcurrencyLimit limit;
+  private ConcurrencyLimitFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    ErmConfigurationProperties.ConcurrencyLimit settings =
+        TestErmConfigurationProperties.bind(
+                Map.of(
+                    "erm.concurrency-limit.initial-limit",
+                    1,
+                    "erm.concurrency-limit.min-limit",
+                    1,
+                    "erm.concurrency-limit.max-limit",
+                    10,
+                    "erm.concurrency-limit.retry-after",
+                    "2s",
+                    "erm.concurrency-limit.priority-lane-size",
+                    1,
+                    "erm.concurrency-limit.stream-lane-size",
+                    1))
+            .concurrencyLimit();
+    registry = new SimpleMeterRegistry();
+    limit = new GradientConcurrencyLimit(settings);
+    filter =
+        new ConcurrencyLimitFilter(
+            limit,
+            settings,
+            new ProblemDetailFactory(),
+            Jackson2ObjectMapperBuilder.json().build(),
+            registry);
+  }
+
+  @Test
+  void testRequestIsAdmittedAndReleased() throws Exception {
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/user/me"), new MockHttpServletResponse(), chain);
+
+    assertThat(chain.getRequest()).isNotNull();
+    assertThat(limit.getInflight()).isZero();
+  }
+
+  @Test
+  void testRequestOverLimitIsRejected() throws Exception {
+    limit.tryAcquire();
+    MockFilterChain chain = new MockFilterChain();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/user/me"), response, chain);
+
+    assertThat(chain.getRequest()).isNull();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+    assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    assertThat(response.getContentAsString())
+        .contains("\"title\":\"Service overloaded\"")
+        .contains("\"instance\":\"/api/user/me\"");
+    assertThat(
+            registry
+                .get(ConcurrencyLimitFilter.REJECTED_METER_NAME)
+                .tag("lane", "default")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void testEventStreamHoldsAStreamLanePermitUntilItEnds() throws Exception {
+    limit.tryAcquire();
+    MockHttpServletRequest request =
+        new MockHttpServletRequest("GET", "/api/user/me/external-project/events");
+    request.setAsyncSupported(true);
+
+    filter.doFilter(
+        request,
+        new MockHttpServletResponse(),
+        (chainRequest, chainResponse) -> chainRequest.startAsync());
+
+    assertThat(request.isAsyncStarted()).isTrue();
+    MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/user/123/external-project/export"),
+        secondResponse,
+        new MockFilterChain());
+    assertThat(secondResponse.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+    assertThat(
+            registry
+                .get(ConcurrencyLimitFilter.REJECTED_METER_NAME)
+                .tag("lane", "stream")
+                .counter()
+                .count())
+        .isEqualTo(1);
+
+    request.getAsyncContext().complete();
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/user/123/external-project/export"),
+        new MockHttpServletResponse(),
+        chain);
+    assertThat(chain.getRequest()).isNotNull();
+    assertThat(limit.getInflight()).isEqualTo(1);
+  }
+
+  @Test
+  void testActuatorRequestIsAdmittedOverLimit() throws Exception {
+    limit.tryAcquire();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/actuator/health"),
+        new MockHttpServletResponse(),
+        chain);
+
+    assertThat(chain.getRequest()).isNotNull();
+    assertThat(limit.getInflight()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.erm.api.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.erm.configuration.TestErmConfigurationProperties;
+
+class GradientConcurrencyLimitTest {
+
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofMillis(100).toNanos();
+
+  private GradientConcurrencyLimit limit;
+
+  @BeforeEach
+  void setUp() {
+    limit =
+        new GradientConcurrencyLimit(
+            TestErmConfigurationProperties.bind(
+                    Map.of(
+                        "erm.concurrency-limit.initial-limit",
+                        20,
+                        "erm.concurrency-limit.min-limit",
+                        5,
+                        "erm.concurrency-limit.max-limit",
+                        100,
+                        "erm.concurrency-limit.priority-lane-size",
+                        2))
+                .concurrencyLimit());
+  }
+
+  @Test
+  void testRequestsOverLimitAreNotAdmitted() {
+    for (int i = 1; i <= 20; i++) {
+      assertThat(limit.tryAcquire()).isEqualTo(i);
+    }
+
+    assertThat(limit.tryAcquire()).isEqualTo(-1);
+    limit.release();
+    assertThat(limit.tryAcquire()).isEqualTo(20);
+  }
+
+  @Test
+  void testLimitGrowsWhileLatencyIsSteady() {
+    sample(FAST, 50);
+
+    assertThat(limit.getLimit()).isGreaterThan(20);
+  }
+
+  @Test
+  void testLimitShrinksWhenLatencyRises() {
+    sample(FAST, 300);
+    int steadyLimit = limit.getLimit();
+
+    sample(SLOW, 50);
+
+    assertThat(limit.getLimit()).isLessThan(steadyLimit / 2).isGreaterThanOrEqualTo(5);
+  }
+
+  @Test
+  void testLatencyOfAnUnderusedLimitDoesNotChangeIt() {
+    sample(FAST, 300);
+    int steadyLimit = limit.getLimit();
+
+    for (int i = 0; i < 50; i++) {
+      limit.release(SLOW, limit.tryAcquire());
+    }
+
+    assertThat(limit.getLimit()).isEqualTo(steadyLimit);
+  }
+
+  // samples taken at the limit, so they count towards it
+  private void sample(long rttNanos, int samples) {
+    for (int i = 0; i < samples; i++) {
+      limit.tryAcquire();
+      limit.release(rttNanos, limit.getLimit());
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.erm.api.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.erm.api.model.ExternalProjectResponse;
+import com.example.erm.api.model.PagedResponse;
+import com.example.erm.repository.converter.ExternalProjectWritingConverter;
+import com.example.erm.repository.domain.ExternalProject;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+class RawExternalProjectResponseListTest {
+
+  private static final Instant NOW = Instant.parse("2025-04-01T15:03:19.379Z");
+
+  private final ExternalProjectApiMapper externalProjectApiMapper =
+      new ExternalProjectApiMapperImpl();
+
+  static Stream<ObjectMapper> objectMappers() {
+    return Stream.of(
+        Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build(),
+        Jackson2ObjectMapperBuilder.json().build(),
+        Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+  }
+
+  @ParameterizedTest
+  @MethodSource("objectMappers")
+  void testRawListingIsWrittenLikeMappedListing(ObjectMapper objectMapper) throws Exception {
+    PageImpl<ExternalProject> page = new PageImpl<>(externalProjects(), PageRequest.of(0, 3), 7);
+    Page<RawBsonDocument> documents = page.map(RawExternalProjectResponseListTest::stored);
+
+    byte[] mapped =
+        objectMapper.writeValueAsBytes(
+            PagedResponse.of(page.map(externalProjectApiMapper::toResponse)));
+    byte[] raw =
+        objectMapper.writeValueAsBytes(
+            PagedResponse.of(
+                documents, new RawExternalProjectResponseList(documents.getContent())));
+
+    assertThat(raw).isEqualTo(mapped);
+  }
+
+  @Test
+  void testElementsAreDecodedLikeMappedResponses() {
+    List<ExternalProject> externalProjects = externalProjects();
+
+    List<ExternalProjectResponse> raw =
+        new RawExternalProjectResponseList(
+            externalProjects.stream().map(RawExternalProjectResponseListTest::stored).toList());
+
+    assertThat(raw)
+        .containsExactlyElementsOf(
+            externalProjects.stream().map(externalProjectApiMapper::toResponse).toList());
+  }
+
+  private static List<ExternalProject> externalProjects() {
+    return List.of(
+        new ExternalProject(new ObjectId().toHexString(), "user-id", "my-project", NOW, NOW),
+        new ExternalProject(
+            new ObjectId().toHexString(), "user-id", "other-project", NOW.minusMillis(379), NOW),
+        new ExternalProject("custom-id", "user-id", null, null, null));
+  }
+
+  // as returned by the listing projection: stored order, other fields left out
+  private static RawBsonDocument stored(ExternalProject externalProject) {
+    Document document = new ExternalProjectWritingConverter().convert(externalProject);
+    document.keySet().retainAll(List.of("_id", "name", "createdAt"));
+
+    return new RawBsonDocument(document, new DocumentCodec());
+  }
+}
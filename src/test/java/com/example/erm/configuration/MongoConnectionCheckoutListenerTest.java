@@ -0,0 +1,70 @@
+package com.example.erm.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MongoConnectionCheckoutListenerTest {
+
+  private static final ServerId SERVER_ID =
+      new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+
+  private SimpleMeterRegistry registry;
+  private MongoConnectionCheckoutListener listener;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    listener = new MongoConnectionCheckoutListener(registry);
+  }
+
+  @Test
+  void testCheckoutIsTimed() {
+    listener.connectionCheckedOut(
+        new ConnectionCheckedOutEvent(
+            new ConnectionId(SERVER_ID), 1, Duration.ofMillis(30).toNanos()));
+    listener.connectionCheckedOut(
+        new ConnectionCheckedOutEvent(
+            new ConnectionId(SERVER_ID), 2, Duration.ofMillis(10).toNanos()));
+
+    Timer timer =
+        registry
+            .get(MongoConnectionCheckoutListener.METER_NAME)
+            .tags("server.address", "localhost:27017", "outcome", "SUCCESS")
+            .timer();
+    assertThat(timer.count()).isEqualTo(2);
+    assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(40);
+  }
+
+  @Test
+  void testFailedCheckoutIsTaggedWithReason() {
+    listener.connectionCheckOutFailed(
+        new ConnectionCheckOutFailedEvent(
+            SERVER_ID,
+            1,
+            ConnectionCheckOutFailedEvent.Reason.TIMEOUT,
+            Duration.ofSeconds(2).toNanos()));
+
+    assertThat(
+            registry
+                .get(MongoConnectionCheckoutListener.METER_NAME)
+                .tags("outcome", "TIMEOUT")
+                .timer()
+                .count())
+        .isEqualTo(1);
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.erm.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.example.erm.api.model.UserResponse;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+class PrefetchingJackson2HttpMessageConverterTest {
+
+  private static final UserResponse USER =
+      new UserResponse("123", "john@example.com", "John", List.of("USER"));
+
+  private PrefetchingJackson2HttpMessageConverter converter;
+
+  @BeforeEach
+  void setUp() {
+    converter =
+        new PrefetchingJackson2HttpMessageConverter(
+            Jackson2ObjectMapperBuilder.json().modules(new BlackbirdModule()).build(),
+            JacksonSerializationConfiguration.PREFETCHED_TYPES);
+  }
+
+  @Test
+  void testPrefetchedTypeIsWritten() throws IOException {
+    assertThat(write(USER))
+        .isEqualTo(
+            """
+            {"id":"123","email":"john@example.com","name":"John","roles":["USER"]}""");
+  }
+
+  @Test
+  void testProblemDetailIsWrittenWithItsMixin() throws IOException {
+    ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.UNAUTHORIZED);
+    problemDetail.setProperty("reason", "expired");
+
+    assertThat(write(problemDetail)).contains("\"status\":401").contains("\"reason\":\"expired\"");
+  }
+
+  // the builder disables default view inclusion, so a view leaves out the unannotated fields
+  @Test
+  void testSerializationViewIsNotBypassed() throws IOException {
+    MappingJacksonValue value = new MappingJacksonValue(USER);
+    value.setSerializationView(Object.class);
+
+    assertThat(write(value)).isEqualTo("{}");
+  }
+
+  private String write(Object value) throws IOException {
+    MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+    converter.write(value, MediaType.APPLICATION_JSON, outputMessage);
+
+    return outputMessage.getBodyAsString(StandardCharsets.UTF_8);
+  }
+}
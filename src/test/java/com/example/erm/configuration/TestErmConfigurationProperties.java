@@ -0,0 +1,18 @@
+package com.example.erm.configuration;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+// binds the given erm.* properties like the application does, so every other setting keeps its
+// default and tests only name the settings they are about
+public final class TestErmConfigurationProperties {
+
+  private TestErmConfigurationProperties() {}
+
+  public static ErmConfigurationProperties bind(Map<String, ?> properties) {
+    return new Binder(new MapConfigurationPropertySource(properties))
+        .bindOrCreate("erm", ErmConfigurationProperties.class);
+  }
+}
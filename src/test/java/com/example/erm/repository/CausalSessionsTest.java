@@ -0,0 +1,90 @@
+package com.example.erm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.example.erm.configuration.TestErmConfigurationProperties;
+import com.mongodb.client.ClientSession;
+
+class CausalSessionsTest {
+
+  private static final BsonDocument CLUSTER_TIME = new BsonDocument();
+  private static final BsonTimestamp OPERATION_TIME = new BsonTimestamp(1700000000, 1);
+
+  private MongoTemplate mongoTemplate;
+  private MongoTemplate sessionTemplate;
+  private MongoDatabaseFactory mongoDatabaseFactory;
+  private ClientSession session;
+
+  @BeforeEach
+  void setUp() {
+    mongoTemplate = mock(MongoTemplate.class);
+    sessionTemplate = mock(MongoTemplate.class);
+    mongoDatabaseFactory = mock(MongoDatabaseFactory.class);
+    session = mock(ClientSession.class);
+    doReturn(mongoDatabaseFactory).when(mongoTemplate).getMongoDatabaseFactory();
+    doReturn(session).when(mongoDatabaseFactory).getSession(any());
+    doReturn(sessionTemplate).when(mongoTemplate).withSession(session);
+    doReturn(CLUSTER_TIME).when(session).getClusterTime();
+    doReturn(OPERATION_TIME).when(session).getOperationTime();
+  }
+
+  @Test
+  void testReadAfterWriteContinuesFromTheWrite() {
+    CausalSessions causalSessions = causalSessions(true);
+
+    MongoOperations writeOperations =
+        causalSessions.write(Set.of("user-id"), operations -> operations);
+    MongoOperations readOperations = causalSessions.read("user-id", operations -> operations);
+
+    assertThat(writeOperations).isSameAs(sessionTemplate);
+    assertThat(readOperations).isSameAs(sessionTemplate);
+    verify(session).advanceClusterTime(CLUSTER_TIME);
+    verify(session).advanceOperationTime(OPERATION_TIME);
+  }
+
+  @Test
+  void testReadWithoutRecentWriteRunsWithoutSession() {
+    CausalSessions causalSessions = causalSessions(true);
+    causalSessions.write(Set.of("user-id"), operations -> operations);
+
+    assertThat(causalSessions.read("other-user-id", operations -> operations))
+        .isSameAs(mongoTemplate);
+  }
+
+  @Test
+  void testDisabledRunsWithoutSession() {
+    CausalSessions causalSessions = causalSessions(false);
+
+    assertThat(causalSessions.write(Set.of("user-id"), operations -> operations))
+        .isSameAs(mongoTemplate);
+    assertThat(causalSessions.read("user-id", operations -> operations)).isSameAs(mongoTemplate);
+    verify(mongoDatabaseFactory, never()).getSession(any());
+  }
+
+  private CausalSessions causalSessions(boolean enabled) {
+    return new CausalSessions(
+        mongoTemplate,
+        TestErmConfigurationProperties.bind(
+            Map.of(
+                "erm.mongo.read-routing.causal-consistency.enabled",
+                enabled,
+                "erm.mongo.read-routing.causal-consistency.maximum-size",
+                100)));
+  }
+}
@@ -0,0 +1,204 @@
+package com.example.erm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import com.example.erm.event.ExternalProjectChangedEvent;
+import com.example.erm.repository.domain.ExternalProject;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+class ExternalProjectChangeStreamListenerTest {
+
+  private static final Instant NOW = Instant.parse("2025-04-01T15:03:19.379Z");
+  private static final BsonDocument RESUME_TOKEN = new BsonDocument("_data", new BsonString("1"));
+
+  private ChangeStreamIterable<Document> changes;
+  private MongoConverter converter;
+  private TestSubscriber subscriber;
+  private ExternalProjectChangeStreamListener listener;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    MongoCollection<Document> collection = mock(MongoCollection.class);
+    changes = mock(ChangeStreamIterable.class);
+    converter = mock(MongoConverter.class);
+    doReturn(collection).when(mongoTemplate).getCollection(ExternalProject.COLLECTION);
+    doReturn(converter).when(mongoTemplate).getConverter();
+    doReturn(changes).when(collection).watch(anyList());
+    doReturn(changes).when(changes).fullDocument(any());
+    doReturn(changes).when(changes).maxAwaitTime(anyLong(), any());
+    doReturn(changes).when(changes).resumeAfter(any());
+    subscriber = new TestSubscriber();
+    listener = new ExternalProjectChangeStreamListener(mongoTemplate, subscriber, Duration.ZERO);
+  }
+
+  @AfterEach
+  void tearDown() {
+    listener.stop();
+  }
+
+  @Test
+  void testInsertsAndUpdatesArePassedOnAsEvents() throws InterruptedException {
+    MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = cursor();
+    doReturn(
+            change(OperationType.INSERT, 1, project("1")),
+            change(OperationType.UPDATE, 2, project("2")),
+            null)
+        .when(cursor)
+        .tryNext();
+    doReturn(cursor).when(changes).cursor();
+
+    listener.start();
+
+    subscriber.awaitEvents(2);
+    assertThat(subscriber.connections).containsExactly(false);
+    assertThat(subscriber.events)
+        .extracting(ExternalProjectChangedEvent::type)
+        .containsExactly(
+            ExternalProjectChangedEvent.Type.CREATED, ExternalProjectChangedEvent.Type.UPDATED);
+    assertThat(subscriber.events)
+        .extracting(ExternalProjectChangedEvent::position)
+        .containsExactly(new BsonTimestamp(1, 0).getValue(), new BsonTimestamp(2, 0).getValue());
+    assertThat(subscriber.events)
+        .extracting(event -> event.externalProject().getId())
+        .containsExactly("1", "2");
+  }
+
+  @Test
+  void testChangesWithoutFullDocumentAreSkipped() throws InterruptedException {
+    MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = cursor();
+    doReturn(
+            change(OperationType.UPDATE, 1, null),
+            change(OperationType.UPDATE, 2, project("2")),
+            null)
+        .when(cursor)
+        .tryNext();
+    doReturn(cursor).when(changes).cursor();
+
+    listener.start();
+
+    subscriber.awaitEvents(1);
+    assertThat(subscriber.events)
+        .extracting(ExternalProjectChangedEvent::position)
+        .containsExactly(new BsonTimestamp(2, 0).getValue());
+  }
+
+  @Test
+  void testFailedStreamIsResumedAfterTheLastChangeSeen() throws InterruptedException {
+    MongoChangeStreamCursor<ChangeStreamDocument<Document>> failing = cursor();
+    doReturn(change(OperationType.INSERT, 1, project("1")))
+        .doThrow(new MongoException("connection reset"))
+        .when(failing)
+        .tryNext();
+    doReturn(RESUME_TOKEN).when(failing).getResumeToken();
+    MongoChangeStreamCursor<ChangeStreamDocument<Document>> resumed = cursor();
+    doReturn(failing, resumed).when(changes).cursor();
+
+    listener.start();
+
+    subscriber.awaitConnections(2);
+    assertThat(subscriber.connections).containsExactly(false, true);
+    verify(changes).resumeAfter(RESUME_TOKEN);
+  }
+
+  @Test
+  void testInvalidatedStreamStartsOver() throws InterruptedException {
+    MongoChangeStreamCursor<ChangeStreamDocument<Document>> invalidated = cursor();
+    doReturn(
+            change(OperationType.INSERT, 1, project("1")),
+            change(OperationType.INVALIDATE, 2, null))
+        .when(invalidated)
+        .tryNext();
+    doReturn(RESUME_TOKEN).when(invalidated).getResumeToken();
+    MongoChangeStreamCursor<ChangeStreamDocument<Document>> restarted = cursor();
+    doReturn(invalidated, restarted).when(changes).cursor();
+
+    listener.start();
+
+    subscriber.awaitConnections(2);
+    assertThat(subscriber.connections).containsExactly(false, false);
+    verify(changes, never()).resumeAfter(any());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor() {
+    return mock(MongoChangeStreamCursor.class);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ChangeStreamDocument<Document> change(
+      OperationType operationType, int seconds, ExternalProject externalProject) {
+    ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+    doReturn(operationType).when(change).getOperationType();
+    doReturn(new BsonTimestamp(seconds, 0)).when(change).getClusterTime();
+    if (externalProject != null) {
+      Document fullDocument = new Document("_id", externalProject.getId());
+      doReturn(fullDocument).when(change).getFullDocument();
+      doReturn(externalProject).when(converter).read(ExternalProject.class, fullDocument);
+    }
+
+    return change;
+  }
+
+  private static ExternalProject project(String id) {
+    return new ExternalProject(id, "123", "project-" + id, NOW, NOW);
+  }
+
+  private static class TestSubscriber implements ExternalProjectChangeStreamListener.Subscriber {
+
+    private final List<Boolean> connections = new CopyOnWriteArrayList<>();
+    private final List<ExternalProjectChangedEvent> events = new CopyOnWriteArrayList<>();
+    private final Semaphore connected = new Semaphore(0);
+    private final Semaphore changed = new Semaphore(0);
+
+    @Override
+    public void changeStreamConnected(boolean resumed) {
+      connections.add(resumed);
+      connected.release();
+    }
+
+    @Override
+    public void changed(ExternalProjectChangedEvent event) {
+      events.add(event);
+      changed.release();
+    }
+
+    void awaitConnections(int count) throws InterruptedException {
+      assertThat(connected.tryAcquire(count, 5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    void awaitEvents(int count) throws InterruptedException {
+      assertThat(changed.tryAcquire(count, 5, TimeUnit.SECONDS)).isTrue();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.erm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.erm.configuration.TestErmConfigurationProperties;
+import com.example.erm.exception.MongoBulkheadFullException;
+import com.example.erm.repository.MongoBulkhead.Compartment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class MongoBulkheadTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private SimpleMeterRegistry meterRegistry;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testCallOverPermitsIsRejectedAfterMaxWait() throws InterruptedException {
+    MongoBulkhead mongoBulkhead = mongoBulkhead(true);
+    occupy(mongoBulkhead, Compartment.READ, 2);
+
+    MongoBulkheadFullException e =
+        assertThrows(
+            MongoBulkheadFullException.class,
+            () -> mongoBulkhead.call(Compartment.READ, () -> "listed"));
+
+    assertThat(e.getCompartment()).isEqualTo("READ");
+    assertThat(
+            meterRegistry
+                .get(MongoBulkhead.REJECTED_METER_NAME)
+                .tag("compartment", "READ")
+                .counter()
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            meterRegistry
+                .get(MongoBulkhead.AVAILABLE_METER_NAME)
+                .tag("compartment", "READ")
+                .gauge()
+                .value())
+        .isZero();
+  }
+
+  @Test
+  void testFullReadCompartmentDoesNotBlockAuthLookups() throws InterruptedException {
+    MongoBulkhead mongoBulkhead = mongoBulkhead(true);
+    occupy(mongoBulkhead, Compartment.READ, 2);
+
+    assertThat(mongoBulkhead.call(Compartment.AUTH, () -> "found")).isEqualTo("found");
+    assertThat(
+            meterRegistry
+                .get(MongoBulkhead.WAIT_METER_NAME)
+                .tag("compartment", "AUTH")
+                .timer()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void testPermitIsReturnedWhenCallFails() {
+    MongoBulkhead mongoBulkhead = mongoBulkhead(true);
+
+    for (int i = 0; i < 3; i++) {
+      assertThrows(
+          IllegalStateException.class,
+          () ->
+              mongoBulkhead.run(
+                  Compartment.WRITE,
+                  () -> {
+                    throw new IllegalStateException();
+                  }));
+    }
+
+    assertThat(mongoBulkhead.call(Compartment.WRITE, () -> "written")).isEqualTo("written");
+  }
+
+  @Test
+  void testDisabledBulkheadDoesNotLimit() throws InterruptedException {
+    MongoBulkhead mongoBulkhead = mongoBulkhead(false);
+    occupy(mongoBulkhead, Compartment.READ, 2);
+
+    assertThat(mongoBulkhead.call(Compartment.READ, () -> "listed")).isEqualTo("listed");
+  }
+
+  // holds the given number of permits until the test ends
+  private void occupy(MongoBulkhead mongoBulkhead, Compartment compartment, int calls)
+      throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(calls);
+    for (int i = 0; i < calls; i++) {
+      executor.submit(
+          () ->
+              mongoBulkhead.run(
+                  compartment,
+                  () -> {
+                    started.countDown();
+                    try {
+                      release.await();
+                    } catch (InterruptedException e) {
+                      Thread.currentThread().interrupt();
+                    }
+                  }));
+    }
+    started.await();
+  }
+
+  private MongoBulkhead mongoBulkhead(boolean enabled) {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("erm.mongo.bulkhead.enabled", enabled);
+    for (String compartment : List.of("auth", "read", "write")) {
+      properties.put("erm.mongo.bulkhead." + compartment + ".max-concurrent", 2);
+      properties.put("erm.mongo.bulkhead." + compartment + ".max-wait", "50ms");
+    }
+
+    return new MongoBulkhead(TestErmConfigurationProperties.bind(properties), meterRegistry);
+  }
+}
@@ -0,0 +1,64 @@
+package com.example.erm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.example.erm.configuration.ErmConfigurationProperties.Mongo.ReadRouting.ReadOperation;
+import com.example.erm.configuration.ErmConfigurationProperties.Mongo.ReadRouting.Route;
+import com.example.erm.configuration.TestErmConfigurationProperties;
+import com.mongodb.ReadPreference;
+
+class ReadPreferenceRouterTest {
+
+  private ReadPreferenceRouter readPreferenceRouter;
+
+  @BeforeEach
+  void setUp() {
+    readPreferenceRouter =
+        new ReadPreferenceRouter(
+            TestErmConfigurationProperties.bind(
+                Map.of(
+                    "erm.mongo.read-routing.operations.external-project-list.mode",
+                    "secondary-preferred",
+                    "erm.mongo.read-routing.operations.external-project-list.max-staleness",
+                    "90s",
+                    "erm.mongo.read-routing.operations.user-list.mode",
+                    "nearest")));
+  }
+
+  @Test
+  void testRoutedOperationsUseTheirReadPreference() {
+    assertThat(
+            readPreferenceRouter
+                .route(ReadOperation.EXTERNAL_PROJECT_LIST, new Query())
+                .getReadPreference())
+        .isEqualTo(ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS));
+    assertThat(readPreferenceRouter.route(ReadOperation.USER_LIST, new Query()).getReadPreference())
+        .isEqualTo(ReadPreference.nearest());
+  }
+
+  @Test
+  void testUnroutedOperationsKeepTheDefault() {
+    Query query = readPreferenceRouter.route(ReadOperation.USER_BY_EMAIL, new Query());
+
+    assertThat(query.hasReadPreference()).isFalse();
+  }
+
+  @Test
+  void testInvalidMaxStalenessIsRejected() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new Route(Route.Mode.SECONDARY, Duration.ofSeconds(30)));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new Route(Route.Mode.PRIMARY, Duration.ofSeconds(90)));
+  }
+}
@@ -0,0 +1,180 @@
+package com.example.erm.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.erm.configuration.TestErmConfigurationProperties;
+import com.example.erm.event.UserChangedEvent;
+import com.example.erm.repository.domain.User;
+
+class UserCacheTest {
+
+  private static final User USER =
+      User.builder().id("user-id").email("john@example.com").name("John").build();
+
+  private final AtomicLong now = new AtomicLong();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private UserCache userCache;
+
+  @BeforeEach
+  void setUp() {
+    userCache = userCache(true);
+    userCache.changeStreamConnected(false);
+  }
+
+  @Test
+  void testCachedUserIsLoadedOnce() {
+    userCache.findById("user-id", this::load);
+
+    assertThat(userCache.findById("user-id", this::load)).contains(USER);
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void testCachedUserIsACopy() {
+    userCache.findById("user-id", this::load).orElseThrow().setName("Changed");
+
+    assertThat(userCache.findById("user-id", this::load).orElseThrow().getName())
+        .isEqualTo("John");
+  }
+
+  @Test
+  void testCachedRolesAreACopy() {
+    Supplier<Optional<User>> load =
+        () -> Optional.of(USER.toBuilder().roles(new ArrayList<>(List.of("USER"))).build());
+    userCache.findById("user-id", load).orElseThrow().getRoles().add("ADMIN");
+
+    assertThat(userCache.findById("user-id", load).orElseThrow().getRoles())
+        .containsExactly("USER");
+  }
+
+  @Test
+  void testMissingUserIsNotCached() {
+    userCache.findByEmail("nobody@example.com", Optional::empty);
+
+    assertThat(userCache.findByEmail("nobody@example.com", this::load)).contains(USER);
+  }
+
+  @Test
+  void testEvictionByIdAlsoEvictsEmail() {
+    userCache.findById("user-id", this::load);
+    userCache.findByEmail("john@example.com", this::load);
+
+    userCache.evict("user-id");
+
+    userCache.findById("user-id", this::load);
+    userCache.findByEmail("john@example.com", this::load);
+    assertThat(loads).hasValue(4);
+  }
+
+  @Test
+  void testUserChangedEventEvicts() {
+    userCache.findByEmail("john@example.com", this::load);
+
+    userCache.onUserChanged(UserChangedEvent.of("user-id", "john@example.com"));
+
+    userCache.findByEmail("john@example.com", this::load);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void testCachedEmailsOfRemoteChange() {
+    userCache.findById("user-id", this::load);
+
+    assertThat(userCache.cachedEmails("user-id")).containsExactly("john@example.com");
+    userCache.onUserChanged(UserChangedEvent.remote("user-id", "john@example.com"));
+    assertThat(userCache.cachedEmails("user-id")).isEmpty();
+  }
+
+  @Test
+  void testEvictionByIdEvictsEveryEmailTheUserWasCachedUnder() {
+    userCache.findByEmail("john@example.com", this::load);
+    userCache.findByEmail(
+        "johnny@example.com",
+        () -> Optional.of(USER.toBuilder().email("johnny@example.com").build()));
+
+    userCache.evict("user-id");
+
+    userCache.findByEmail("john@example.com", this::load);
+    assertThat(loads).hasValue(2);
+    assertThat(userCache.cachedEmails("user-id")).containsExactly("john@example.com");
+  }
+
+  @Test
+  void testLoadOverlappingEvictionIsNotKept() {
+    userCache.findById(
+        "user-id",
+        () -> {
+          // the change is seen while the load is still running
+          userCache.evict("user-id");
+          return load();
+        });
+
+    userCache.findById("user-id", this::load);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void testFallbackTtlAppliesWhileChangeStreamIsDown() {
+    userCache.findById("user-id", this::load);
+    userCache.changeStreamDisconnected();
+
+    now.addAndGet(Duration.ofSeconds(4).toNanos());
+    userCache.findById("user-id", this::load);
+    assertThat(loads).hasValue(1);
+
+    now.addAndGet(Duration.ofSeconds(2).toNanos());
+    userCache.findById("user-id", this::load);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void testStreamNotResumedDropsCachedUsers() {
+    userCache.findById("user-id", this::load);
+    userCache.changeStreamDisconnected();
+
+    userCache.changeStreamConnected(true);
+    userCache.findById("user-id", this::load);
+    assertThat(loads).hasValue(1);
+
+    userCache.changeStreamConnected(false);
+    userCache.findById("user-id", this::load);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void testDisabledCacheLoadsEveryTime() {
+    userCache = userCache(false);
+
+    userCache.findById("user-id", this::load);
+    userCache.findById("user-id", this::load);
+
+    assertThat(loads).hasValue(2);
+  }
+
+  private Optional<User> load() {
+    loads.incrementAndGet();
+
+    return Optional.of(USER.toBuilder().build());
+  }
+
+  private UserCache userCache(boolean enabled) {
+    return new UserCache(
+        TestErmConfigurationProperties.bind(
+                Map.of("erm.user-cache.enabled", enabled, "erm.user-cache.maximum-size", 100))
+            .userCache(),
+        now::get);
+  }
+}
@@ -0,0 +1,137 @@
+package com.example.erm.repository.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.example.erm.repository.domain.ExternalProject;
+import com.example.erm.repository.domain.User;
+
+class MongoDocumentConvertersTest {
+
+  private static final Instant NOW = Instant.parse("2025-04-01T15:03:19.379Z");
+
+  private MappingMongoConverter reflective;
+  private MappingMongoConverter explicit;
+
+  @BeforeEach
+  void setUp() {
+    reflective = converter(List.of());
+    explicit =
+        converter(
+            List.of(
+                new UserWritingConverter(),
+                new UserReadingConverter(),
+                new ExternalProjectWritingConverter(),
+                new ExternalProjectReadingConverter()));
+  }
+
+  static Stream<User> users() {
+    return Stream.of(
+        new User(
+            new ObjectId().toHexString(),
+            "john@example.com",
+            "{bcrypt}hash",
+            "John",
+            List.of("USER", "ADMIN"),
+            NOW,
+            NOW.plusSeconds(1),
+            3L),
+        User.builder().email("new@example.com").password("hash").name("New").build(),
+        User.builder().id("not-an-object-id").email("legacy@example.com").createdAt(NOW).build(),
+        new User(
+            new ObjectId().toHexString(), "jane@example.com", null, null, List.of(), NOW, NOW, 0L));
+  }
+
+  static Stream<ExternalProject> externalProjects() {
+    return Stream.of(
+        new ExternalProject(new ObjectId().toHexString(), "user-id", "my-project", NOW, NOW),
+        ExternalProject.builder().userId("user-id").name("unsaved-project").build(),
+        new ExternalProject("custom-id", "user-id", null, NOW, null));
+  }
+
+  @ParameterizedTest
+  @MethodSource("users")
+  void testUserRoundTrip(User user) {
+    Document expected = write(reflective, user);
+    Document actual = write(explicit, user);
+
+    assertThat(bytes(actual)).isEqualTo(bytes(expected));
+    assertThat(explicit.read(User.class, expected))
+        .isEqualTo(reflective.read(User.class, expected));
+    assertThat(explicit.read(User.class, actual)).isEqualTo(user);
+  }
+
+  @ParameterizedTest
+  @MethodSource("externalProjects")
+  void testExternalProjectRoundTrip(ExternalProject externalProject) {
+    Document expected = write(reflective, externalProject);
+    Document actual = write(explicit, externalProject);
+
+    assertThat(bytes(actual)).isEqualTo(bytes(expected));
+    assertThat(explicit.read(ExternalProject.class, expected))
+        .isEqualTo(reflective.read(ExternalProject.class, expected));
+    assertThat(explicit.read(ExternalProject.class, actual)).isEqualTo(externalProject);
+  }
+
+  // a version projection, with the version of a user first updated by $inc
+  @Test
+  void testUserProjectionIsReadLikeReflectiveMapping() {
+    Document projection =
+        new Document("_id", new ObjectId())
+            .append(User.Fields.version, 1)
+            .append(User.Fields.updatedAt, Date.from(NOW));
+
+    User user = explicit.read(User.class, projection);
+
+    assertThat(user).isEqualTo(reflective.read(User.class, projection));
+    assertThat(user.getVersion()).isEqualTo(1L);
+    assertThat(user.getRoles()).isEmpty();
+  }
+
+  private static Document write(MappingMongoConverter converter, Object entity) {
+    Document document = new Document();
+    converter.write(entity, document);
+
+    return document;
+  }
+
+  private static byte[] bytes(Document document) {
+    ByteBuf buffer = new RawBsonDocument(document, new DocumentCodec()).getByteBuffer();
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+
+    return bytes;
+  }
+
+  private static MappingMongoConverter converter(List<?> converters) {
+    MongoCustomConversions conversions = new MongoCustomConversions(converters);
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    mappingContext.afterPropertiesSet();
+
+    MappingMongoConverter converter =
+        new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+
+    return converter;
+  }
+}
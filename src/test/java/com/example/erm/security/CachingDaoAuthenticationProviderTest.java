@@ -0,0 +1,86 @@
+package com.example.erm.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class CachingDaoAuthenticationProviderTest {
+
+  private static final String EMAIL = "john@example.com";
+  private static final String PASSWORD = "secret";
+
+  private PasswordEncoder passwordEncoder;
+  private UserDetailsService userDetailsService;
+  private VerifiedCredentialCache verifiedCredentialCache;
+  private CachingDaoAuthenticationProvider authenticationProvider;
+  private String encodedPassword;
+
+  @BeforeEach
+  void setUp() {
+    passwordEncoder = spy(new BCryptPasswordEncoder(4));
+    encodedPassword = passwordEncoder.encode(PASSWORD);
+    userDetailsService = mock(UserDetailsService.class);
+    doReturn(User.withUsername(EMAIL).password(encodedPassword).roles("USER").build())
+        .when(userDetailsService)
+        .loadUserByUsername(EMAIL);
+    verifiedCredentialCache = new VerifiedCredentialCache(100, Duration.ofMinutes(1));
+    authenticationProvider =
+        new CachingDaoAuthenticationProvider(
+            userDetailsService, passwordEncoder, verifiedCredentialCache);
+  }
+
+  @Test
+  void testRepeatedAuthenticationVerifiesPasswordOnce() {
+    authenticationProvider.authenticate(authentication(PASSWORD));
+    authenticationProvider.authenticate(authentication(PASSWORD));
+
+    verify(passwordEncoder, times(1)).matches(any(), any());
+  }
+
+  @Test
+  void testWrongPasswordIsNotServedFromCache() {
+    authenticationProvider.authenticate(authentication(PASSWORD));
+
+    assertThrows(
+        BadCredentialsException.class,
+        () -> authenticationProvider.authenticate(authentication("wrong")));
+  }
+
+  @Test
+  void testInvalidatedCredentialsAreVerifiedAgain() {
+    authenticationProvider.authenticate(authentication(PASSWORD));
+    verifiedCredentialCache.invalidate(List.of(EMAIL));
+    authenticationProvider.authenticate(authentication(PASSWORD));
+
+    verify(passwordEncoder, times(2)).matches(any(), any());
+  }
+
+  @Test
+  void testChangedEncodedPasswordMissesCache() {
+    authenticationProvider.authenticate(authentication(PASSWORD));
+
+    assertThat(verifiedCredentialCache.isVerified(EMAIL, encodedPassword, PASSWORD)).isTrue();
+    assertThat(verifiedCredentialCache.isVerified(EMAIL, "other-hash", PASSWORD)).isFalse();
+  }
+
+  private static UsernamePasswordAuthenticationToken authentication(String password) {
+    return UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, password);
+  }
+}
@@ -0,0 +1,112 @@
+package com.example.erm.security;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.erm.exception.MongoBulkheadFullException;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CachingReactiveAuthenticationManagerTest {
+
+  private static final String EMAIL = "john@example.com";
+  private static final String PASSWORD = "secret";
+
+  private PasswordEncoder passwordEncoder;
+  private ReactiveUserDetailsService userDetailsService;
+  private VerifiedCredentialCache verifiedCredentialCache;
+  private CachingReactiveAuthenticationManager authenticationManager;
+
+  @BeforeEach
+  void setUp() {
+    passwordEncoder = spy(new BCryptPasswordEncoder(4));
+    String encodedPassword = passwordEncoder.encode(PASSWORD);
+    userDetailsService = mock(ReactiveUserDetailsService.class);
+    doReturn(Mono.just(User.withUsername(EMAIL).password(encodedPassword).roles("USER").build()))
+        .when(userDetailsService)
+        .findByUsername(EMAIL);
+    doReturn(Mono.empty()).when(userDetailsService).findByUsername("nobody");
+    verifiedCredentialCache = new VerifiedCredentialCache(100, Duration.ofMinutes(1));
+    authenticationManager =
+        new CachingReactiveAuthenticationManager(
+            userDetailsService, passwordEncoder, verifiedCredentialCache);
+  }
+
+  @Test
+  void testRepeatedAuthenticationVerifiesPasswordOnce() {
+    StepVerifier.create(authenticationManager.authenticate(authentication(EMAIL, PASSWORD)))
+        .expectNextMatches(Authentication::isAuthenticated)
+        .verifyComplete();
+    StepVerifier.create(authenticationManager.authenticate(authentication(EMAIL, PASSWORD)))
+        .expectNextMatches(Authentication::isAuthenticated)
+        .verifyComplete();
+
+    verify(passwordEncoder, times(1)).matches(any(), any());
+  }
+
+  @Test
+  void testWrongPasswordIsNotServedFromCache() {
+    StepVerifier.create(authenticationManager.authenticate(authentication(EMAIL, PASSWORD)))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    StepVerifier.create(authenticationManager.authenticate(authentication(EMAIL, "wrong")))
+        .verifyError(BadCredentialsException.class);
+  }
+
+  @Test
+  void testInvalidatedCredentialsAreVerifiedAgain() {
+    StepVerifier.create(authenticationManager.authenticate(authentication(EMAIL, PASSWORD)))
+        .expectNextCount(1)
+        .verifyComplete();
+    verifiedCredentialCache.invalidate(List.of(EMAIL));
+    StepVerifier.create(authenticationManager.authenticate(authentication(EMAIL, PASSWORD)))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    verify(passwordEncoder, times(2)).matches(any(), any());
+  }
+
+  @Test
+  void testUnknownUser() {
+    StepVerifier.create(authenticationManager.authenticate(authentication("nobody", PASSWORD)))
+        .verifyError(BadCredentialsException.class);
+  }
+
+  @Test
+  void testShedLookupIsAnAuthenticationServiceException() {
+    doReturn(Mono.error(new MongoBulkheadFullException("AUTH")))
+        .when(userDetailsService)
+        .findByUsername("busy");
+
+    StepVerifier.create(authenticationManager.authenticate(authentication("busy", PASSWORD)))
+        .verifyErrorMatches(
+            e ->
+                e instanceof InternalAuthenticationServiceException
+                    && e.getCause() instanceof MongoBulkheadFullException);
+  }
+
+  private static UsernamePasswordAuthenticationToken authentication(
+      String username, String password) {
+    return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+  }
+}
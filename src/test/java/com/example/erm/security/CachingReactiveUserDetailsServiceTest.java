@@ -0,0 +1,80 @@
+package com.example.erm.security;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.erm.event.UserChangedEvent;
+import com.example.erm.repository.domain.User;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CachingReactiveUserDetailsServiceTest {
+
+  private static final User TEST_USER =
+      User.builder()
+          .id("123")
+          .email("john@example.com")
+          .password("secret")
+          .roles(List.of("USER"))
+          .build();
+
+  private ReactiveUserDetailsService delegate;
+  private CachingReactiveUserDetailsService userDetailsService;
+
+  @BeforeEach
+  void setUp() {
+    delegate = mock(ReactiveUserDetailsService.class);
+    userDetailsService =
+        new CachingReactiveUserDetailsService(
+            delegate, 100, Duration.ofMinutes(5), Duration.ofMinutes(1));
+  }
+
+  @Test
+  void testFindUserIsCached() {
+    UserDetails userDetails = ErmUserDetails.of(TEST_USER);
+    doReturn(Mono.just(userDetails)).when(delegate).findByUsername(TEST_USER.getEmail());
+
+    StepVerifier.create(userDetailsService.findByUsername(TEST_USER.getEmail()))
+        .expectNext(userDetails)
+        .verifyComplete();
+    StepVerifier.create(userDetailsService.findByUsername(TEST_USER.getEmail()))
+        .expectNext(userDetails)
+        .verifyComplete();
+
+    verify(delegate, times(1)).findByUsername(TEST_USER.getEmail());
+  }
+
+  @Test
+  void testUserChangedEventInvalidatesEntry() {
+    doReturn(Mono.just(ErmUserDetails.of(TEST_USER)))
+        .when(delegate)
+        .findByUsername(TEST_USER.getEmail());
+
+    userDetailsService.findByUsername(TEST_USER.getEmail()).block();
+    userDetailsService.onUserChanged(UserChangedEvent.of(TEST_USER.getId(), TEST_USER.getEmail()));
+    userDetailsService.findByUsername(TEST_USER.getEmail()).block();
+
+    verify(delegate, times(2)).findByUsername(TEST_USER.getEmail());
+  }
+
+  @Test
+  void testUnknownUserIsNotCached() {
+    doReturn(Mono.empty()).when(delegate).findByUsername("nobody");
+
+    StepVerifier.create(userDetailsService.findByUsername("nobody")).verifyComplete();
+    StepVerifier.create(userDetailsService.findByUsername("nobody")).verifyComplete();
+
+    verify(delegate, times(2)).findByUsername("nobody");
+  }
+}
@@ -0,0 +1,77 @@
+package com.example.erm.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.example.erm.event.UserChangedEvent;
+import com.example.erm.repository.domain.User;
+
+class CachingUserDetailsServiceTest {
+
+  private static final User TEST_USER =
+      User.builder()
+          .id("123")
+          .email("john@example.com")
+          .password("secret")
+          .roles(List.of("USER"))
+          .build();
+
+  private UserDetailsService delegate;
+  private CachingUserDetailsService userDetailsService;
+
+  @BeforeEach
+  void setUp() {
+    delegate = mock(UserDetailsService.class);
+    userDetailsService =
+        new CachingUserDetailsService(delegate, 100, Duration.ofMinutes(5), Duration.ofMinutes(1));
+  }
+
+  @Test
+  void testLoadUserIsCached() {
+    doReturn(ErmUserDetails.of(TEST_USER)).when(delegate).loadUserByUsername(TEST_USER.getEmail());
+
+    UserDetails first = userDetailsService.loadUserByUsername(TEST_USER.getEmail());
+    UserDetails second = userDetailsService.loadUserByUsername(TEST_USER.getEmail());
+
+    assertThat(second).isSameAs(first);
+    assertThat(first.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    verify(delegate, times(1)).loadUserByUsername(TEST_USER.getEmail());
+  }
+
+  @Test
+  void testUserChangedEventInvalidatesEntry() {
+    doReturn(ErmUserDetails.of(TEST_USER)).when(delegate).loadUserByUsername(TEST_USER.getEmail());
+
+    userDetailsService.loadUserByUsername(TEST_USER.getEmail());
+    userDetailsService.onUserChanged(UserChangedEvent.of(TEST_USER.getId(), TEST_USER.getEmail()));
+    userDetailsService.loadUserByUsername(TEST_USER.getEmail());
+
+    verify(delegate, times(2)).loadUserByUsername(TEST_USER.getEmail());
+  }
+
+  @Test
+  void testUnknownUserIsNotCached() {
+    doThrow(UsernameNotFoundException.class).when(delegate).loadUserByUsername("nobody");
+
+    assertThrows(
+        UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody"));
+    assertThrows(
+        UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody"));
+
+    verify(delegate, times(2)).loadUserByUsername("nobody");
+  }
+}
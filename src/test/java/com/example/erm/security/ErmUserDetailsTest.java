@@ -0,0 +1,30 @@
+package com.example.erm.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.erm.repository.domain.User;
+
+class ErmUserDetailsTest {
+
+  @Test
+  void testToStringLeavesPasswordOut() {
+    ErmUserDetails userDetails =
+        ErmUserDetails.of(
+            User.builder()
+                .id("123")
+                .email("john@example.com")
+                .password("$2a$10$hash")
+                .roles(List.of("USER"))
+                .build());
+
+    assertThat(userDetails.toString())
+        .contains("123")
+        .contains("john@example.com")
+        .contains("ROLE_USER")
+        .doesNotContain("$2a$10$hash");
+  }
+}
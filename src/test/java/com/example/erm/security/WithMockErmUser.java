@@ -0,0 +1,22 @@
+package com.example.erm.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.security.test.context.support.WithSecurityContext;
+
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@WithSecurityContext(factory = WithMockErmUserSecurityContextFactory.class)
+public @interface WithMockErmUser {
+
+  String id() default "123";
+
+  String username() default "john@example.com";
+
+  String name() default "John";
+
+  String[] roles() default {SecurityRole.USER};
+}
@@ -0,0 +1,34 @@
+package com.example.erm.security;
+
+import java.util.List;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithSecurityContextFactory;
+
+import com.example.erm.repository.domain.User;
+
+public class WithMockErmUserSecurityContextFactory
+    implements WithSecurityContextFactory<WithMockErmUser> {
+
+  @Override
+  public SecurityContext createSecurityContext(WithMockErmUser annotation) {
+    ErmUserDetails principal =
+        ErmUserDetails.of(
+            User.builder()
+                .id(annotation.id())
+                .email(annotation.username())
+                .name(annotation.name())
+                .password("password")
+                .roles(List.of(annotation.roles()))
+                .build());
+
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    context.setAuthentication(
+        UsernamePasswordAuthenticationToken.authenticated(
+            principal, principal.getPassword(), principal.getAuthorities()));
+
+    return context;
+  }
+}
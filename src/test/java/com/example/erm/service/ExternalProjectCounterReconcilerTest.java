@@ -0,0 +1,138 @@
+package com.example.erm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.erm.configuration.TestErmConfigurationProperties;
+import com.example.erm.repository.ExternalProjectCounterRepository;
+import com.example.erm.repository.ExternalProjectRepository;
+import com.example.erm.repository.ExternalProjectRepository.UserProjectCount;
+import com.example.erm.repository.UserDeletionRepository;
+import com.example.erm.repository.domain.ExternalProjectCounter;
+
+class ExternalProjectCounterReconcilerTest {
+
+  private static final Duration GRACE_PERIOD = Duration.ofMinutes(1);
+  private static final Instant COUNTED_BEFORE = Instant.now().minus(GRACE_PERIOD);
+  private static final Instant LONG_AGO = Instant.now().minus(Duration.ofHours(1));
+
+  private ExternalProjectRepository externalProjectRepository;
+  private ExternalProjectCounterRepository externalProjectCounterRepository;
+  private UserDeletionRepository userDeletionRepository;
+  private ExternalProjectCounterReconciler reconciler;
+
+  @BeforeEach
+  void setUp() {
+    externalProjectRepository = mock(ExternalProjectRepository.class);
+    externalProjectCounterRepository = mock(ExternalProjectCounterRepository.class);
+    userDeletionRepository = mock(UserDeletionRepository.class);
+    reconciler =
+        new ExternalProjectCounterReconciler(
+            externalProjectRepository,
+            externalProjectCounterRepository,
+            userDeletionRepository,
+            TestErmConfigurationProperties.bind(
+                Map.of("erm.external-project.counter-reconciliation.grace-period", GRACE_PERIOD)));
+  }
+
+  @Test
+  void testDriftedCounterIsRepaired() {
+    doReturn(true)
+        .when(externalProjectCounterRepository)
+        .compareAndSet("user-id", 3L, 5L, COUNTED_BEFORE);
+    ExternalProjectCounter counter = counter("user-id", 3L, LONG_AGO);
+
+    assertThat(reconciler.reconcile("user-id", counter, 5L, COUNTED_BEFORE)).isTrue();
+  }
+
+  @Test
+  void testOnlyProjectsOlderThanGracePeriodAreCounted() {
+    givenCounts(Stream.empty(), Stream.empty());
+    Instant before = Instant.now().minus(GRACE_PERIOD);
+
+    reconciler.reconcile();
+
+    ArgumentCaptor<Instant> countedBefore = ArgumentCaptor.forClass(Instant.class);
+    verify(externalProjectRepository).streamCountsByUserIdCreatedBefore(countedBefore.capture());
+    assertThat(countedBefore.getValue()).isBetween(before, Instant.now().minus(GRACE_PERIOD));
+  }
+
+  @Test
+  void testRecentlyChangedCounterIsLeftAlone() {
+    ExternalProjectCounter counter = counter("user-id", 3L, Instant.now());
+
+    assertThat(reconciler.reconcile("user-id", counter, 5L, COUNTED_BEFORE)).isFalse();
+    verifyNoInteractions(userDeletionRepository, externalProjectCounterRepository);
+  }
+
+  @Test
+  void testMatchingCounterIsLeftAlone() {
+    ExternalProjectCounter counter = counter("user-id", 5L, LONG_AGO);
+
+    assertThat(reconciler.reconcile("user-id", counter, 5L, COUNTED_BEFORE)).isFalse();
+    verifyNoInteractions(userDeletionRepository, externalProjectCounterRepository);
+  }
+
+  @Test
+  void testUserWithPendingDeletionIsSkipped() {
+    doReturn(true).when(userDeletionRepository).isPending("user-id");
+    ExternalProjectCounter counter = counter("user-id", 3L, LONG_AGO);
+
+    assertThat(reconciler.reconcile("user-id", counter, 5L, COUNTED_BEFORE)).isFalse();
+    verifyNoInteractions(externalProjectCounterRepository);
+  }
+
+  @Test
+  void testMissingCountersAreInitialized() {
+    givenCounts(
+        Stream.of(new UserProjectCount("first", 2L), new UserProjectCount("second", 1L)),
+        Stream.of(counter("second", 1L, LONG_AGO)));
+
+    reconciler.reconcile();
+
+    verify(externalProjectCounterRepository).initialize("first", 2L);
+    verify(externalProjectCounterRepository, never()).initialize("second", 1L);
+    verify(externalProjectCounterRepository, never())
+        .compareAndSet(anyString(), anyLong(), anyLong(), any());
+  }
+
+  @Test
+  void testCounterWithoutProjectsIsReset() {
+    givenCounts(
+        Stream.of(new UserProjectCount("first", 1L)),
+        Stream.of(counter("first", 1L, LONG_AGO), counter("second", 3L, LONG_AGO)));
+
+    reconciler.reconcile();
+
+    verify(externalProjectCounterRepository).compareAndSet(eq("second"), eq(3L), eq(0L), any());
+    verify(externalProjectCounterRepository, never())
+        .compareAndSet(eq("first"), anyLong(), anyLong(), any());
+  }
+
+  private void givenCounts(
+      Stream<UserProjectCount> counts, Stream<ExternalProjectCounter> counters) {
+    doReturn(counts).when(externalProjectRepository).streamCountsByUserIdCreatedBefore(any());
+    doReturn(counters).when(externalProjectCounterRepository).streamAll();
+  }
+
+  private static ExternalProjectCounter counter(String userId, long count, Instant updatedAt) {
+    return ExternalProjectCounter.builder().id(userId).count(count).updatedAt(updatedAt).build();
+  }
+}
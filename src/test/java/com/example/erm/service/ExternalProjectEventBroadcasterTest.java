@@ -0,0 +1,170 @@
+package com.example.erm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.erm.configuration.TestErmConfigurationProperties;
+import com.example.erm.event.ExternalProjectChangedEvent;
+import com.example.erm.repository.domain.ExternalProject;
+import com.example.erm.service.ExternalProjectEventBroadcaster.Subscription;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExternalProjectEventBroadcasterTest {
+
+  private static final int BUFFER_SIZE = 3;
+  private static final int QUEUE_SIZE = 2;
+
+  private SimpleMeterRegistry meterRegistry;
+  private ExternalProjectEventBroadcaster broadcaster;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    broadcaster =
+        new ExternalProjectEventBroadcaster(
+            TestErmConfigurationProperties.bind(
+                    Map.of(
+                        "erm.external-project.events.enabled",
+                        true,
+                        "erm.external-project.events.buffer-size",
+                        BUFFER_SIZE,
+                        "erm.external-project.events.subscriber-queue-size",
+                        QUEUE_SIZE))
+                .externalProject()
+                .events(),
+            meterRegistry);
+    broadcaster.changeStreamConnected(false);
+  }
+
+  @Test
+  void testChangesAreDeliveredToSubscribersOfTheUser() {
+    TestReceiver receiver = new TestReceiver();
+    TestReceiver otherReceiver = new TestReceiver();
+    broadcaster.subscribe("user", null, receiver);
+    broadcaster.subscribe("other-user", null, otherReceiver);
+
+    broadcaster.changed(event(1, "user"));
+
+    assertThat(receiver.positions()).containsExactly(1L);
+    assertThat(otherReceiver.positions()).isEmpty();
+    assertThat(broadcaster.getSubscriberCount()).isEqualTo(2);
+  }
+
+  @Test
+  void testChangesAfterLastEventIdAreReplayed() {
+    broadcaster.changed(event(1, "user"));
+    broadcaster.changed(event(2, "other-user"));
+    broadcaster.changed(event(3, "user"));
+
+    Subscription subscription = broadcaster.subscribe("user", "1", new TestReceiver());
+
+    assertThat(subscription.isReset()).isFalse();
+    assertThat(subscription.getReplay())
+        .extracting(ExternalProjectChangedEvent::position)
+        .containsExactly(3L);
+  }
+
+  @Test
+  void testUnknownLastEventIdIsReset() {
+    broadcaster.changed(event(1, "user"));
+
+    assertThat(broadcaster.subscribe("user", "not-a-position", new TestReceiver()).isReset())
+        .isTrue();
+    assertThat(broadcaster.subscribe("user", "0", new TestReceiver()).isReset()).isTrue();
+  }
+
+  @Test
+  void testEvictedLastEventIdIsReset() {
+    for (long position = 1; position <= BUFFER_SIZE + 2; position++) {
+      broadcaster.changed(event(position, "user"));
+    }
+
+    assertThat(broadcaster.subscribe("user", "1", new TestReceiver()).isReset()).isTrue();
+    assertThat(broadcaster.subscribe("user", "2", new TestReceiver()).getReplay())
+        .extracting(ExternalProjectChangedEvent::position)
+        .containsExactly(3L, 4L, 5L);
+  }
+
+  @Test
+  void testSlowSubscriberIsDropped() {
+    TestReceiver receiver = new TestReceiver();
+    broadcaster.subscribe("user", null, receiver);
+
+    for (long position = 1; position <= QUEUE_SIZE + 1; position++) {
+      broadcaster.changed(event(position, "user"));
+    }
+
+    assertThat(receiver.positions()).containsExactly(1L, 2L);
+    assertThat(receiver.dropped).isTrue();
+    assertThat(broadcaster.getSubscriberCount()).isZero();
+    assertThat(
+            meterRegistry
+                .get(ExternalProjectEventBroadcaster.DROPPED_METER_NAME)
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void testReconnectWithoutResumeDropsSubscribers() {
+    TestReceiver receiver = new TestReceiver();
+    broadcaster.changed(event(1, "user"));
+    broadcaster.subscribe("user", null, receiver);
+
+    broadcaster.changeStreamConnected(false);
+
+    assertThat(receiver.dropped).isTrue();
+    assertThat(broadcaster.getSubscriberCount()).isZero();
+    assertThat(broadcaster.subscribe("user", "1", new TestReceiver()).isReset()).isTrue();
+  }
+
+  @Test
+  void testUnsubscribedReceiverGetsNothing() {
+    TestReceiver receiver = new TestReceiver();
+    Subscription subscription = broadcaster.subscribe("user", null, receiver);
+
+    broadcaster.unsubscribe(subscription);
+    broadcaster.changed(event(1, "user"));
+
+    assertThat(receiver.positions()).isEmpty();
+    assertThat(broadcaster.getSubscriberCount()).isZero();
+  }
+
+  private static ExternalProjectChangedEvent event(long position, String userId) {
+    return new ExternalProjectChangedEvent(
+        position,
+        ExternalProjectChangedEvent.Type.CREATED,
+        ExternalProject.builder().id("project-" + position).userId(userId).build());
+  }
+
+  private static class TestReceiver implements ExternalProjectEventBroadcaster.Receiver {
+
+    private final List<ExternalProjectChangedEvent> events = new ArrayList<>();
+    private boolean dropped;
+
+    @Override
+    public boolean offer(ExternalProjectChangedEvent event) {
+      if (events.size() >= QUEUE_SIZE) {
+        return false;
+      }
+      events.add(event);
+      return true;
+    }
+
+    @Override
+    public void dropped() {
+      dropped = true;
+    }
+
+    List<Long> positions() {
+      return events.stream().map(ExternalProjectChangedEvent::position).toList();
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package com.example.erm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import com.example.erm.configuration.TestErmConfigurationProperties;
+import com.example.erm.exception.ExternalProjectInsertTimeoutException;
+import com.example.erm.repository.ExternalProjectRepository;
+import com.example.erm.repository.domain.ExternalProject;
+import com.mongodb.bulk.BulkWriteError;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExternalProjectInsertBatcherTest {
+
+  private static final int MAX_BATCH_SIZE = 3;
+
+  private ExternalProjectRepository externalProjectRepository;
+  private SimpleMeterRegistry registry;
+  private ExternalProjectInsertBatcher batcher;
+
+  @BeforeEach
+  void setUp() {
+    externalProjectRepository = mock(ExternalProjectRepository.class);
+    registry = new SimpleMeterRegistry();
+    // long enough that only a full batch triggers the flush
+    batcher =
+        new ExternalProjectInsertBatcher(
+            externalProjectRepository,
+            TestErmConfigurationProperties.bind(
+                Map.of(
+                    "erm.external-project.insert-batching.enabled",
+                    true,
+                    "erm.external-project.insert-batching.max-batch-size",
+                    MAX_BATCH_SIZE,
+                    "erm.external-project.insert-batching.max-wait",
+                    "1m")),
+            registry);
+    batcher.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    batcher.stop();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testConcurrentInsertsAreWrittenTogether() {
+    doReturn(List.of()).when(externalProjectRepository).insertAllUnordered(any());
+
+    List<CompletableFuture<ExternalProject>> results =
+        List.of(
+            batcher.submit(project("first")),
+            batcher.submit(project("second")),
+            batcher.submit(project("third")));
+
+    assertThat(results)
+        .extracting(CompletableFuture::join)
+        .extracting(ExternalProject::getName)
+        .containsExactly("first", "second", "third");
+    ArgumentCaptor<List<ExternalProject>> captor = ArgumentCaptor.forClass(List.class);
+    verify(externalProjectRepository).insertAllUnordered(captor.capture());
+    assertThat(captor.getValue()).hasSize(MAX_BATCH_SIZE);
+    assertThat(registry.get(ExternalProjectInsertBatcher.BATCH_SIZE_METER_NAME).summary().max())
+        .isEqualTo(MAX_BATCH_SIZE);
+    assertThat(registry.get(ExternalProjectInsertBatcher.QUEUE_DELAY_METER_NAME).timer().count())
+        .isEqualTo(MAX_BATCH_SIZE);
+  }
+
+  @Test
+  void testWriteErrorFailsOnlyItsCaller() {
+    doReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)))
+        .when(externalProjectRepository)
+        .insertAllUnordered(any());
+
+    CompletableFuture<ExternalProject> first = batcher.submit(project("first"));
+    CompletableFuture<ExternalProject> second = batcher.submit(project("second"));
+    CompletableFuture<ExternalProject> third = batcher.submit(project("third"));
+
+    assertThat(first.join().getName()).isEqualTo("first");
+    ExecutionException e = assertThrows(ExecutionException.class, second::get);
+    assertThat(e.getCause()).isInstanceOf(DuplicateKeyException.class);
+    assertThat(third.join().getName()).isEqualTo("third");
+  }
+
+  @Test
+  void testFailedInsertFailsWholeBatch() {
+    doThrow(new DataAccessResourceFailureException("unreachable"))
+        .when(externalProjectRepository)
+        .insertAllUnordered(any());
+
+    batcher.submit(project("first"));
+    batcher.submit(project("second"));
+
+    assertThrows(DataAccessResourceFailureException.class, () -> batcher.insert(project("third")));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testInsertAfterStopIsWrittenDirectly() {
+    doReturn(List.of()).when(externalProjectRepository).insertAllUnordered(any());
+    batcher.stop();
+
+    assertThat(batcher.insert(project("late")).getName()).isEqualTo("late");
+    ArgumentCaptor<List<ExternalProject>> captor = ArgumentCaptor.forClass(List.class);
+    verify(externalProjectRepository).insertAllUnordered(captor.capture());
+    assertThat(captor.getValue()).extracting(ExternalProject::getName).containsExactly("late");
+  }
+
+  @Test
+  void testStalledInsertTimesOut() {
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              release.await();
+              return List.of();
+            })
+        .when(externalProjectRepository)
+        .insertAllUnordered(any());
+    batcher.stop();
+    batcher =
+        new ExternalProjectInsertBatcher(
+            externalProjectRepository,
+            TestErmConfigurationProperties.bind(
+                Map.of(
+                    "erm.external-project.insert-batching.enabled",
+                    true,
+                    "erm.external-project.insert-batching.max-wait",
+                    "10ms",
+                    "erm.external-project.insert-batching.timeout",
+                    "50ms")),
+            registry);
+    batcher.start();
+
+    try {
+      assertThrows(
+          ExternalProjectInsertTimeoutException.class, () -> batcher.insert(project("stalled")));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  void testStopsAfterWebServer() {
+    assertThat(batcher.getPhase())
+        .isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+  }
+
+  private static ExternalProject project(String name) {
+    return ExternalProject.builder().userId("user-id").name(name).build();
+  }
+}
@@ -1,34 +1,59 @@
 package com.example.erm.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import com.example.erm.command.ExternalProjectCreateCommand;
 import com.example.erm.command.ExternalProjectListCommand;
+import com.example.erm.command.ExternalProjectScrollCommand;
+import com.example.erm.repository.ExternalProjectCounterRepository;
 import com.example.erm.repository.ExternalProjectRepository;
 import com.example.erm.repository.domain.ExternalProject;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 class ExternalProjectServiceTest {
 
   private ExternalProjectRepository externalProjectRepository;
+  private ExternalProjectCounterRepository externalProjectCounterRepository;
+  private ExternalProjectInsertBatcher externalProjectInsertBatcher;
   private ExternalProjectService externalProjectService;
 
   @BeforeEach
   void setUp() {
     externalProjectRepository = mock(ExternalProjectRepository.class);
-    externalProjectService = new ExternalProjectService(externalProjectRepository);
+    externalProjectCounterRepository = mock(ExternalProjectCounterRepository.class);
+    externalProjectInsertBatcher = mock(ExternalProjectInsertBatcher.class);
+    externalProjectService =
+        new ExternalProjectService(
+            externalProjectRepository,
+            externalProjectCounterRepository,
+            externalProjectInsertBatcher,
+            new SimpleMeterRegistry());
   }
 
   @Test
   void testCreateExternalProject() {
     ExternalProjectCreateCommand createCommand =
         new ExternalProjectCreateCommand("abcde", "super-project");
+    doAnswer(invocation -> invocation.getArgument(0))
+        .when(externalProjectRepository)
+        .insert(any());
 
     externalProjectService.createExternalProject(createCommand);
 
@@ -37,15 +62,104 @@ class ExternalProjectServiceTest {
     assertThat(captor.getValue()).isNotNull();
     assertThat(captor.getValue().getName()).isEqualTo(createCommand.name());
     assertThat(captor.getValue().getUserId()).isEqualTo(createCommand.userId());
+    verify(externalProjectCounterRepository).increment(createCommand.userId(), 1);
+  }
+
+  @Test
+  void testCreateExternalProjectBatched() {
+    ExternalProjectCreateCommand createCommand =
+        new ExternalProjectCreateCommand("abcde", "super-project");
+    doReturn(true).when(externalProjectInsertBatcher).isEnabled();
+    doAnswer(invocation -> invocation.getArgument(0))
+        .when(externalProjectInsertBatcher)
+        .insert(any());
+
+    ExternalProject externalProject = externalProjectService.createExternalProject(createCommand);
+
+    assertThat(externalProject.getId()).isNotNull();
+    assertThat(externalProject.getCreatedAt()).isNotNull();
+    assertThat(externalProject.getName()).isEqualTo(createCommand.name());
+    verifyNoInteractions(externalProjectRepository);
+    verify(externalProjectCounterRepository).increment(createCommand.userId(), 1);
+  }
+
+  @Test
+  void testCreateExternalProjects() {
+    List<ExternalProjectCreateCommand> commands =
+        List.of(
+            new ExternalProjectCreateCommand("abcde", "first-project"),
+            new ExternalProjectCreateCommand("abcde", "second-project"));
+    doAnswer(invocation -> invocation.getArgument(0))
+        .when(externalProjectRepository)
+        .insertAll(any());
+
+    List<ExternalProject> externalProjects =
+        externalProjectService.createExternalProjects(commands);
+
+    assertThat(externalProjects)
+        .extracting(ExternalProject::getName)
+        .containsExactly("first-project", "second-project");
+    assertThat(externalProjects.get(0).getId()).isLessThan(externalProjects.get(1).getId());
+    assertThat(externalProjects)
+        .allSatisfy(
+            externalProject -> {
+              assertThat(externalProject.getCreatedAt())
+                  .isEqualTo(externalProjects.get(0).getCreatedAt());
+              assertThat(externalProject.getUpdatedAt()).isEqualTo(externalProject.getCreatedAt());
+            });
+    verify(externalProjectCounterRepository).increment("abcde", 2);
   }
 
   @Test
   void listExternalProjects() {
     ExternalProjectListCommand listCommand =
-        new ExternalProjectListCommand("user-id", Pageable.ofSize(10));
+        new ExternalProjectListCommand("user-id", Pageable.ofSize(2));
+    doReturn(
+            new SliceImpl<>(
+                List.of(new ExternalProject(), new ExternalProject()), listCommand.page(), true))
+        .when(externalProjectRepository)
+        .list(listCommand);
+    doReturn(7L).when(externalProjectCounterRepository).count("user-id");
 
-    externalProjectService.listExternalProjects(listCommand);
+    Slice<ExternalProject> externalProjects =
+        externalProjectService.listExternalProjects(listCommand);
 
+    assertThat(externalProjects)
+        .isInstanceOfSatisfying(
+            Page.class, page -> assertThat(page.getTotalElements()).isEqualTo(7));
     verify(externalProjectRepository).list(listCommand);
   }
+
+  @Test
+  void listExternalProjectsWithoutTotal() {
+    ExternalProjectListCommand listCommand =
+        new ExternalProjectListCommand("user-id", Pageable.ofSize(2), false);
+    doReturn(new SliceImpl<>(List.of(new ExternalProject()), listCommand.page(), false))
+        .when(externalProjectRepository)
+        .list(listCommand);
+
+    Slice<ExternalProject> externalProjects =
+        externalProjectService.listExternalProjects(listCommand);
+
+    assertThat(externalProjects).isNotInstanceOf(Page.class);
+    assertThat(externalProjects.hasNext()).isFalse();
+    verifyNoInteractions(externalProjectCounterRepository);
+  }
+
+  @Test
+  void streamExternalProjects() {
+    externalProjectService.streamExternalProjects("user-id");
+
+    verify(externalProjectRepository).streamByUserId("user-id");
+  }
+
+  @Test
+  void scrollExternalProjects() {
+    ExternalProjectScrollCommand scrollCommand =
+        new ExternalProjectScrollCommand("user-id", null, 10);
+
+    externalProjectService.scrollExternalProjects(scrollCommand);
+
+    verify(externalProjectRepository).scroll(scrollCommand);
+  }
 }
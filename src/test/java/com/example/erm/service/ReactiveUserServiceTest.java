@@ -0,0 +1,158 @@
+package com.example.erm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.erm.command.UserCreateCommand;
+import com.example.erm.command.UserUpdateCommand;
+import com.example.erm.event.UserChangedEvent;
+import com.example.erm.exception.DuplicateEmailException;
+import com.example.erm.exception.UserModifiedException;
+import com.example.erm.repository.ReactiveUserDeletionRepository;
+import com.example.erm.repository.ReactiveUserRepository;
+import com.example.erm.repository.domain.User;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ReactiveUserServiceTest {
+
+  private ReactiveUserRepository userRepository;
+  private ReactiveUserDeletionRepository userDeletionRepository;
+  private ApplicationEventPublisher eventPublisher;
+  private UserService blockingUserService;
+  private ReactiveUserService userService;
+
+  @BeforeEach
+  void setUp() {
+    PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    doReturn("encodedPassword!").when(passwordEncoder).encode(any());
+    userRepository = mock(ReactiveUserRepository.class);
+    userDeletionRepository = mock(ReactiveUserDeletionRepository.class);
+    eventPublisher = mock(ApplicationEventPublisher.class);
+    blockingUserService = mock(UserService.class);
+    userService =
+        new ReactiveUserService(
+            userRepository,
+            userDeletionRepository,
+            passwordEncoder,
+            eventPublisher,
+            blockingUserService);
+  }
+
+  @Test
+  void testCreateUser() {
+    UserCreateCommand command =
+        new UserCreateCommand("john@foo.com", "password!", "John Bar", List.of("USER"));
+    doReturn(Mono.just(User.builder().id("12345").email("john@foo.com").build()))
+        .when(userRepository)
+        .insert(any());
+
+    StepVerifier.create(userService.createUser(command))
+        .assertNext(user -> assertThat(user.getId()).isEqualTo("12345"))
+        .verifyComplete();
+
+    ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+    verify(userRepository).insert(captor.capture());
+    assertThat(captor.getValue().getPassword()).isEqualTo("encodedPassword!");
+    verify(eventPublisher).publishEvent(UserChangedEvent.of("12345", "john@foo.com"));
+  }
+
+  @Test
+  void testCreateUserWithDuplicateEmail() {
+    UserCreateCommand command =
+        new UserCreateCommand("john@foo.com", "password!", "John Bar", List.of("USER"));
+    doReturn(Mono.error(new DuplicateKeyException("duplicate")))
+        .when(userRepository)
+        .insert(any());
+
+    StepVerifier.create(userService.createUser(command))
+        .expectError(DuplicateEmailException.class)
+        .verify();
+
+    verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  void testImportUsersDelegatesToBlockingService() {
+    List<UserCreateCommand> commands =
+        List.of(new UserCreateCommand("john@foo.com", "password!", "John Bar", List.of("USER")));
+    List<UserService.ImportedUser> importedUsers =
+        List.of(
+            new UserService.ImportedUser(
+                "12345", "john@foo.com", UserService.ImportStatus.CREATED));
+    doReturn(importedUsers).when(blockingUserService).importUsers(commands);
+
+    StepVerifier.create(userService.importUsers(commands))
+        .expectNext(importedUsers)
+        .verifyComplete();
+  }
+
+  @Test
+  void testUpdateUserModifiedMeanwhile() {
+    doReturn(Mono.empty()).when(userRepository).update(any());
+    doReturn(Mono.just(true)).when(userRepository).existsById("12345");
+
+    StepVerifier.create(
+            userService.updateUser(
+                new UserUpdateCommand(
+                    "12345", "john@foo.com", "password!", "John Bar", List.of("USER"), 3L)))
+        .verifyError(UserModifiedException.class);
+    verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  void testUpdateUnknownUserWithExpectedVersion() {
+    doReturn(Mono.empty()).when(userRepository).update(any());
+    doReturn(Mono.just(false)).when(userRepository).existsById("12345");
+
+    StepVerifier.create(
+            userService.updateUser(
+                new UserUpdateCommand(
+                    "12345", "john@foo.com", "password!", "John Bar", List.of("USER"), 3L)))
+        .verifyComplete();
+  }
+
+  @Test
+  void testDeleteUserSchedulesDeletionOfExternalProjects() {
+    doReturn(Mono.just(true)).when(userRepository).existsById("12345");
+    doReturn(Mono.just(User.builder().id("12345").email("john@foo.com").build()))
+        .when(userRepository)
+        .deleteById("12345");
+    doReturn(Mono.empty()).when(userDeletionRepository).schedule(eq("12345"), any());
+
+    StepVerifier.create(userService.deleteUserById("12345")).expectNext(true).verifyComplete();
+
+    InOrder inOrder = inOrder(userDeletionRepository, userRepository);
+    inOrder.verify(userDeletionRepository).schedule(eq("12345"), any());
+    inOrder.verify(userRepository).deleteById("12345");
+    verify(eventPublisher).publishEvent(UserChangedEvent.of("12345", "john@foo.com"));
+  }
+
+  @Test
+  void testDeleteUnknownUser() {
+    doReturn(Mono.just(false)).when(userRepository).existsById("12345");
+
+    StepVerifier.create(userService.deleteUserById("12345")).expectNext(false).verifyComplete();
+
+    verify(userRepository, never()).deleteById("12345");
+    verifyNoInteractions(userDeletionRepository, eventPublisher);
+  }
+}
@@ -0,0 +1,191 @@
+package com.example.erm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+  private static final int CALLERS = 8;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicInteger reads = new AtomicInteger();
+
+  private SimpleMeterRegistry meterRegistry;
+  private SingleFlight<String, String> singleFlight;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    singleFlight = new SingleFlight<>("user-by-id", String::new, meterRegistry);
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testConcurrentCallsShareOneRead() throws Exception {
+    List<Future<String>> results = callConcurrently("id", () -> "user-" + reads.incrementAndGet());
+
+    for (Future<String> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+    }
+    assertThat(reads).hasValue(1);
+    assertThat(count("executed")).isEqualTo(1);
+    assertThat(count("coalesced")).isEqualTo(CALLERS - 1);
+  }
+
+  @Test
+  void testEveryCallerGetsItsOwnCopy() throws Exception {
+    List<Future<String>> results = callConcurrently("id", () -> "user-" + reads.incrementAndGet());
+
+    Set<String> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (Future<String> result : results) {
+      distinct.add(result.get(5, TimeUnit.SECONDS));
+    }
+    assertThat(distinct).hasSize(CALLERS);
+  }
+
+  @Test
+  void testStuckReadIsNotWaitedForBeyondJoinTimeout() throws Exception {
+    singleFlight =
+        new SingleFlight<>("user-by-id", String::new, Duration.ofMillis(50), meterRegistry);
+    CountDownLatch started = new CountDownLatch(1);
+    Future<String> stuck =
+        executor.submit(
+            () ->
+                singleFlight.execute(
+                    "id",
+                    () -> {
+                      started.countDown();
+                      awaitRelease();
+                      return "stuck";
+                    }));
+    started.await();
+
+    assertThat(singleFlight.execute("id", () -> "own-read")).isEqualTo("own-read");
+    assertThat(count("timed-out")).isEqualTo(1);
+    release.countDown();
+    assertThat(stuck.get(5, TimeUnit.SECONDS)).isEqualTo("stuck");
+  }
+
+  @Test
+  void testFailureIsPropagatedToAllCallers() throws Exception {
+    List<Future<String>> results =
+        callConcurrently(
+            "id",
+            () -> {
+              reads.incrementAndGet();
+              throw new IllegalStateException("mongo unavailable");
+            });
+
+    for (Future<String> result : results) {
+      ExecutionException e =
+          assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+      assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+    }
+    assertThat(reads).hasValue(1);
+  }
+
+  @Test
+  void testDifferentKeysAreNotCoalesced() {
+    assertThat(singleFlight.execute("first", () -> "first-user")).isEqualTo("first-user");
+    assertThat(singleFlight.execute("second", () -> "second-user")).isEqualTo("second-user");
+    assertThat(count("coalesced")).isZero();
+  }
+
+  @Test
+  void testCompletedReadIsNotReused() {
+    singleFlight.execute("id", () -> "user-" + reads.incrementAndGet());
+
+    assertThat(singleFlight.execute("id", () -> "user-" + reads.incrementAndGet()))
+        .isEqualTo("user-2");
+  }
+
+  @Test
+  void testForgottenReadIsNotJoined() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    Future<String> stale =
+        executor.submit(
+            () ->
+                singleFlight.execute(
+                    "id",
+                    () -> {
+                      started.countDown();
+                      awaitRelease();
+                      return "before-write";
+                    }));
+    started.await();
+
+    singleFlight.forget("id");
+
+    assertThat(singleFlight.execute("id", () -> "after-write")).isEqualTo("after-write");
+    release.countDown();
+    assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("before-write");
+  }
+
+  // the first caller blocks in its read until all others have joined it
+  private List<Future<String>> callConcurrently(String key, Supplier<String> read)
+      throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    Future<String> first =
+        executor.submit(
+            () ->
+                singleFlight.execute(
+                    key,
+                    () -> {
+                      started.countDown();
+                      awaitRelease();
+                      return read.get();
+                    }));
+    started.await();
+    List<Future<String>> others =
+        IntStream.range(1, CALLERS)
+            .mapToObj(i -> executor.submit(() -> singleFlight.execute(key, () -> "not-coalesced")))
+            .toList();
+    while (count("coalesced") < CALLERS - 1) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    return Stream.concat(Stream.of(first), others.stream()).toList();
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private double count(String outcome) {
+    return meterRegistry.get(SingleFlight.METER_NAME).tag("outcome", outcome).counter().count();
+  }
+}
@@ -0,0 +1,138 @@
+package com.example.erm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.erm.configuration.TestErmConfigurationProperties;
+import com.example.erm.repository.ExternalProjectCounterRepository;
+import com.example.erm.repository.ExternalProjectRepository;
+import com.example.erm.repository.UserDeletionRepository;
+import com.example.erm.repository.UserRepository;
+import com.example.erm.repository.domain.UserDeletion;
+
+class UserDeletionCascadeTest {
+
+  private static final int BATCH_SIZE = 2;
+
+  private UserDeletionRepository userDeletionRepository;
+  private ExternalProjectRepository externalProjectRepository;
+  private ExternalProjectCounterRepository externalProjectCounterRepository;
+  private UserRepository userRepository;
+  private UserDeletionCascade userDeletionCascade;
+
+  @BeforeEach
+  void setUp() {
+    userDeletionRepository = mock(UserDeletionRepository.class);
+    externalProjectRepository = mock(ExternalProjectRepository.class);
+    externalProjectCounterRepository = mock(ExternalProjectCounterRepository.class);
+    userRepository = mock(UserRepository.class);
+    userDeletionCascade =
+        new UserDeletionCascade(
+            userDeletionRepository,
+            externalProjectRepository,
+            externalProjectCounterRepository,
+            userRepository,
+            TestErmConfigurationProperties.bind(
+                Map.of(
+                    "erm.user-deletion.batch-size",
+                    BATCH_SIZE,
+                    "erm.user-deletion.pause-between-batches",
+                    "0s")));
+  }
+
+  @Test
+  void testProjectsAreDeletedInBatches() {
+    doReturn(2L, 2L, 1L, 0L)
+        .when(externalProjectRepository)
+        .deleteBatchByUserId("user-id", BATCH_SIZE);
+    doReturn(true)
+        .when(userDeletionRepository)
+        .recordProgress(eq("user-id"), anyString(), anyLong(), any());
+
+    assertThat(userDeletionCascade.cascade(deletion("user-id", Instant.now()))).isTrue();
+
+    // the short batch does not end the cascade, only an empty one does
+    verify(externalProjectRepository, times(4)).deleteBatchByUserId("user-id", BATCH_SIZE);
+    verify(userDeletionRepository, times(2))
+        .recordProgress(eq("user-id"), anyString(), eq(2L), any());
+    verify(userDeletionRepository).recordProgress(eq("user-id"), anyString(), eq(1L), any());
+    verify(externalProjectCounterRepository).delete("user-id");
+    verify(userDeletionRepository).complete(eq("user-id"), anyString());
+  }
+
+  @Test
+  void testLostLeaseStopsCascade() {
+    doReturn(2L).when(externalProjectRepository).deleteBatchByUserId("user-id", BATCH_SIZE);
+    doReturn(false)
+        .when(userDeletionRepository)
+        .recordProgress(eq("user-id"), anyString(), anyLong(), any());
+
+    userDeletionCascade.cascade(deletion("user-id", Instant.now()));
+
+    verify(externalProjectRepository, times(1)).deleteBatchByUserId("user-id", BATCH_SIZE);
+    verify(userDeletionRepository, never()).complete(anyString(), anyString());
+  }
+
+  @Test
+  void testRunProcessesAllClaimedDeletions() {
+    doReturn(
+            Optional.of(UserDeletion.builder().id("first").build()),
+            Optional.of(UserDeletion.builder().id("second").build()),
+            Optional.empty())
+        .when(userDeletionRepository)
+        .claim(anyString(), any(), any());
+    doReturn(0L).when(externalProjectRepository).deleteBatchByUserId(anyString(), eq(BATCH_SIZE));
+
+    userDeletionCascade.run();
+
+    verify(userDeletionRepository).complete(eq("first"), anyString());
+    verify(userDeletionRepository).complete(eq("second"), anyString());
+  }
+
+  @Test
+  void testUserBeingDeletedIsLeftForNextClaim() {
+    doReturn(true).when(userRepository).existsById("user-id");
+
+    assertThat(userDeletionCascade.cascade(deletion("user-id", Instant.now()))).isTrue();
+
+    verify(externalProjectRepository, never()).deleteBatchByUserId(anyString(), anyInt());
+    verify(userDeletionRepository, never()).abandon(anyString(), anyString(), any());
+  }
+
+  @Test
+  void testDeletionOfUserThatWasNeverDeletedIsAbandoned() {
+    Instant lastRequestedAt = Instant.now().minus(Duration.ofMinutes(2));
+    doReturn(true).when(userRepository).existsById("user-id");
+
+    userDeletionCascade.cascade(deletion("user-id", lastRequestedAt));
+
+    verify(externalProjectRepository, never()).deleteBatchByUserId(anyString(), anyInt());
+    verify(userDeletionRepository).abandon(eq("user-id"), anyString(), eq(lastRequestedAt));
+    verify(externalProjectCounterRepository, never()).delete(anyString());
+  }
+
+  private static UserDeletion deletion(String userId, Instant lastRequestedAt) {
+    return UserDeletion.builder()
+        .id(userId)
+        .requestedAt(lastRequestedAt)
+        .lastRequestedAt(lastRequestedAt)
+        .build();
+  }
+}
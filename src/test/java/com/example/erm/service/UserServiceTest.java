@@ -1,41 +1,67 @@
 package com.example.erm.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 import java.util.List;
 import java.util.Optional;
 
+import org.bson.BsonDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.example.erm.command.UserCreateCommand;
+import com.example.erm.command.UserListCommand;
 import com.example.erm.command.UserUpdateCommand;
+import com.example.erm.event.UserChangedEvent;
 import com.example.erm.exception.DuplicateEmailException;
+import com.example.erm.exception.UserModifiedException;
+import com.example.erm.repository.UserDeletionRepository;
 import com.example.erm.repository.UserRepository;
 import com.example.erm.repository.domain.User;
-import com.mongodb.client.result.DeleteResult;
+import com.example.erm.security.ParallelPasswordEncoder;
+import com.mongodb.bulk.BulkWriteError;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 class UserServiceTest {
 
   private PasswordEncoder passwordEncoder;
   private UserRepository userRepository;
+  private ApplicationEventPublisher eventPublisher;
+  private UserDeletionRepository userDeletionRepository;
   private UserService userService;
 
   @BeforeEach
   void setUp() {
     passwordEncoder = mock(PasswordEncoder.class);
     userRepository = mock(UserRepository.class);
-    userService = new UserService(userRepository, passwordEncoder);
+    eventPublisher = mock(ApplicationEventPublisher.class);
+    userDeletionRepository = mock(UserDeletionRepository.class);
+    userService =
+        new UserService(
+            userRepository,
+            passwordEncoder,
+            eventPublisher,
+            new ParallelPasswordEncoder(passwordEncoder, 2),
+            userDeletionRepository,
+            new SimpleMeterRegistry());
   }
 
   @Test
@@ -55,6 +81,18 @@ class UserServiceTest {
     assertThat(captor.getValue().getName()).isEqualTo(command.name());
   }
 
+  @Test
+  void testCreateUserPublishesEvent() {
+    doReturn(User.builder().id("12345").email("john@foo.com").build())
+        .when(userRepository)
+        .insert(any());
+
+    userService.createUser(
+        new UserCreateCommand("john@foo.com", "password!", "John Bar", List.of("USER")));
+
+    verify(eventPublisher).publishEvent(UserChangedEvent.of("12345", "john@foo.com"));
+  }
+
   @Test
   void testCreateUserDuplicateEmail() {
     doThrow(DuplicateKeyException.class).when(userRepository).insert(any());
@@ -69,7 +107,8 @@ class UserServiceTest {
   @Test
   void testUpdateUser() {
     UserUpdateCommand command =
-        new UserUpdateCommand("12345", "john@foo.com", "password!", "John Bar", List.of("USER"));
+        new UserUpdateCommand(
+            "12345", "john@foo.com", "password!", "John Bar", List.of("USER"), null);
     String encodedPassword = "encodedPassword!";
     doReturn(encodedPassword).when(passwordEncoder).encode(any());
 
@@ -84,6 +123,21 @@ class UserServiceTest {
     assertThat(captor.getValue().roles()).isEqualTo(command.roles());
   }
 
+  @Test
+  void testUpdateUserPublishesEvent() {
+    UserUpdateCommand command =
+        new UserUpdateCommand(
+            "12345", "john@foo.com", "password!", "John Bar", List.of("USER"), null);
+    doReturn(User.builder().id("12345").email("john@bar.com").build())
+        .when(userRepository)
+        .update(any());
+
+    userService.updateUser(command);
+
+    verify(eventPublisher)
+        .publishEvent(UserChangedEvent.of("12345", "john@bar.com", "john@foo.com"));
+  }
+
   @Test
   void testUpdateUserDuplicateEmail() {
     doThrow(DuplicateKeyException.class).when(userRepository).update(any());
@@ -92,10 +146,23 @@ class UserServiceTest {
         () ->
             userService.updateUser(
                 new UserUpdateCommand(
-                    "12345", "john@foo.com", "password!", "John Bar", List.of("USER")));
+                    "12345", "john@foo.com", "password!", "John Bar", List.of("USER"), null));
     assertThrows(DuplicateEmailException.class, executable);
   }
 
+  @Test
+  void testUpdateUserModifiedMeanwhile() {
+    doReturn(true).when(userRepository).existsById("12345");
+
+    Executable executable =
+        () ->
+            userService.updateUser(
+                new UserUpdateCommand(
+                    "12345", "john@foo.com", "password!", "John Bar", List.of("USER"), 3L));
+    assertThrows(UserModifiedException.class, executable);
+    verifyNoInteractions(eventPublisher);
+  }
+
   @Test
   void findUserById() {
     String userId = "userId";
@@ -116,21 +183,76 @@ class UserServiceTest {
   @Test
   void deleteUserById() {
     String userId = "userId";
-    doReturn(DeleteResult.acknowledged(1)).when(userRepository).deleteById(userId);
+    doReturn(true).when(userRepository).existsById(userId);
+    doReturn(Optional.of(User.builder().id(userId).email("john@foo.com").build()))
+        .when(userRepository)
+        .deleteById(userId);
 
-    userService.deleteUserById(userId);
+    boolean deleted = userService.deleteUserById(userId);
 
-    verify(userRepository).deleteById(userId);
+    assertThat(deleted).isTrue();
+    InOrder inOrder = inOrder(userDeletionRepository, userRepository);
+    inOrder.verify(userDeletionRepository).schedule(eq(userId), any());
+    inOrder.verify(userRepository).deleteById(userId);
+    verify(eventPublisher).publishEvent(UserChangedEvent.of(userId, "john@foo.com"));
   }
 
   @Test
   void deleteUserByIdNotFound() {
     String userId = "userId";
-    doReturn(DeleteResult.acknowledged(0)).when(userRepository).deleteById(userId);
+    doReturn(false).when(userRepository).existsById(userId);
 
     boolean deleted = userService.deleteUserById(userId);
 
     assertThat(deleted).isFalse();
-    verify(userRepository).deleteById(userId);
+    verify(userRepository, never()).deleteById(userId);
+    verifyNoInteractions(eventPublisher, userDeletionRepository);
+  }
+
+  @Test
+  void testListUsers() {
+    UserListCommand command = new UserListCommand("ADMIN", "john", null, 10);
+
+    userService.listUsers(command);
+
+    verify(userRepository).list(command);
+  }
+
+  @Test
+  void testImportUsers() {
+    List<UserCreateCommand> commands =
+        List.of(
+            new UserCreateCommand("john@foo.com", "password!", "John", List.of("USER")),
+            new UserCreateCommand("jane@foo.com", "password!", "Jane", List.of("USER")),
+            new UserCreateCommand("jim@foo.com", "password!", "Jim", List.of("USER")));
+    doReturn("encodedPassword!").when(passwordEncoder).encode(any());
+    doReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)))
+        .when(userRepository)
+        .insertAll(any());
+
+    List<UserService.ImportedUser> importedUsers = userService.importUsers(commands);
+
+    assertThat(importedUsers)
+        .extracting(UserService.ImportedUser::email, UserService.ImportedUser::status)
+        .containsExactly(
+            tuple("john@foo.com", UserService.ImportStatus.CREATED),
+            tuple("jane@foo.com", UserService.ImportStatus.DUPLICATE_EMAIL),
+            tuple("jim@foo.com", UserService.ImportStatus.CREATED));
+    assertThat(importedUsers.get(0).id()).isNotNull();
+    assertThat(importedUsers.get(1).id()).isNull();
+
+    ArgumentCaptor<List<User>> captor = ArgumentCaptor.captor();
+    verify(userRepository).insertAll(captor.capture());
+    assertThat(captor.getValue())
+        .allSatisfy(
+            user -> {
+              assertThat(user.getId()).isNotNull();
+              assertThat(user.getPassword()).isEqualTo("encodedPassword!");
+              assertThat(user.getCreatedAt()).isNotNull();
+            });
+    verify(eventPublisher)
+        .publishEvent(UserChangedEvent.of(importedUsers.get(0).id(), "john@foo.com"));
+    verify(eventPublisher)
+        .publishEvent(UserChangedEvent.of(importedUsers.get(2).id(), "jim@foo.com"));
   }
 }